@@ -0,0 +1,103 @@
+package com.ai.aitravelplanner.cache;
+
+import com.ai.aitravelplanner.dto.BudgetAnalysisDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 预算分析结果缓存，按行程ID缓存
+ * 行程的支出发生变化（新增、删除）时由 BudgetService 主动失效，否则一直复用上次的分析结果
+ * 每次失效递增该行程的版本号；分析前记下版本号，写入时版本已变化说明分析用的是旧支出，丢弃不缓存。
+ * 在事务内失效时等提交后再递增版本，保证版本变化之后读到的一定是新数据。
+ */
+@Component
+public class BudgetAnalysisCache {
+
+    private static final String CACHE_NAME = "budget.analysis";
+
+    private final Cache<Long, BudgetAnalysisDTO> cache;
+    // 行程最近一次失效的序号；模型调用最长几分钟，保留 1 小时足够判断
+    private final Cache<Long, Long> generations = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public BudgetAnalysisCache(@Value("${budget.analysis-cache.max-size:1000}") long maxSize,
+                               @Value("${budget.analysis-cache.ttl-hours:24}") long ttlHours,
+                               MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 查询缓存，返回副本，调用方修改结果不会污染缓存
+     */
+    public BudgetAnalysisDTO get(Long planId) {
+        BudgetAnalysisDTO cached = cache.getIfPresent(planId);
+        return cached != null ? copy(cached) : null;
+    }
+
+    /**
+     * 分析开始前调用，写入时传给 {@link #put}
+     */
+    public long generation(Long planId) {
+        Long generation = generations.getIfPresent(planId);
+        return generation != null ? generation : 0L;
+    }
+
+    /**
+     * 分析期间支出没有变化时才写入
+     * @param generation 分析开始前 {@link #generation} 的返回值
+     */
+    public void put(Long planId, long generation, BudgetAnalysisDTO analysis) {
+        if (analysis == null || generation(planId) != generation) {
+            return;
+        }
+        BudgetAnalysisDTO stored = copy(analysis);
+        cache.put(planId, stored);
+        // 检查和写入之间发生的失效已经执行过，这里补删
+        if (generation(planId) != generation) {
+            cache.asMap().remove(planId, stored);
+        }
+    }
+
+    public void invalidate(Long planId) {
+        if (planId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(planId);
+                }
+            });
+        } else {
+            evict(planId);
+        }
+    }
+
+    private void evict(Long planId) {
+        generations.put(planId, sequence.incrementAndGet());
+        cache.invalidate(planId);
+    }
+
+    private BudgetAnalysisDTO copy(BudgetAnalysisDTO analysis) {
+        return objectMapper.convertValue(analysis, BudgetAnalysisDTO.class);
+    }
+}
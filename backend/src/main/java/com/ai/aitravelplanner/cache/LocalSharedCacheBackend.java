@@ -0,0 +1,62 @@
+package com.ai.aitravelplanner.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 进程内的共享缓存替身，行为与 Redis 后端一致（过期、广播），用于测试和单机调试；
+ * 多个 ReadThroughCache 共用一个实例即可模拟多个节点。
+ */
+public class LocalSharedCacheBackend implements SharedCacheBackend {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public byte[] get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt() >= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value().clone();
+    }
+
+    @Override
+    public void set(String key, byte[] value, Duration ttl) {
+        entries.put(key, new Entry(value.clone(), System.nanoTime() + ttl.toNanos()));
+    }
+
+    @Override
+    public void delete(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void publish(String message) {
+        for (Consumer<String> listener : listeners) {
+            listener.accept(message);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener, Runnable onResubscribe) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        entries.clear();
+        listeners.clear();
+    }
+
+    private record Entry(byte[] value, long expiresAt) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.ai.aitravelplanner.cache;
+
+import com.ai.aitravelplanner.config.NearbyCacheProperties;
+import com.ai.aitravelplanner.dto.PlaceInfo;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 周边搜索网格缓存
+ * 按"geohash 网格 + 业务类型"缓存整个网格范围内的 POI，同一网格内的请求共用一次高德调用，
+ * 由调用方按请求点的真实距离重新过滤、排序。不同类型的缓存时间可分别配置。
+ * 命中率：/actuator/metrics/map.nearby.cache.hit.ratio
+ */
+@Component
+public class NearbyPlaceCache {
+
+    private static final String CACHE_NAME = "map.nearby";
+
+    public record Tile(String geohash, String type) {
+    }
+
+    /**
+     * 网格采集到的 POI
+     * @param radiusMeters 以网格中心为圆心、该半径内的 POI 都已取到；翻页到上限仍未取完时为最后一个 POI 的距离
+     */
+    public record TilePlaces(List<PlaceInfo> places, int radiusMeters) {
+    }
+
+    private final NearbyCacheProperties properties;
+    private final AsyncCache<Tile, TilePlaces> cache;
+
+    public NearbyPlaceCache(NearbyCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTiles())
+                .expireAfter(new Expiry<Tile, TilePlaces>() {
+                    @Override
+                    public long expireAfterCreate(@NonNull Tile key, @NonNull TilePlaces value, long currentTime) {
+                        return ttlNanos(key.type());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(@NonNull Tile key, @NonNull TilePlaces value,
+                                                  long currentTime, long currentDuration) {
+                        return ttlNanos(key.type());
+                    }
+
+                    @Override
+                    public long expireAfterRead(@NonNull Tile key, @NonNull TilePlaces value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("map.nearby.cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .description("周边搜索网格缓存命中率")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int getGeohashPrecision() {
+        return properties.getGeohashPrecision();
+    }
+
+    public int getTileSize() {
+        return properties.getTileSize();
+    }
+
+    public int getMaxTilePages() {
+        return properties.getMaxTilePages();
+    }
+
+    /**
+     * 取网格数据，未命中时调用 loader 加载；同一网格的并发请求共用一次加载。
+     * 加载失败（异常完成）的结果会被自动移除，不会被缓存。
+     */
+    public CompletableFuture<TilePlaces> get(Tile tile, Supplier<CompletableFuture<TilePlaces>> loader) {
+        return cache.get(tile, (k, executor) -> loader.get()
+                .thenApply(loaded -> new TilePlaces(List.copyOf(loaded.places()), loaded.radiusMeters())));
+    }
+
+    private long ttlNanos(String type) {
+        long minutes = properties.getTtlMinutes().getOrDefault(type, properties.getDefaultTtlMinutes());
+        return TimeUnit.MINUTES.toNanos(minutes);
+    }
+}
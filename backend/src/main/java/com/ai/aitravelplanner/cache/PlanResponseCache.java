@@ -0,0 +1,70 @@
+package com.ai.aitravelplanner.cache;
+
+import com.ai.aitravelplanner.dto.PlanResponse;
+import com.ai.aitravelplanner.util.PayloadCanonicalizer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * AI 行程生成结果缓存
+ * key 为规范化后的请求参数，按数量和过期时间淘汰。
+ * 命中、未命中、淘汰次数通过 Micrometer 暴露：/actuator/metrics/cache.gets?tag=cache:plan.generate
+ */
+@Component
+public class PlanResponseCache {
+
+    private static final String CACHE_NAME = "plan.generate";
+
+    private final Cache<String, PlanResponse> cache;
+    private final int budgetBucket;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public PlanResponseCache(@Value("${plan.cache.max-size:1000}") long maxSize,
+                             @Value("${plan.cache.ttl-minutes:360}") long ttlMinutes,
+                             @Value("${plan.cache.budget-bucket:500}") int budgetBucket,
+                             MeterRegistry meterRegistry) {
+        this.budgetBucket = budgetBucket;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public String keyOf(Map<String, Object> payload) {
+        return PayloadCanonicalizer.planKey(payload, budgetBucket);
+    }
+
+    /**
+     * 查询缓存，返回副本，调用方修改结果不会污染缓存
+     */
+    public PlanResponse get(String key) {
+        PlanResponse cached = cache.getIfPresent(key);
+        return cached != null ? copy(cached) : null;
+    }
+
+    public void put(String key, PlanResponse response) {
+        if (response == null || response.getPlan() == null || response.getPlan().isEmpty()) {
+            return;
+        }
+        cache.put(key, copy(response));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private PlanResponse copy(PlanResponse response) {
+        return objectMapper.convertValue(response, PlanResponse.class);
+    }
+}
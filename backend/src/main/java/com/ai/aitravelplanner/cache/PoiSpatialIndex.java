@@ -0,0 +1,413 @@
+package com.ai.aitravelplanner.cache;
+
+import com.ai.aitravelplanner.config.PoiIndexProperties;
+import com.ai.aitravelplanner.dto.PlaceInfo;
+import com.ai.aitravelplanner.util.GeoUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 本地 POI 空间索引
+ * 高德返回的 POI 按业务类型、经纬度网格分桶保存，同时记录每个 geohash 网格最近一次完整采集的时间和搜索半径。
+ * 查询圆完全落在某次有效期内的采集圆内，或最近的几个 POI 所在的圆落在采集圆内时，周边搜索直接由索引回答，不再访问高德。
+ * 索引定期写回本地文件（gzip 压缩的二进制格式），重启后加载继续使用。
+ * 命中情况：/actuator/metrics/map.poi.index.queries
+ */
+@Component
+public class PoiSpatialIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PoiSpatialIndex.class);
+
+    private static final int FILE_MAGIC = 0x504F4931; // "POI1"
+    private static final int FILE_VERSION = 2;
+    // 版本 1 没有记录采集半径，加载后只用于返回历史结果
+    private static final int FILE_VERSION_WITHOUT_RADIUS = 1;
+    private static final double METERS_PER_DEGREE = 111_320;
+    // 高德坐标为 6 位小数，按百万分之一度存整数不丢精度
+    private static final double COORDINATE_SCALE = 1_000_000;
+
+    private record Poi(String name, String address, String type, String tel, String photoUrl,
+                       double lng, double lat, long seenAt) {
+    }
+
+    private record Area(String geohash, String category) {
+    }
+
+    /**
+     * 一次采集：以网格中心为圆心、radiusMeters 为半径的圆内的 POI 都已取到
+     */
+    private record Harvest(long harvestedAt, int radiusMeters) {
+    }
+
+    private record Candidate(Poi poi, double distance) {
+    }
+
+    private final PoiIndexProperties properties;
+    // 业务类型 -> 网格 -> POI（名称 + 坐标去重）
+    private final Map<String, Map<Long, Map<String, Poi>>> cells = new ConcurrentHashMap<>();
+    // 已采集的区域 -> 最近一次采集
+    private final Map<Area, Harvest> coverage = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public PoiSpatialIndex(PoiIndexProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hitCounter = Counter.builder("map.poi.index.queries").tag("result", "hit")
+                .description("周边搜索由本地索引回答的次数").register(meterRegistry);
+        this.missCounter = Counter.builder("map.poi.index.queries").tag("result", "miss")
+                .description("周边搜索区域未采集或已过期的次数").register(meterRegistry);
+        Gauge.builder("map.poi.index.size", this, PoiSpatialIndex::size)
+                .description("本地索引中的 POI 数量")
+                .register(meterRegistry);
+
+        if (!properties.isEnabled()) {
+            this.flusher = null;
+            return;
+        }
+        load();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "poi-index-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = properties.getFlushIntervalMinutes();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 查询圆内的 POI 是否都已在有效期内采集到：查询圆外接矩形覆盖的网格中，
+     * 须有一个网格的采集在有效期内，且其搜索圆完全包含查询圆
+     * @param precision 采集网格的 geohash 长度
+     */
+    public boolean covers(double lng, double lat, int radiusMeters, String category, int precision) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        boolean fresh = isCovered(lng, lat, radiusMeters, category, precision);
+        (fresh ? hitCounter : missCounter).increment();
+        return fresh;
+    }
+
+    /**
+     * 同 {@link #covers}，但不计入命中 / 未命中指标，供预取等内部检查使用
+     */
+    public boolean isCovered(double lng, double lat, int radiusMeters, String category, int precision) {
+        return properties.isEnabled() && coveredRadius(lng, lat, radiusMeters, category, precision) >= radiusMeters;
+    }
+
+    /**
+     * 由有效期内的采集回答周边查询：查询圆落在采集圆内，或最近的 limit 个 POI 所在的圆落在采集圆内
+     * （热门区域 POI 过多，采集翻页到上限后按距离截断，采集圆小于查询圆，但仍能确定离请求点最近的几个）
+     * @return 距离最近的 POI；不能确定结果时为 null
+     */
+    public List<PlaceInfo> answer(double lng, double lat, int radiusMeters, String category, int precision,
+                                  int limit) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        double covered = coveredRadius(lng, lat, radiusMeters, category, precision);
+        List<PlaceInfo> result = null;
+        if (covered > 0) {
+            List<PlaceInfo> nearest = query(lng, lat, radiusMeters, category, limit);
+            // distance 为四舍五入的整数米，多留 1 米
+            if (covered >= radiusMeters || (nearest.size() == limit
+                    && Long.parseLong(nearest.get(limit - 1).getDistance()) + 1 <= covered)) {
+                result = nearest;
+            }
+        }
+        (result != null ? hitCounter : missCounter).increment();
+        return result;
+    }
+
+    /**
+     * 该网格、该类型是否采集过（不论是否过期），用于高德不可用时返回历史结果
+     */
+    public boolean hasHarvested(String geohash, String category) {
+        return properties.isEnabled() && coverage.containsKey(new Area(geohash, category));
+    }
+
+    /**
+     * 查询半径内距离最近的 POI，distance 为到查询点的距离（米）
+     */
+    public List<PlaceInfo> query(double lng, double lat, int radiusMeters, String category, int limit) {
+        Map<Long, Map<String, Poi>> grid = cells.get(category);
+        if (grid == null) {
+            return List.of();
+        }
+        double latDelta = radiusMeters / METERS_PER_DEGREE;
+        double lngDelta = radiusMeters / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+        long minRow = row(lat - latDelta), maxRow = row(lat + latDelta);
+        long minCol = col(lng - lngDelta), maxCol = col(lng + lngDelta);
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (long r = minRow; r <= maxRow; r++) {
+            for (long c = minCol; c <= maxCol; c++) {
+                Map<String, Poi> bucket = grid.get(cellKey(r, c));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Poi poi : bucket.values()) {
+                    double distance = GeoUtils.distanceMeters(lng, lat, poi.lng(), poi.lat());
+                    if (distance <= radiusMeters) {
+                        candidates.add(new Candidate(poi, distance));
+                    }
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::distance));
+
+        List<PlaceInfo> result = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (Candidate candidate : candidates.subList(0, Math.min(limit, candidates.size()))) {
+            PlaceInfo place = toPlace(candidate.poi());
+            place.setDistance(String.valueOf(Math.round(candidate.distance())));
+            result.add(place);
+        }
+        return result;
+    }
+
+    /**
+     * 记录一次网格的采集结果，radiusMeters 须是所有 POI 都已取到的范围。已有的同名同坐标 POI 被覆盖；
+     * 本次未出现的 POI 保留，超过 maxPoiAgeDays 未再出现时才移除。
+     * @param radiusMeters 以网格中心为圆心、圆内 POI 都已取到的半径
+     */
+    public void add(String geohash, String category, List<PlaceInfo> places, int radiusMeters) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PlaceInfo place : places) {
+            if (place.getLng() == null || place.getLat() == null) {
+                continue;
+            }
+            insert(category, new Poi(place.getName(), place.getAddress(), place.getType(), place.getTel(),
+                    place.getPhotoUrl(), place.getLng(), place.getLat(), now));
+        }
+        coverage.put(new Area(geohash, category), new Harvest(now, radiusMeters));
+        dirty.set(true);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<Long, Map<String, Poi>> grid : cells.values()) {
+            for (Map<String, Poi> bucket : grid.values()) {
+                size += bucket.size();
+            }
+        }
+        return size;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flush();
+        }
+    }
+
+    /**
+     * 有变化时清理过期数据并写回文件
+     */
+    void flush() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            prune();
+            save();
+        } catch (Exception e) {
+            dirty.set(true);
+            log.warn("POI 索引写入失败: {}", e.getMessage());
+        }
+    }
+
+    private void prune() {
+        long now = System.currentTimeMillis();
+        long oldest = now - TimeUnit.DAYS.toMillis(properties.getMaxPoiAgeDays());
+        // 过期的采集记录保留到 POI 被移除为止，高德不可用时仍可返回历史结果
+        coverage.values().removeIf(harvest -> harvest.harvestedAt() < oldest);
+        for (Map<Long, Map<String, Poi>> grid : cells.values()) {
+            grid.values().forEach(bucket -> bucket.values().removeIf(poi -> poi.seenAt() < oldest));
+            grid.values().removeIf(Map::isEmpty);
+        }
+    }
+
+    /**
+     * 先写临时文件再替换，避免写到一半时进程退出留下损坏的索引文件
+     */
+    private void save() throws IOException {
+        Path file = Paths.get(properties.getFile());
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+
+            List<Map.Entry<Area, Harvest>> areas = new ArrayList<>(coverage.entrySet());
+            out.writeInt(areas.size());
+            for (Map.Entry<Area, Harvest> entry : areas) {
+                out.writeUTF(entry.getKey().geohash());
+                out.writeUTF(entry.getKey().category());
+                out.writeLong(entry.getValue().harvestedAt());
+                out.writeInt(entry.getValue().radiusMeters());
+            }
+
+            List<String> categories = new ArrayList<>(cells.keySet());
+            out.writeInt(categories.size());
+            for (String category : categories) {
+                List<Poi> pois = new ArrayList<>();
+                cells.get(category).values().forEach(bucket -> pois.addAll(bucket.values()));
+                out.writeUTF(category);
+                out.writeInt(pois.size());
+                for (Poi poi : pois) {
+                    out.writeInt((int) Math.round(poi.lng() * COORDINATE_SCALE));
+                    out.writeInt((int) Math.round(poi.lat() * COORDINATE_SCALE));
+                    out.writeLong(poi.seenAt());
+                    writeNullable(out, poi.name());
+                    writeNullable(out, poi.address());
+                    writeNullable(out, poi.type());
+                    writeNullable(out, poi.tel());
+                    writeNullable(out, poi.photoUrl());
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 文件不存在或格式不符时从空索引开始
+     */
+    private void load() {
+        Path file = Paths.get(properties.getFile());
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            int magic = in.readInt();
+            int version = magic == FILE_MAGIC ? in.readInt() : -1;
+            if (version != FILE_VERSION && version != FILE_VERSION_WITHOUT_RADIUS) {
+                log.warn("POI 索引文件格式不符，忽略: {}", file);
+                return;
+            }
+            int areaCount = in.readInt();
+            for (int i = 0; i < areaCount; i++) {
+                Area area = new Area(in.readUTF(), in.readUTF());
+                long harvestedAt = in.readLong();
+                int radius = version == FILE_VERSION ? in.readInt() : 0;
+                coverage.put(area, new Harvest(harvestedAt, radius));
+            }
+            int categoryCount = in.readInt();
+            for (int i = 0; i < categoryCount; i++) {
+                String category = in.readUTF();
+                int poiCount = in.readInt();
+                for (int j = 0; j < poiCount; j++) {
+                    double lng = in.readInt() / COORDINATE_SCALE;
+                    double lat = in.readInt() / COORDINATE_SCALE;
+                    long seenAt = in.readLong();
+                    insert(category, new Poi(readNullable(in), readNullable(in), readNullable(in),
+                            readNullable(in), readNullable(in), lng, lat, seenAt));
+                }
+            }
+            log.info("POI 索引已加载: areas={} pois={}", coverage.size(), size());
+        } catch (IOException e) {
+            log.warn("POI 索引文件读取失败，忽略: {}", e.getMessage());
+            coverage.clear();
+            cells.clear();
+        }
+    }
+
+    private void insert(String category, Poi poi) {
+        cells.computeIfAbsent(category, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(cellKey(row(poi.lat()), col(poi.lng())), k -> new ConcurrentHashMap<>())
+                .put(poi.name() + "@" + poi.lng() + "," + poi.lat(), poi);
+    }
+
+    private static PlaceInfo toPlace(Poi poi) {
+        PlaceInfo place = new PlaceInfo();
+        place.setName(poi.name());
+        place.setAddress(poi.address());
+        place.setType(poi.type());
+        place.setTel(poi.tel());
+        place.setPhotoUrl(poi.photoUrl());
+        place.setLng(poi.lng());
+        place.setLat(poi.lat());
+        return place;
+    }
+
+    /**
+     * 以请求点为圆心、落在某次有效期内的采集圆内的最大半径；查询圆外接矩形覆盖的网格都没有有效采集时为负数
+     */
+    private double coveredRadius(double lng, double lat, int radiusMeters, String category, int precision) {
+        long now = System.currentTimeMillis();
+        long freshMillis = freshMillis(category);
+        double covered = -1;
+        for (String geohash : GeoUtils.geohashesAround(lng, lat, radiusMeters, precision)) {
+            Harvest harvest = coverage.get(new Area(geohash, category));
+            if (harvest != null && now - harvest.harvestedAt() < freshMillis) {
+                covered = Math.max(covered,
+                        harvest.radiusMeters() - GeoUtils.distanceFromCenterMeters(geohash, lng, lat));
+            }
+        }
+        return covered;
+    }
+
+    private long row(double lat) {
+        return (long) Math.floor(lat / properties.getCellDegrees());
+    }
+
+    private long col(double lng) {
+        return (long) Math.floor(lng / properties.getCellDegrees());
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) | (col & 0xffffffffL);
+    }
+
+    private long freshMillis(String category) {
+        long hours = properties.getFreshHours().getOrDefault(category, properties.getDefaultFreshHours());
+        return TimeUnit.HOURS.toMillis(hours);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
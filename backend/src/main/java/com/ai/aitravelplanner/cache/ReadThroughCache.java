@@ -0,0 +1,212 @@
+package com.ai.aitravelplanner.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 读穿透缓存：本地 Caffeine（一级）+ 可选的共享缓存（二级）
+ * - 条目以序列化后的 JSON 字节保存，按字节数限制本地内存；每次读取反序列化出新对象，调用方修改不会污染缓存
+ * - 本地未命中时先查共享缓存，再回源数据库，结果写回两级缓存；同一 key 的并发回源在本节点只执行一次
+ * - 写操作调用 invalidate：在事务内时等提交后再失效，删除共享缓存中的条目并广播，其他节点收到后丢弃本地条目
+ * - 每次失效（本节点写入或收到广播）递增该 key 的版本号；回源期间版本变化说明读到的可能是旧数据，
+ *   结果只返回给本次调用，不写入两级缓存。其他节点的广播晚于本节点写入共享缓存到达时仍可能留下旧条目，最长保留共享缓存的 TTL
+ * 共享缓存不可用时按未命中处理，直接回源，不影响读写。
+ * 命中情况：/actuator/metrics/cache.gets?tag=cache:{name}，二级缓存：/actuator/metrics/cache.shared.requests
+ */
+public class ReadThroughCache<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadThroughCache.class);
+
+    private final String name;
+    private final boolean enabled;
+    private final JavaType type;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, byte[]> local;
+    // key 最近一次失效的序号；一次回源只是一条查询，保留 1 小时足够判断
+    private final Cache<String, Long> generations = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+    private final AtomicLong sequence = new AtomicLong();
+    private final SharedCacheBackend shared;
+    private final Duration sharedTtl;
+    private final String keyPrefix;
+    private final String messagePrefix;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+    private final Counter sharedErrors;
+
+    /**
+     * @param shared 为 null 时只用本地缓存
+     */
+    public ReadThroughCache(String name, boolean enabled, JavaType type, ObjectMapper objectMapper,
+                            long maxBytes, Duration localTtl, SharedCacheBackend shared, Duration sharedTtl,
+                            String keyPrefix, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = enabled;
+        this.type = type;
+        this.objectMapper = objectMapper;
+        this.local = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String k, byte[] v) -> v.length)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        this.shared = shared;
+        this.sharedTtl = sharedTtl;
+        this.keyPrefix = keyPrefix + "cache:" + name + ":";
+        this.messagePrefix = name + "|";
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name);
+        this.sharedHits = sharedCounter(meterRegistry, "hit");
+        this.sharedMisses = sharedCounter(meterRegistry, "miss");
+        this.sharedErrors = sharedCounter(meterRegistry, "error");
+        if (shared != null) {
+            shared.subscribe(this::onInvalidation, local::invalidateAll);
+        }
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        String k = key.toString();
+        AtomicReference<V> loaded = new AtomicReference<>();
+        byte[] bytes = local.get(k, x -> load(x, key, loader, loaded));
+        if (loaded.get() != null) {
+            // 本次调用回源的结果直接返回，包括序列化失败或回源期间被失效而没有缓存的结果
+            return loaded.get();
+        }
+        if (bytes != null) {
+            try {
+                return objectMapper.readValue(bytes, type);
+            } catch (IOException e) {
+                // 共享缓存中可能是字段变化前写入的数据，丢弃后回源
+                log.warn("缓存数据解析失败 cache={} key={} 原因={}", name, k, e.getMessage());
+                evict(k);
+            }
+        }
+        // 等待其他线程回源但该结果没有缓存，自行回源
+        return loader.apply(key);
+    }
+
+    /**
+     * 数据变更后调用；在事务内时提交后才失效，避免其他请求在提交前重新读到旧数据
+     */
+    public void invalidate(K key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(key.toString());
+                }
+            });
+        } else {
+            evict(key.toString());
+        }
+    }
+
+    /**
+     * @param loaded 回源时记下结果，供本次调用直接返回
+     * @return 不写入本地缓存时返回 null
+     */
+    private byte[] load(String k, K key, Function<K, V> loader, AtomicReference<V> loaded) {
+        long generation = generation(k);
+        if (shared != null) {
+            try {
+                byte[] cached = shared.get(keyPrefix + k);
+                if (cached != null) {
+                    sharedHits.increment();
+                    return cached;
+                }
+                sharedMisses.increment();
+            } catch (IOException e) {
+                sharedError("读取", k, e);
+            }
+        }
+        V value = loader.apply(key);
+        loaded.set(value);
+        byte[] bytes = serialize(value);
+        if (bytes == null || generation(k) != generation) {
+            return null;
+        }
+        if (shared != null) {
+            try {
+                shared.set(keyPrefix + k, bytes, sharedTtl);
+                // 检查和写入之间发生的失效已经删过共享缓存，这里补删
+                if (generation(k) != generation) {
+                    shared.delete(keyPrefix + k);
+                    return null;
+                }
+            } catch (IOException e) {
+                sharedError("写入", k, e);
+            }
+        }
+        return bytes;
+    }
+
+    private long generation(String k) {
+        Long generation = generations.getIfPresent(k);
+        return generation != null ? generation : 0L;
+    }
+
+    private void evict(String k) {
+        generations.put(k, sequence.incrementAndGet());
+        local.invalidate(k);
+        if (shared != null) {
+            try {
+                shared.delete(keyPrefix + k);
+                shared.publish(messagePrefix + k);
+            } catch (IOException e) {
+                // 其他节点的本地条目只能等过期，本地缓存的 TTL 即为最长不一致时间
+                sharedError("失效", k, e);
+            }
+        }
+    }
+
+    private void onInvalidation(String message) {
+        if (message.startsWith(messagePrefix)) {
+            String k = message.substring(messagePrefix.length());
+            generations.put(k, sequence.incrementAndGet());
+            local.invalidate(k);
+        }
+    }
+
+    private byte[] serialize(V value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            log.warn("缓存序列化失败 cache={} 原因={}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private void sharedError(String action, String key, IOException e) {
+        sharedErrors.increment();
+        log.warn("共享缓存{}失败 cache={} key={} 原因={}", action, name, key, e.getMessage());
+    }
+
+    private Counter sharedCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.shared.requests")
+                .description("二级共享缓存请求次数")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ai.aitravelplanner.cache;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * 多个后端节点共用的二级缓存（Redis 兼容）
+ * 除保存数据外还负责广播失效消息，让各节点同步丢弃本地缓存。
+ */
+public interface SharedCacheBackend {
+
+    /**
+     * @return 不存在时返回 null
+     */
+    byte[] get(String key) throws IOException;
+
+    void set(String key, byte[] value, Duration ttl) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * 广播失效消息，所有订阅者（包括本节点）都会收到
+     */
+    void publish(String message) throws IOException;
+
+    /**
+     * @param listener      收到失效消息时回调
+     * @param onResubscribe 订阅断开后重新订阅成功时回调，断开期间的消息可能已丢失
+     */
+    void subscribe(Consumer<String> listener, Runnable onResubscribe);
+
+    void close();
+}
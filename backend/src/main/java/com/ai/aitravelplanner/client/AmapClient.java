@@ -0,0 +1,170 @@
+package com.ai.aitravelplanner.client;
+
+import com.ai.aitravelplanner.config.AmapCircuitBreakerProperties;
+import com.ai.aitravelplanner.config.AmapConfig;
+import com.ai.aitravelplanner.dto.PlaceInfo;
+import com.ai.aitravelplanner.resilience.CircuitBreaker;
+import com.ai.aitravelplanner.util.AsyncLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 高德 Web 服务异步客户端
+ * 基于 JDK HttpClient：连接复用（keep-alive）、连接超时和读超时，请求异步发出不占用调用线程；
+ * 每个目标主机的并发请求数有上限，超出的排队等待。响应体由 AmapPoiParser 流式解析。
+ * 失败率或慢调用率过高时熔断，熔断期间请求直接失败，不再等待高德超时。
+ * 指标：amap.client.active、amap.client.pending、
+ * amap.circuit.state（0 关闭 / 1 熔断 / 2 半开）、amap.circuit.transitions、amap.circuit.rejected
+ */
+@Component
+public class AmapClient {
+
+    private static final Logger log = LoggerFactory.getLogger(AmapClient.class);
+
+    private final AmapConfig amapConfig;
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final AmapPoiParser poiParser = new AmapPoiParser();
+    private final ConcurrentHashMap<String, AsyncLimiter> limiters = new ConcurrentHashMap<>();
+    private final CircuitBreaker circuitBreaker;
+    private final Counter rejectedCounter;
+
+    public AmapClient(AmapConfig amapConfig, AmapCircuitBreakerProperties breakerProperties,
+                      MeterRegistry meterRegistry) {
+        this.amapConfig = amapConfig;
+        this.circuitBreaker = new CircuitBreaker(breakerProperties, (from, to) -> {
+            log.warn("高德接口熔断状态 {} -> {}", from, to);
+            meterRegistry.counter("amap.circuit.transitions", "from", from.name(), "to", to.name()).increment();
+        });
+        this.rejectedCounter = Counter.builder("amap.circuit.rejected")
+                .description("熔断期间被直接拒绝的高德请求数")
+                .register(meterRegistry);
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 只用于处理响应回调（解析 JSON），不会阻塞在网络 IO 上
+        this.executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread t = new Thread(r, "amap-client-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(amapConfig.getConnectTimeoutMs()))
+                .executor(executor)
+                .build();
+
+        Gauge.builder("amap.client.active", limiters, l -> l.values().stream().mapToInt(AsyncLimiter::getActive).sum())
+                .description("正在进行的高德请求数")
+                .register(meterRegistry);
+        Gauge.builder("amap.client.pending", limiters, l -> l.values().stream().mapToInt(AsyncLimiter::getPending).sum())
+                .description("排队等待发出的高德请求数")
+                .register(meterRegistry);
+        Gauge.builder("amap.circuit.state", circuitBreaker, b -> b.getState().ordinal())
+                .description("高德接口熔断状态：0 关闭，1 熔断，2 半开")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 高德当前是否可用（未熔断，或熔断已到期可以试探）
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.isCallPermitted();
+    }
+
+    public boolean isHealthy() {
+        return circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * 周边搜索（/v3/place/around）第一页
+     * @return 成功时为 POI 列表（可能为空）；网络错误、超时、非 2xx、高德返回 status!=1 或熔断中时异常完成
+     */
+    public CompletableFuture<List<PlaceInfo>> placeAround(double lng, double lat, int radius,
+                                                          String typesCode, int offset) {
+        return placeAround(lng, lat, radius, typesCode, offset, 1);
+    }
+
+    /**
+     * 周边搜索（/v3/place/around）指定页，结果按距离由近到远排列
+     * @param offset 每页数量，高德上限 25
+     * @param page 页码，从 1 开始
+     */
+    public CompletableFuture<List<PlaceInfo>> placeAround(double lng, double lat, int radius,
+                                                          String typesCode, int offset, int page) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(amapConfig.getBaseUrl() + "/v3/place/around")
+                .queryParam("key", amapConfig.getKey())
+                .queryParam("location", String.format("%s,%s", lng, lat))
+                .queryParam("radius", radius)
+                .queryParam("types", typesCode)
+                .queryParam("offset", offset)     // 每页返回数量
+                .queryParam("page", page)
+                .queryParam("sortrule", "distance")  // 按距离排序，网格采集截断时依赖该顺序
+                .queryParam("extensions", "all")  // ✅ 获取详细信息（含电话、照片）
+                .build()
+                .encode()
+                .toUri();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(amapConfig.getReadTimeoutMs()))
+                .GET()
+                .build();
+
+        CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+        if (permit == null) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(new IllegalStateException("高德接口熔断中"));
+        }
+        // 只统计真正发出的请求，本地排队时间不计入耗时
+        CompletableFuture<List<PlaceInfo>> result = limiterFor(uri).submit(() -> {
+            long start = System.nanoTime();
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(this::parsePlaces)
+                    .whenComplete((places, error) -> circuitBreaker.onResult(permit, error == null, System.nanoTime() - start));
+        });
+        return result.whenComplete((places, error) -> {
+            if (error instanceof RejectedExecutionException) {
+                circuitBreaker.onSkipped(permit);
+            }
+        });
+    }
+
+    private AsyncLimiter limiterFor(URI uri) {
+        return limiters.computeIfAbsent(uri.getScheme() + "://" + uri.getAuthority(),
+                k -> new AsyncLimiter(amapConfig.getMaxConnections(), amapConfig.getMaxPending()));
+    }
+
+    private List<PlaceInfo> parsePlaces(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2 || response.body() == null) {
+            throw new IllegalStateException("高德接口返回 HTTP " + response.statusCode());
+        }
+        try {
+            return poiParser.parse(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
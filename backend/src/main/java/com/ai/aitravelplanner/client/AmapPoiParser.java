@@ -0,0 +1,220 @@
+package com.ai.aitravelplanner.client;
+
+import com.ai.aitravelplanner.dto.PlaceInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 高德周边搜索响应的流式解析
+ * 直接在字节流上逐个读取 token，只取 PlaceInfo 需要的字段，其余字段（extensions=all 的
+ * biz_ext、children 等）整段跳过，不构建 JsonNode 树；坐标直接从字符缓冲区解析，不做 split。
+ */
+public class AmapPoiParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    // 10^0 ~ 10^18，小于 2^53 的整数除以精确的 10 的幂结果与 Double.parseDouble 一致
+    private static final double[] POWERS_OF_TEN = new double[19];
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        double power = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    /**
+     * @return POI 列表，没有结果时为空列表
+     * @throws IllegalStateException 高德返回 status 不为 1
+     * @throws IOException JSON 格式错误
+     */
+    public List<PlaceInfo> parse(byte[] body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("高德响应不是 JSON 对象");
+            }
+            String status = null;
+            String info = null;
+            List<PlaceInfo> places = List.of();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "status" -> status = parser.getValueAsString();
+                    case "info" -> info = parser.getValueAsString();
+                    case "pois" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            places = parsePois(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if (!"1".equals(status)) {
+                throw new IllegalStateException("高德接口调用失败: " + info);
+            }
+            return places;
+        }
+    }
+
+    private List<PlaceInfo> parsePois(JsonParser parser) throws IOException {
+        List<PlaceInfo> places = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                places.add(parsePoi(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return places;
+    }
+
+    private PlaceInfo parsePoi(JsonParser parser) throws IOException {
+        PlaceInfo info = new PlaceInfo();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> info.setName(text(parser, value));
+                case "address" -> info.setAddress(text(parser, value));
+                case "type" -> info.setType(text(parser, value));
+                case "distance" -> info.setDistance(text(parser, value));
+                case "tel" -> info.setTel(text(parser, value));
+                case "location" -> parseLocation(parser, value, info);
+                case "photos" -> info.setPhotoUrl(firstPhotoUrl(parser, value));
+                default -> parser.skipChildren();
+            }
+        }
+        return info;
+    }
+
+    /**
+     * 高德对空字段有时返回 []，按空字符串处理
+     */
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value.isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+
+    private static String firstPhotoUrl(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String url = null;
+        boolean first = true;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (first && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken fieldValue = parser.nextToken();
+                    if ("url".equals(field)) {
+                        url = text(parser, fieldValue);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            first = false;
+        }
+        return url;
+    }
+
+    /**
+     * "116.397428,39.90923" 直接在解析器的字符缓冲区上拆分并解析
+     */
+    private static void parseLocation(JsonParser parser, JsonToken value, PlaceInfo info) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return;
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+        int comma = -1;
+        for (int i = offset; i < end; i++) {
+            if (chars[i] == ',') {
+                comma = i;
+                break;
+            }
+        }
+        if (comma < 0) {
+            return;
+        }
+        double lng = parseDecimal(chars, offset, comma);
+        double lat = parseDecimal(chars, comma + 1, end);
+        if (!Double.isNaN(lng) && !Double.isNaN(lat)) {
+            info.setLng(lng);
+            info.setLat(lat);
+        }
+    }
+
+    /**
+     * 解析形如 -116.397428 的十进制小数，格式不符时返回 NaN；
+     * 有效数字过多时退回 Double.parseDouble 保证精度
+     */
+    static double parseDecimal(char[] chars, int start, int end) {
+        while (start < end && chars[start] == ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] == ' ') {
+            end--;
+        }
+        if (start >= end) {
+            return Double.NaN;
+        }
+        boolean negative = chars[start] == '-';
+        int i = negative || chars[start] == '+' ? start + 1 : start;
+        long mantissa = 0;
+        int scale = -1;
+        int digits = 0;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == '.' && scale < 0) {
+                scale = 0;
+            } else if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+                    return parseSlow(chars, start, end);
+                }
+            } else {
+                return parseSlow(chars, start, end);
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        double result = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -result : result;
+    }
+
+    private static double parseSlow(char[] chars, int start, int end) {
+        try {
+            return Double.parseDouble(new String(chars, start, end - start));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ai.aitravelplanner.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 高德接口熔断配置（amap.circuit-breaker.*）
+ */
+@Data
+@ConfigurationProperties(prefix = "amap.circuit-breaker")
+public class AmapCircuitBreakerProperties {
+
+    private boolean enabled = true;
+
+    /** 按最近多少次调用统计失败率和慢调用率 */
+    private int windowSize = 20;
+
+    /** 窗口内至少有这么多次调用才判断是否熔断 */
+    private int minCalls = 10;
+
+    /** 失败率达到该值时熔断 */
+    private double failureRateThreshold = 0.5;
+
+    /** 耗时超过该值记为慢调用 */
+    private long slowCallMs = 3000;
+
+    /** 慢调用率达到该值时熔断 */
+    private double slowCallRateThreshold = 0.8;
+
+    /** 熔断持续时间，之后放行少量试探请求 */
+    private long openSeconds = 30;
+
+    /** 半开状态放行的试探请求数，全部成功后恢复 */
+    private int halfOpenCalls = 3;
+}
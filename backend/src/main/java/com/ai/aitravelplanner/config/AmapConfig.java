@@ -1,14 +1,54 @@
 package com.ai.aitravelplanner.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableConfigurationProperties({NearbyCacheProperties.class, PoiIndexProperties.class,
+        AmapCircuitBreakerProperties.class})
 public class AmapConfig {
     @Value("${amap.key}")
     private String key;
 
+    // 可指向本地桩服务做压测
+    @Value("${amap.base-url:https://restapi.amap.com}")
+    private String baseUrl;
+
+    @Value("${amap.client.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${amap.client.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    // 同一主机的最大并发请求数，超出的排队
+    @Value("${amap.client.max-connections:20}")
+    private int maxConnections;
+
+    @Value("${amap.client.max-pending:200}")
+    private int maxPending;
+
     public String getKey() {
         return key;
     }
-}
\ No newline at end of file
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public long getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ai.aitravelplanner.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 模型调用尾延迟控制配置（ai.resilience.*）
+ */
+@Data
+@ConfigurationProperties(prefix = "ai.resilience")
+public class LlmResilienceProperties {
+
+    /** 默认硬超时，超时后放弃主模型的结果 */
+    private long defaultTimeoutSeconds = 90;
+
+    /** 按 AI 服务方法名覆盖硬超时，如 generatePlan、analyzeBudget */
+    private Map<String, Long> timeouts = new HashMap<>();
+
+    /** 执行模型调用的最大线程数 */
+    private int maxThreads = 64;
+
+    private Hedge hedge = new Hedge();
+
+    private Fallback fallback = new Fallback();
+
+    public Duration timeoutFor(String method) {
+        return Duration.ofSeconds(timeouts.getOrDefault(method, defaultTimeoutSeconds));
+    }
+
+    @Data
+    public static class Hedge {
+        private boolean enabled = false;
+        private double percentile = 0.95;   // 超过该分位耗时仍未返回时发出第二个请求
+        private int minSamples = 20;        // 样本不足时不对冲
+        private long minDelayMs = 1000;     // 对冲延迟下限
+    }
+
+    @Data
+    public static class Fallback {
+        private boolean enabled = false;
+        private String baseUrl;             // 为空时沿用主模型配置
+        private String apiKey;              // 为空时沿用主模型配置
+        private String modelName = "qwen-turbo";
+        private long timeoutSeconds = 60;
+    }
+}
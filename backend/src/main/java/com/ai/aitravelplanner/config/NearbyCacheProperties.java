@@ -0,0 +1,35 @@
+package com.ai.aitravelplanner.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 周边搜索网格缓存配置（amap.nearby-cache.*）
+ */
+@Data
+@ConfigurationProperties(prefix = "amap.nearby-cache")
+public class NearbyCacheProperties {
+
+    private boolean enabled = true;
+
+    /** 网格 geohash 长度，6 约 1.2km×0.6km */
+    private int geohashPrecision = 6;
+
+    /** 每个网格向高德请求的 POI 数量（高德单页上限 25） */
+    private int tileSize = 25;
+
+    /** 每个网格最多翻页数，最后一页仍是满页时采集范围截断到最后一个 POI 的距离（高德按距离排序） */
+    private int maxTilePages = 4;
+
+    /** 最多缓存的网格数，超出后按 LRU 近似淘汰 */
+    private long maxTiles = 10_000;
+
+    /** 未单独配置的类型的缓存时间 */
+    private long defaultTtlMinutes = 60;
+
+    /** 按业务类型（restaurant / hotel / traffic）覆盖缓存时间 */
+    private Map<String, Long> ttlMinutes = new HashMap<>();
+}
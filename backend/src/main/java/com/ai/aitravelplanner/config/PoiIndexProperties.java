@@ -0,0 +1,35 @@
+package com.ai.aitravelplanner.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 本地 POI 空间索引配置（amap.poi-index.*）
+ */
+@Data
+@ConfigurationProperties(prefix = "amap.poi-index")
+public class PoiIndexProperties {
+
+    private boolean enabled = true;
+
+    /** 索引持久化文件，启动时加载 */
+    private String file = "data/poi-index.bin";
+
+    /** 有变化时写回文件的间隔 */
+    private long flushIntervalMinutes = 5;
+
+    /** 网格边长（度），0.01 约 1.1km */
+    private double cellDegrees = 0.01;
+
+    /** 区域采集后多久内直接用索引回答，未单独配置的类型使用该值 */
+    private long defaultFreshHours = 24;
+
+    /** 按业务类型（restaurant / hotel / traffic）覆盖有效期 */
+    private Map<String, Long> freshHours = new HashMap<>();
+
+    /** 超过该天数未再出现的 POI 从索引中移除 */
+    private long maxPoiAgeDays = 30;
+}
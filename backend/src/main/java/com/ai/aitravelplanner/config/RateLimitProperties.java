@@ -0,0 +1,54 @@
+package com.ai.aitravelplanner.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AI 接口限流配置（rate-limit.*）
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** 默认令牌桶：每个客户端 IP（带用户标识时再按用户细分）、每个接口独立计数 */
+    private Bucket bucket = new Bucket();
+
+    /** 每个客户端 IP、每个接口的总令牌桶，同一 IP 下的所有用户共用，防止轮换用户标识绕过限流 */
+    private Bucket ip = new Bucket(20, 30);
+
+    /**
+     * 是否信任反向代理写入的 X-Real-IP / X-Forwarded-For 取客户端 IP；
+     * 后端直接对外暴露、前面没有会覆盖这些请求头的代理时应关闭
+     */
+    private boolean trustForwardedHeaders = true;
+
+    /** 按接口路径覆盖默认令牌桶 */
+    private Map<String, Bucket> endpoints = new HashMap<>();
+
+    /** 最多同时跟踪的令牌桶数量，超出后淘汰最久未访问的 */
+    private long maxBuckets = 100_000;
+
+    private Shedding shedding = new Shedding();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private double capacity = 5;          // 允许的突发请求数
+        private double refillPerMinute = 6;   // 每分钟补充的令牌数
+    }
+
+    @Data
+    public static class Shedding {
+        private long targetLatencyMs = 30_000;  // 模型调用目标延迟，超过则收缩并发上限
+        private int minConcurrency = 2;
+        private int maxConcurrency = 32;
+    }
+}
@@ -0,0 +1,75 @@
+package com.ai.aitravelplanner.config;
+
+import com.ai.aitravelplanner.cache.LocalSharedCacheBackend;
+import com.ai.aitravelplanner.cache.ReadThroughCache;
+import com.ai.aitravelplanner.cache.SharedCacheBackend;
+import com.ai.aitravelplanner.entity.Budget;
+import com.ai.aitravelplanner.entity.TravelPlan;
+import com.ai.aitravelplanner.entity.TravelSpot;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 列表读缓存配置：行程列表（按用户）、景点列表和支出列表（按行程）
+ * 共享缓存 cache.read.shared.mode 为 redis 时多个后端节点共用（后端在 -Predis 构建的 RedisCacheBackendConfig 中），
+ * 为 none 时只有本地缓存。条目用 Spring 的 ObjectMapper 序列化，日期格式与接口返回一致。
+ */
+@Configuration
+@EnableConfigurationProperties(ReadCacheProperties.class)
+public class ReadCacheConfig {
+
+    private final ReadCacheProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public ReadCacheConfig(ReadCacheProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "cache.read.shared", name = "mode", havingValue = "local")
+    public SharedCacheBackend localSharedCacheBackend() {
+        return new LocalSharedCacheBackend();
+    }
+
+    @Bean
+    public ReadThroughCache<Long, List<TravelPlan>> planListCache(ObjectProvider<SharedCacheBackend> shared,
+                                                                  MeterRegistry meterRegistry) {
+        return create("plan.list", TravelPlan.class, shared, meterRegistry);
+    }
+
+    @Bean
+    public ReadThroughCache<Long, List<TravelSpot>> spotListCache(ObjectProvider<SharedCacheBackend> shared,
+                                                                  MeterRegistry meterRegistry) {
+        return create("spot.list", TravelSpot.class, shared, meterRegistry);
+    }
+
+    @Bean
+    public ReadThroughCache<Long, List<Budget>> budgetListCache(ObjectProvider<SharedCacheBackend> shared,
+                                                                MeterRegistry meterRegistry) {
+        return create("budget.list", Budget.class, shared, meterRegistry);
+    }
+
+    private <T> ReadThroughCache<Long, List<T>> create(String name, Class<T> elementType,
+                                                       ObjectProvider<SharedCacheBackend> shared,
+                                                       MeterRegistry meterRegistry) {
+        SharedCacheBackend backend = shared.getIfAvailable();
+        if (backend == null && "redis".equals(properties.getShared().getMode())) {
+            throw new IllegalStateException("cache.read.shared.mode=redis 需要以 -Predis 构建（包含 spring-boot-starter-data-redis）");
+        }
+        JavaType type = objectMapper.getTypeFactory().constructCollectionType(List.class, elementType);
+        return new ReadThroughCache<>(name, properties.isEnabled(), type, objectMapper,
+                properties.getMaxBytes(), Duration.ofMinutes(properties.getLocalTtlMinutes()),
+                backend, Duration.ofMinutes(properties.getShared().getTtlMinutes()),
+                properties.getShared().getKeyPrefix(), meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ai.aitravelplanner.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 行程、景点、支出列表读缓存配置（cache.read.*）
+ */
+@Data
+@ConfigurationProperties(prefix = "cache.read")
+public class ReadCacheProperties {
+
+    private boolean enabled = true;
+
+    /** 每个缓存的本地内存上限，按条目序列化后的字节数计 */
+    private long maxBytes = 32L * 1024 * 1024;
+
+    /** 本地条目最长保留时间；共享缓存的订阅中断期间可能漏掉失效消息，靠它兜底 */
+    private long localTtlMinutes = 10;
+
+    private Shared shared = new Shared();
+
+    @Data
+    public static class Shared {
+        private String mode = "none";       // none：只用本地缓存；redis：Redis 兼容服务（需 -Predis 构建，连接见 spring.data.redis.*）；local：进程内替身（测试用）
+        private long ttlMinutes = 30;
+        private String keyPrefix = "travel:";
+    }
+}
@@ -0,0 +1,48 @@
+package com.ai.aitravelplanner.config;
+
+import com.ai.aitravelplanner.resilience.ResilientChatModel;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * AI 服务使用的聊天模型：在 openAiChatModel 外包一层超时、对冲和备用模型降级
+ */
+@Configuration
+@EnableConfigurationProperties(LlmResilienceProperties.class)
+public class ResilientChatModelConfig {
+
+    @Value("${langchain4j.open-ai.chat-model.base-url}")
+    private String primaryBaseUrl;
+
+    @Value("${langchain4j.open-ai.chat-model.api-key}")
+    private String primaryApiKey;
+
+    @Bean(destroyMethod = "shutdown")
+    public ResilientChatModel resilientChatModel(@Qualifier("openAiChatModel") ChatModel openAiChatModel,
+                                                 LlmResilienceProperties properties,
+                                                 ObjectProvider<ChatModelListener> listeners,
+                                                 MeterRegistry meterRegistry) {
+        ChatModel fallback = properties.getFallback().isEnabled() ? fallbackModel(properties.getFallback(), listeners) : null;
+        return new ResilientChatModel(openAiChatModel, fallback, properties, meterRegistry);
+    }
+
+    private ChatModel fallbackModel(LlmResilienceProperties.Fallback config, ObjectProvider<ChatModelListener> listeners) {
+        return OpenAiChatModel.builder()
+                .baseUrl(config.getBaseUrl() != null ? config.getBaseUrl() : primaryBaseUrl)
+                .apiKey(config.getApiKey() != null ? config.getApiKey() : primaryApiKey)
+                .modelName(config.getModelName())
+                .timeout(Duration.ofSeconds(config.getTimeoutSeconds()))
+                .listeners(listeners.orderedStream().toList())
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.ai.aitravelplanner.config;
+
+import com.ai.aitravelplanner.dto.BudgetAnalysisDTO;
+import com.ai.aitravelplanner.dto.PlanResponse;
+import com.ai.aitravelplanner.util.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * AI 调用请求合并配置
+ * 结果对象可变（后续会补充距离等字段），每个等待方拿到各自的副本
+ * 省下的模型调用次数：/actuator/metrics/ai.single.flight.saved
+ */
+@Configuration
+public class SingleFlightConfig {
+
+    @Value("${ai.single-flight.wait-timeout-seconds:120}")
+    private long waitTimeoutSeconds;
+
+    @Bean
+    public SingleFlight<String, PlanResponse> planSingleFlight(MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        return new SingleFlight<>(Duration.ofSeconds(waitTimeoutSeconds), savedCounter(meterRegistry, "plan"),
+                value -> objectMapper.convertValue(value, PlanResponse.class));
+    }
+
+    @Bean
+    public SingleFlight<String, BudgetAnalysisDTO> budgetSingleFlight(MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        return new SingleFlight<>(Duration.ofSeconds(waitTimeoutSeconds), savedCounter(meterRegistry, "budget"),
+                value -> objectMapper.convertValue(value, BudgetAnalysisDTO.class));
+    }
+
+    private Counter savedCounter(MeterRegistry meterRegistry, String service) {
+        return Counter.builder("ai.single.flight.saved")
+                .description("被合并到同一次调用而省下的模型调用次数")
+                .tag("service", service)
+                .register(meterRegistry);
+    }
+}
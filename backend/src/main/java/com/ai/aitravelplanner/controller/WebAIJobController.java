@@ -0,0 +1,82 @@
+package com.ai.aitravelplanner.controller;
+
+import com.ai.aitravelplanner.dto.AiJobDTO;
+import com.ai.aitravelplanner.result.Result;
+import com.ai.aitravelplanner.service.AiJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * AI 异步任务控制器
+ * 提交后立即返回任务ID，客户端轮询 /{jobId} 或订阅 /{jobId}/events 获取结果
+ */
+@RestController
+@RequestMapping("/api/ai/jobs")
+public class WebAIJobController {
+    private static final long SUBSCRIBE_TIMEOUT_MS = 300_000L;
+
+    @Autowired
+    private AiJobService aiJobService;
+
+    @PostMapping("/plan")
+    public ResponseEntity<Result<AiJobDTO>> submitPlan(@RequestBody Map<String, Object> payload) {
+        return submit(() -> aiJobService.submitPlan(payload));
+    }
+
+    @PostMapping("/budget")
+    public ResponseEntity<Result<AiJobDTO>> submitBudgetAnalysis(@RequestBody Map<String, Object> payload) {
+        return submit(() -> aiJobService.submitBudgetAnalysis(payload));
+    }
+
+    @GetMapping("/{jobId}")
+    public Result<AiJobDTO> getJob(@PathVariable String jobId) {
+        AiJobDTO job = aiJobService.getJob(jobId);
+        if (job == null) {
+            return Result.error("任务不存在或已过期");
+        }
+        return Result.success(job);
+    }
+
+    /**
+     * 订阅任务结果（SSE），任务结束时推送一次 done 事件后关闭
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable String jobId) {
+        SseEmitter emitter = new SseEmitter(SUBSCRIBE_TIMEOUT_MS);
+        CompletableFuture<AiJobDTO> finished = aiJobService.whenFinished(jobId);
+        if (finished == null) {
+            send(emitter, "error", Result.error("任务不存在或已过期"));
+            return emitter;
+        }
+        finished.thenAccept(job -> send(emitter, "done", Result.success(job)));
+        return emitter;
+    }
+
+    private ResponseEntity<Result<AiJobDTO>> submit(Supplier<AiJobDTO> submission) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Result.success(submission.get()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Result.error("当前生成任务过多，请稍后重试"));
+        }
+    }
+
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -1,30 +1,106 @@
 package com.ai.aitravelplanner.controller;
 
+import com.ai.aitravelplanner.dto.AiJobDTO;
 import com.ai.aitravelplanner.dto.PlanDayDTO;
 import com.ai.aitravelplanner.dto.PlanResponse;
 import com.ai.aitravelplanner.dto.SpotDTO;
 import com.ai.aitravelplanner.result.Result;
+import com.ai.aitravelplanner.service.AiJobService;
 import com.ai.aitravelplanner.service.PlanService;
 import com.ai.aitravelplanner.service.TravelPlanAiService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/ai")
 public class WebAIPlanController {
+    private static final long STREAM_TIMEOUT_MS = 180_000L;
+
     @Autowired
     private PlanService planService;
 
+    @Autowired
+    private AiJobService aiJobService;
+
+    /**
+     * 同步生成行程：同样经过 AI 任务线程池排队，受 ai.job.max-in-flight / queue-capacity 限制，
+     * 队列已满返回 429；异步等待任务结束，不占用 Servlet 线程。
+     * 等待超时后返回任务ID，客户端可改用 /api/ai/jobs/{jobId} 查询结果
+     */
     @PostMapping("/generate")
-    public Result<PlanResponse> generatePlan(@RequestBody Map<String, Object> payload) {
-        PlanResponse response = planService.generatePlan(payload);
-        return Result.success(response);
+    public CompletableFuture<ResponseEntity<Result<PlanResponse>>> generatePlan(@RequestBody Map<String, Object> payload) {
+        AiJobDTO job;
+        try {
+            job = aiJobService.submitPlan(payload);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Result.error("当前生成任务过多，请稍后重试")));
+        }
+        CompletableFuture<AiJobDTO> finished = aiJobService.whenFinished(job.getJobId());
+        if (finished == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Result.error("生成任务已失效，请重新提交")));
+        }
+        return finished.orTimeout(STREAM_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .thenApply(done -> "SUCCEEDED".equals(done.getStatus())
+                        ? ResponseEntity.ok(Result.success((PlanResponse) done.getResult()))
+                        : ResponseEntity.ok(Result.<PlanResponse>error("生成行程失败: " + done.getError())))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                                .body(Result.error("生成超时，任务仍在进行，任务ID: " + job.getJobId()));
+                    }
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .body(Result.error("生成行程失败: " + cause.getMessage()));
+                });
+    }
+
+    /**
+     * 流式生成行程（SSE）
+     * 事件 day：单天行程 PlanDayDTO，每生成完一天推送一次
+     * 事件 complete：完整行程 PlanResponse
+     * 事件 error：Result 格式的错误信息
+     */
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter generatePlanStream(@RequestBody Map<String, Object> payload) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        planService.generatePlanStream(payload,
+                day -> send(emitter, "day", day),
+                response -> {
+                    send(emitter, "complete", response);
+                    emitter.complete();
+                },
+                error -> {
+                    send(emitter, "error", Result.error("生成行程失败: " + error.getMessage()));
+                    emitter.complete();
+                });
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开，后续推送全部丢弃
+            emitter.completeWithError(e);
+        }
     }
 }
@@ -1,15 +1,23 @@
 package com.ai.aitravelplanner.controller;
 
+import com.ai.aitravelplanner.dto.AiJobDTO;
 import com.ai.aitravelplanner.dto.BudgetAnalysisDTO;
 import com.ai.aitravelplanner.result.Result;
-import com.ai.aitravelplanner.service.BudgetAiService;
+import com.ai.aitravelplanner.service.AiJobService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 预算AI分析控制器
@@ -17,14 +25,42 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/ai/budget")
 public class WebBudgetAIController {
-    
+
+    private static final long ANALYZE_TIMEOUT_MS = 180_000L;
+
     @Autowired
-    private BudgetAiService budgetAiService;
+    private AiJobService aiJobService;
 
+    /**
+     * 经过 AI 任务线程池排队，与 /api/ai/generate 共用 ai.job.max-in-flight / queue-capacity 限制，
+     * 队列已满返回 429；异步等待任务结束，不占用 Servlet 线程
+     */
     @PostMapping("/analyze")
-    public Result<BudgetAnalysisDTO> analyzeBudget(@RequestBody Map<String, Object> payload) {
-        BudgetAnalysisDTO analysis = budgetAiService.analyzeBudget(payload);
-        return Result.success(analysis);
+    public CompletableFuture<ResponseEntity<Result<BudgetAnalysisDTO>>> analyzeBudget(@RequestBody Map<String, Object> payload) {
+        AiJobDTO job;
+        try {
+            job = aiJobService.submitBudgetAnalysis(payload);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Result.error("当前分析任务过多，请稍后重试")));
+        }
+        CompletableFuture<AiJobDTO> finished = aiJobService.whenFinished(job.getJobId());
+        if (finished == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Result.error("分析任务已失效，请重新提交")));
+        }
+        return finished.orTimeout(ANALYZE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .thenApply(done -> "SUCCEEDED".equals(done.getStatus())
+                        ? ResponseEntity.ok(Result.success((BudgetAnalysisDTO) done.getResult()))
+                        : ResponseEntity.ok(Result.<BudgetAnalysisDTO>error("预算分析失败: " + done.getError())))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                                .body(Result.error("分析超时，任务仍在进行，任务ID: " + job.getJobId()));
+                    }
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .body(Result.error("预算分析失败: " + cause.getMessage()));
+                });
     }
 }
-
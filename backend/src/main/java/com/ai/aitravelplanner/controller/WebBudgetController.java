@@ -1,11 +1,16 @@
 package com.ai.aitravelplanner.controller;
 
+import com.ai.aitravelplanner.dto.BudgetImportResultDTO;
+import com.ai.aitravelplanner.dto.BudgetSummaryDTO;
 import com.ai.aitravelplanner.entity.Budget;
 import com.ai.aitravelplanner.result.Result;
+import com.ai.aitravelplanner.service.BudgetImportService;
 import com.ai.aitravelplanner.service.BudgetService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +22,9 @@ public class WebBudgetController {
     @Autowired
     private BudgetService budgetService;
 
+    @Autowired
+    private BudgetImportService budgetImportService;
+
     @PostMapping("/add")
     public Result addBudget(@RequestBody Budget budget) {
         boolean ok = budgetService.addBudget(budget);
@@ -33,6 +41,40 @@ public class WebBudgetController {
         return Result.success(budgets);
     }
 
+    /**
+     * 批量导入支出，请求体直接为文件内容（UTF-8），边接收边写入
+     * 格式由 format 参数指定，未指定时按 Content-Type 判断：text/csv 为 CSV，application/x-ndjson 为 NDJSON
+     */
+    @PostMapping("/import/{planId}")
+    public Result<BudgetImportResultDTO> importBudgets(@PathVariable Long planId,
+                                                       @RequestParam(required = false) String format,
+                                                       @RequestHeader(value = "Content-Type", required = false) String contentType,
+                                                       InputStream body) throws IOException {
+        if (format == null) {
+            format = contentType != null && contentType.contains("csv")
+                    ? BudgetImportService.FORMAT_CSV : BudgetImportService.FORMAT_NDJSON;
+        }
+        BudgetImportResultDTO result;
+        try {
+            result = budgetImportService.importBudgets(planId, format.toLowerCase(), body);
+        } catch (IllegalArgumentException e) {
+            return Result.error(e.getMessage());
+        }
+        if (result == null) {
+            return Result.error("行程不存在");
+        }
+        return Result.success(result);
+    }
+
+    @GetMapping("/summary/{planId}")
+    public Result<BudgetSummaryDTO> getBudgetSummary(@PathVariable Long planId) {
+        BudgetSummaryDTO summary = budgetService.getBudgetSummary(planId);
+        if (summary == null) {
+            return Result.error("行程不存在");
+        }
+        return Result.success(summary);
+    }
+
     @DeleteMapping("/delete/{id}")
     public Result<?> deleteBudget(@PathVariable Long id) {
         boolean success = budgetService.deleteBudget(id);
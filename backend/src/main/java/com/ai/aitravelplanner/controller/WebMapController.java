@@ -1,31 +1,79 @@
 package com.ai.aitravelplanner.controller;
 
+import com.ai.aitravelplanner.dto.NearbyBatchRequest;
+import com.ai.aitravelplanner.dto.NearbySpotDTO;
 import com.ai.aitravelplanner.dto.PlaceInfo;
+import com.ai.aitravelplanner.dto.SpotDTO;
+import com.ai.aitravelplanner.entity.TravelSpot;
+import com.ai.aitravelplanner.result.Result;
 import com.ai.aitravelplanner.service.MapService;
+import com.ai.aitravelplanner.service.SpotService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/map")
 @RequiredArgsConstructor
 public class WebMapController {
 
+    private static final int MAX_BATCH_SPOTS = 30;
+
     private final MapService mapService;
+    private final SpotService spotService;
 
     /**
      * 示例：
      * GET /api/map/nearby?lng=116.397428&lat=39.90923&type=restaurant
      *
      * type 支持: restaurant / hotel / traffic
+     * 异步处理，等待高德响应期间不占用 Servlet 线程
      */
     @GetMapping("/nearby")
-    public List<PlaceInfo> getNearby(
+    public CompletableFuture<List<PlaceInfo>> getNearby(
             @RequestParam Double lng,
             @RequestParam Double lat,
             @RequestParam String type) {
 
         return mapService.searchNearby(lng, lat, type);
     }
-}
\ No newline at end of file
+
+    /**
+     * 批量周边搜索，一次返回多个地点、多种类型的结果
+     * 示例：
+     * POST /api/map/nearby/batch
+     * {"planId": 12, "day": 2, "types": ["restaurant", "hotel"]}
+     * 或 {"spots": [{"name": "故宫", "lng": 116.397, "lat": 39.918}], "types": ["restaurant"]}
+     */
+    @PostMapping("/nearby/batch")
+    public CompletableFuture<Result<List<NearbySpotDTO>>> getNearbyBatch(@RequestBody NearbyBatchRequest request) {
+        List<SpotDTO> spots = request.getSpots();
+        if ((spots == null || spots.isEmpty()) && request.getPlanId() != null) {
+            spots = spotsOfPlan(request.getPlanId(), request.getDay());
+        }
+        if (spots == null || spots.isEmpty()) {
+            return CompletableFuture.completedFuture(Result.error("没有需要搜索的地点"));
+        }
+        if (spots.size() > MAX_BATCH_SPOTS) {
+            return CompletableFuture.completedFuture(Result.error("单次最多搜索 " + MAX_BATCH_SPOTS + " 个地点"));
+        }
+        return mapService.searchNearbyBatch(spots, request.getTypes()).thenApply(Result::success);
+    }
+
+    private List<SpotDTO> spotsOfPlan(Long planId, Integer day) {
+        List<TravelSpot> spots = day != null
+                ? spotService.getSpotsByPlanIdAndDay(planId, day)
+                : spotService.getSpotsByPlanId(planId);
+        return spots.stream().map(spot -> {
+            SpotDTO dto = new SpotDTO();
+            dto.setName(spot.getName());
+            dto.setLng(spot.getLng());
+            dto.setLat(spot.getLat());
+            dto.setType(spot.getType());
+            dto.setDescription(spot.getDescription());
+            return dto;
+        }).toList();
+    }
+}
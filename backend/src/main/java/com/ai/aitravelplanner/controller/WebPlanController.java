@@ -1,7 +1,9 @@
 package com.ai.aitravelplanner.controller;
 
 import com.ai.aitravelplanner.dto.PlanDayDTO;
+import com.ai.aitravelplanner.dto.PlanPageDTO;
 import com.ai.aitravelplanner.dto.PlanRequestDTO;
+import com.ai.aitravelplanner.dto.PlanSearchResultDTO;
 import com.ai.aitravelplanner.dto.SpotDTO;
 import com.ai.aitravelplanner.entity.TravelPlan;
 import com.ai.aitravelplanner.result.Result;
@@ -193,18 +195,51 @@ public class WebPlanController {
     }
 
     /**
-     * 搜索用户行程
+     * 分页获取用户行程摘要（不含行程数据），用于列表展示
+     * 示例：GET /api/plan/summaries/1?size=20，下一页带上返回的 cursor=nextCursor
+     */
+    @GetMapping("/summaries/{userId}")
+    public Result<PlanPageDTO> getPlanSummaries(@PathVariable Long userId,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "20") int size) {
+        try {
+            return Result.success(planService.getPlanSummaries(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 按需加载单个行程的完整每日行程
+     */
+    @GetMapping("/{planId}/days")
+    public Result<List<PlanDayDTO>> getPlanDays(@PathVariable Long planId) {
+        List<PlanDayDTO> days;
+        try {
+            days = planService.getPlanDays(planId);
+        } catch (IllegalStateException e) {
+            return Result.error(e.getMessage());
+        }
+        if (days == null) {
+            return Result.error("行程不存在或没有行程数据");
+        }
+        return Result.success(days);
+    }
+
+    /**
+     * 搜索用户行程：标题 / 目的地包含 planName，偏好命中任一（逗号分隔），预算在区间内
+     * 示例：GET /api/plan/search?userId=1&planName=北京&preferences=美食,历史文化&budgetMax=5000
+     * 返回结果列表（不含行程数据）和按偏好的分面计数
      */
     @GetMapping("/search")
-    public Result<List<TravelPlan>> searchPlans(
+    public Result<PlanSearchResultDTO> searchPlans(
             @RequestParam Long userId,
             @RequestParam(required = false) String planName,
             @RequestParam(required = false) String preferences,
             @RequestParam(required = false) Double budgetMin,
             @RequestParam(required = false) Double budgetMax) {
 
-        List<TravelPlan> list = planService.searchPlans(userId, planName, preferences, budgetMin, budgetMax);
-        return Result.success(list);
+        return Result.success(planService.searchPlans(userId, planName, preferences, budgetMin, budgetMax));
     }
 
     /**
@@ -0,0 +1,20 @@
+package com.ai.aitravelplanner.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * AI 异步任务状态
+ */
+@Data
+public class AiJobDTO {
+    private String jobId;               // 任务ID
+    private String type;                // 任务类型：plan / budget
+    private String status;              // QUEUED / RUNNING / SUCCEEDED / FAILED
+    private Object result;              // 成功时的结果：PlanResponse 或 BudgetAnalysisDTO
+    private String error;               // 失败原因
+    private LocalDateTime submittedAt;  // 提交时间
+    private LocalDateTime startedAt;    // 开始执行时间
+    private LocalDateTime finishedAt;   // 结束时间
+}
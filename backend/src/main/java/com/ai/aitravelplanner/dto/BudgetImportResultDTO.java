@@ -0,0 +1,29 @@
+package com.ai.aitravelplanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 支出批量导入结果
+ */
+@Data
+public class BudgetImportResultDTO {
+    private int totalRows;                        // 读取的数据行数（不含表头和空行）
+    private int imported;                         // 成功写入的行数
+    private int failed;                           // 未写入的行数
+    private boolean aborted;                      // 因写库失败或超出行数上限提前结束
+    private List<RowError> errors = new ArrayList<>(); // 逐行错误，超出上限后不再记录
+    private boolean errorsTruncated;              // 错误数超过上限，errors 不完整
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int line;                         // 文件中的行号，从 1 开始
+        private String message;
+    }
+}
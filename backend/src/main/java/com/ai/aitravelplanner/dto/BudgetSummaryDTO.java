@@ -0,0 +1,28 @@
+package com.ai.aitravelplanner.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 行程支出汇总
+ */
+@Data
+public class BudgetSummaryDTO {
+    private Long planId;                          // 行程ID
+    private String destination;                   // 目的地
+    private Integer planDays;                     // 行程天数
+    private BigDecimal totalBudget;               // 总预算
+    private BigDecimal totalSpent;                // 已支出
+    private BigDecimal remaining;                 // 剩余预算
+    private Integer expenseCount;                 // 支出笔数
+    private Map<String, BigDecimal> byCategory;   // 按类别汇总，金额从高到低
+    private Map<LocalDate, BigDecimal> byDay;     // 按日期汇总，日期升序
+    private Map<LocalDate, BigDecimal> cumulativeByDay; // 截至各日期的累计支出，日期升序
+    private BigDecimal budgetUsedPercent;         // 已支出占总预算的百分比，未设预算为 null
+    private BigDecimal dailyBurn;                 // 日均支出（按有支出的天数）
+    private BigDecimal projectedTotal;            // 按日均支出推算的全程总支出
+    private BigDecimal projectedOverspend;        // 推算超支金额，未超支为 0
+}
@@ -0,0 +1,13 @@
+package com.ai.aitravelplanner.dto;
+
+import lombok.Data;
+
+/**
+ * 行程骨架中的单天概要
+ */
+@Data
+public class DayOutlineDTO {
+    private Integer day;      // 第几天
+    private String theme;     // 当天主题
+    private String area;      // 游览区域
+}
@@ -0,0 +1,17 @@
+package com.ai.aitravelplanner.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量周边搜索请求
+ * spots 与 planId 二选一：直接传入地点，或按已保存行程（可指定某一天）的景点搜索
+ */
+@Data
+public class NearbyBatchRequest {
+    private List<SpotDTO> spots;   // 需要搜索周边的地点
+    private Long planId;           // 已保存行程ID
+    private Integer day;           // 行程第几天，为空时取全部景点
+    private List<String> types;    // restaurant / hotel / traffic，为空时三种都查
+}
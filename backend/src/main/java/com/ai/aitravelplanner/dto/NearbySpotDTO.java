@@ -0,0 +1,18 @@
+package com.ai.aitravelplanner.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个地点的周边搜索结果
+ */
+@Data
+public class NearbySpotDTO {
+    private Integer index;                      // 在请求地点列表中的序号
+    private String name;                        // 地点名称
+    private Double lng;
+    private Double lat;
+    private Map<String, List<PlaceInfo>> places; // 按类型分组的周边地点
+}
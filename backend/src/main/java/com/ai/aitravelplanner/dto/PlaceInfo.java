@@ -13,4 +13,6 @@ public class PlaceInfo {
 
     private String tel;       // ✅ 新增电话
     private String photoUrl;  // ✅ 新增图片URL
+
+    private Boolean stale;    // 高德不可用时返回的历史结果为 true
 }
\ No newline at end of file
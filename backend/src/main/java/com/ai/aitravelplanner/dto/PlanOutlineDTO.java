@@ -0,0 +1,12 @@
+package com.ai.aitravelplanner.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * AI 生成的行程骨架，只包含每天的主题和区域，用于并行生成每日详细行程
+ */
+@Data
+public class PlanOutlineDTO {
+    private List<DayOutlineDTO> days;
+}
@@ -0,0 +1,15 @@
+package com.ai.aitravelplanner.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 行程列表分页结果（按创建时间倒序的游标分页）
+ */
+@Data
+public class PlanPageDTO {
+    private List<PlanSummaryDTO> items;  // 当前页
+    private String nextCursor;           // 下一页游标，没有更多时为 null
+    private boolean hasMore;             // 是否还有下一页
+}
@@ -0,0 +1,16 @@
+package com.ai.aitravelplanner.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 行程搜索结果
+ */
+@Data
+public class PlanSearchResultDTO {
+    private List<PlanSummaryDTO> items;   // 按创建时间倒序
+    private int total;                    // 结果数
+    private Map<String, Integer> facets;  // 偏好标签 -> 行程数，不受偏好条件本身影响，按数量降序
+}
@@ -0,0 +1,25 @@
+package com.ai.aitravelplanner.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 行程列表项，不含 plan_data、preferences 等大字段
+ */
+@Data
+public class PlanSummaryDTO {
+    private Long id;
+    private String title;
+    private String destination;      // 目的地
+    private Integer people;          // 人数
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer days;
+    private BigDecimal budget;
+    private Integer status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
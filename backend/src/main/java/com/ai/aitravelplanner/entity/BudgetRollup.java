@@ -0,0 +1,21 @@
+package com.ai.aitravelplanner.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 支出汇总行：按行程、维度（T 合计 / C 类别 / D 日期）累计金额和笔数
+ */
+@Data
+public class BudgetRollup {
+    public static final String TOTAL = "T";
+    public static final String CATEGORY = "C";
+    public static final String DAY = "D";
+
+    private Long planId;
+    private String dim;            // 维度
+    private String dimKey;         // 类别名或 yyyy-MM-dd，合计行为空串
+    private BigDecimal amount;
+    private Integer expenseCount;
+}
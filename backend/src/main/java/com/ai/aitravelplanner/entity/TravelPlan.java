@@ -1,5 +1,6 @@
 package com.ai.aitravelplanner.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -19,6 +20,8 @@ public class TravelPlan {
     private BigDecimal budget; // 改为BigDecimal以匹配数据库的decimal类型
     private String preferences; // 存 JSON 字符串 ["美食","动漫"]
     private String planData; // 行程数据（JSON格式）
+    @JsonIgnore
+    private byte[] planDataBytes; // plan_data 列的原始内容（PlanDataCodec 编码），不对外返回
     private Integer status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -2,6 +2,7 @@ package com.ai.aitravelplanner.mapper;
 
 import com.ai.aitravelplanner.entity.Budget;
 import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
 
@@ -11,9 +12,18 @@ import java.util.List;
 public interface BudgetMapper {
     int insert(Budget budget);
 
+    @Insert("<script>INSERT INTO budget (plan_id, category, amount, remark, expense_date, created_at, updated_at) VALUES" +
+            "<foreach collection=\"budgets\" item=\"budget\" separator=\",\">" +
+            "(#{budget.planId}, #{budget.category}, #{budget.amount}, #{budget.remark}, #{budget.expenseDate}, #{budget.createdAt}, #{budget.updatedAt})" +
+            "</foreach></script>")
+    int insertBatch(List<Budget> budgets);
+
     @Select("SELECT * FROM budget WHERE plan_id = #{planId} ORDER BY expense_date ASC")
     List<Budget> getByPlanId(Long planId);
 
+    @Select("SELECT * FROM budget WHERE id = #{id}")
+    Budget getById(Long id);
+
     @Delete("DELETE FROM budget WHERE id = #{id}")
     int deleteById(Long id);
 }
@@ -0,0 +1,90 @@
+package com.ai.aitravelplanner.mapper;
+
+import com.ai.aitravelplanner.entity.BudgetRollup;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Mapper
+public interface BudgetRollupMapper {
+
+    /**
+     * 累加到已有行：MySQL 8 用行别名引用新值（VALUES() 已弃用），H2 不支持行别名，沿用 VALUES()
+     */
+    String ACCUMULATE = "<choose><when test=\"_databaseId == 'h2'\">" +
+            "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount), expense_count = expense_count + VALUES(expense_count)" +
+            "</when><otherwise>" +
+            "AS new ON DUPLICATE KEY UPDATE amount = amount + new.amount, expense_count = expense_count + new.expense_count" +
+            "</otherwise></choose>";
+
+    @Select("SELECT plan_id, dim, dim_key, amount, expense_count FROM budget_rollup WHERE plan_id = #{planId}")
+    List<BudgetRollup> selectByPlanId(Long planId);
+
+    /**
+     * 锁定行程行，同一行程的汇总写入和首次重建串行执行
+     */
+    @Select("SELECT id FROM plan WHERE id = #{planId} FOR UPDATE")
+    Long lockPlan(Long planId);
+
+    /**
+     * 加锁读取合计行，读到的是已提交的最新数据；汇总尚未建立时返回 null
+     */
+    @Select("SELECT expense_count FROM budget_rollup WHERE plan_id = #{planId} AND dim = 'T' FOR UPDATE")
+    Integer selectTotalCountForUpdate(Long planId);
+
+    /**
+     * 一条语句累加合计、类别、日期三行，行不存在时插入；day 为 null 时不计入按天汇总
+     */
+    @Insert("<script>INSERT INTO budget_rollup (plan_id, dim, dim_key, amount, expense_count) VALUES " +
+            "(#{planId}, 'T', '', #{amount}, #{count}), " +
+            "(#{planId}, 'C', #{category}, #{amount}, #{count})" +
+            "<if test=\"day != null\">, (#{planId}, 'D', #{day}, #{amount}, #{count})</if> " +
+            ACCUMULATE + "</script>")
+    void applyDelta(@Param("planId") Long planId,
+                    @Param("category") String category,
+                    @Param("day") String day,
+                    @Param("amount") BigDecimal amount,
+                    @Param("count") int count);
+
+    /**
+     * 一条语句累加多行汇总，用于批量导入
+     */
+    @Insert("<script>INSERT INTO budget_rollup (plan_id, dim, dim_key, amount, expense_count) VALUES " +
+            "<foreach collection=\"rows\" item=\"row\" separator=\",\">" +
+            "(#{row.planId}, #{row.dim}, #{row.dimKey}, #{row.amount}, #{row.expenseCount})" +
+            "</foreach> " +
+            ACCUMULATE + "</script>")
+    void applyDeltas(@Param("rows") List<BudgetRollup> rows);
+
+    /**
+     * 删除支出后清理已经没有支出的类别、日期行（合计行保留，作为已建立汇总的标记）
+     */
+    @Delete("DELETE FROM budget_rollup WHERE plan_id = #{planId} AND dim <> 'T' AND expense_count <= 0")
+    void deleteEmpty(Long planId);
+
+    @Delete("DELETE FROM budget_rollup WHERE plan_id = #{planId}")
+    void deleteByPlanId(Long planId);
+
+    @Insert("INSERT INTO budget_rollup (plan_id, dim, dim_key, amount, expense_count) " +
+            "SELECT #{planId}, 'T', '', COALESCE(SUM(amount), 0), COUNT(*) FROM budget WHERE plan_id = #{planId}")
+    void rebuildTotal(Long planId);
+
+    @Insert("INSERT INTO budget_rollup (plan_id, dim, dim_key, amount, expense_count) " +
+            "SELECT plan_id, 'C', category, SUM(amount), COUNT(*) FROM budget WHERE plan_id = #{planId} " +
+            "GROUP BY plan_id, category")
+    void rebuildCategories(Long planId);
+
+    /**
+     * 未填支出日期的按录入日期统计，与 BudgetRollupService.dayOf 一致
+     */
+    @Insert("INSERT INTO budget_rollup (plan_id, dim, dim_key, amount, expense_count) " +
+            "SELECT plan_id, 'D', CAST(COALESCE(expense_date, CAST(created_at AS DATE)) AS CHAR(10)), SUM(amount), COUNT(*) " +
+            "FROM budget WHERE plan_id = #{planId} AND COALESCE(expense_date, created_at) IS NOT NULL " +
+            "GROUP BY plan_id, CAST(COALESCE(expense_date, CAST(created_at AS DATE)) AS CHAR(10))")
+    void rebuildDays(Long planId);
+}
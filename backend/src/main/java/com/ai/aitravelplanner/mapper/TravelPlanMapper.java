@@ -1,5 +1,6 @@
 package com.ai.aitravelplanner.mapper;
 
+import com.ai.aitravelplanner.dto.PlanSummaryDTO;
 import com.ai.aitravelplanner.entity.TravelPlan;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
@@ -9,32 +10,72 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
 public interface TravelPlanMapper {
 
     @Insert("INSERT INTO plan (user_id, title, destination, people, start_date, end_date, days, budget, preferences, plan_data, status, created_at, updated_at) " +
-            "VALUES (#{userId}, #{title}, #{destination}, #{people}, #{startDate}, #{endDate}, #{days}, #{budget}, #{preferences}, #{planData}, #{status}, #{createdAt}, #{updatedAt})")
+            "VALUES (#{userId}, #{title}, #{destination}, #{people}, #{startDate}, #{endDate}, #{days}, #{budget}, #{preferences}, #{planDataBytes}, #{status}, #{createdAt}, #{updatedAt})")
     @Options(useGeneratedKeys = true, keyProperty = "id")
     int insert(TravelPlan plan);
 
-    @Select("SELECT id, user_id, title, destination, people, start_date, end_date, days, budget, preferences, plan_data, status, created_at, updated_at " +
+    /**
+     * plan_data 为编码后的原始内容，映射到 planDataBytes，由 PlanDataMigrator 解码
+     */
+    @Select("SELECT id, user_id, title, destination, people, start_date, end_date, days, budget, preferences, plan_data AS plan_data_bytes, status, created_at, updated_at " +
             "FROM plan WHERE user_id = #{userId} ORDER BY created_at DESC" )
     List<TravelPlan> selectByUserId(Long userId);
 
+    /**
+     * 不含 plan_data，行程数据用 selectPlanDataById 单独读取
+     */
+    @Select("SELECT id, user_id, title, destination, people, start_date, end_date, days, budget, preferences, status, created_at, updated_at " +
+            "FROM plan WHERE id = #{planId}")
+    TravelPlan selectById(Long planId);
 
-    List<TravelPlan> searchPlans(
-            @Param("userId") Long userId,
-            @Param("planName") String planName,
-            @Param("preferences") String preferences,
-            @Param("budgetMin") Double budgetMin,
-            @Param("budgetMax") Double budgetMax
-    );
+    /**
+     * 行程列表摘要，按 (created_at, id) 倒序游标分页，走 idx_plan_user_created 索引
+     * @param afterCreatedAt 上一页最后一条的创建时间，为 null 时取第一页
+     */
+    @Select("<script>SELECT id, title, destination, people, start_date, end_date, days, budget, status, created_at, updated_at " +
+            "FROM plan WHERE user_id = #{userId} " +
+            "<if test=\"afterCreatedAt != null\">" +
+            "AND (created_at &lt; #{afterCreatedAt} OR (created_at = #{afterCreatedAt} AND id &lt; #{afterId})) " +
+            "</if>" +
+            "ORDER BY created_at DESC, id DESC LIMIT #{limit}</script>")
+    List<PlanSummaryDTO> selectSummariesByUserId(@Param("userId") Long userId,
+                                                 @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                 @Param("afterId") Long afterId,
+                                                 @Param("limit") int limit);
+
+    /**
+     * 只读取行程数据，返回的对象仅含 id 和 planDataBytes（编码后的 plan_data，由 PlanDataMigrator 解码）
+     * byte[] 作为返回值会被当作多行结果，因此借用实体承载
+     */
+    @Select("SELECT id, plan_data AS plan_data_bytes FROM plan WHERE id = #{planId}")
+    TravelPlan selectPlanDataById(Long planId);
+
+
+    /**
+     * 搜索索引加载用，不含 plan_data
+     */
+    @Select("SELECT id, user_id, title, destination, people, start_date, end_date, days, budget, preferences, status, created_at, updated_at " +
+            "FROM plan WHERE user_id = #{userId}")
+    List<TravelPlan> selectSearchableByUserId(Long userId);
+
+    @Select("SELECT user_id FROM plan WHERE id = #{planId}")
+    Long selectUserIdById(Long planId);
 
     @Delete("DELETE FROM plan WHERE id = #{planId}")
     void deleteById(Long planId);
     
-    @Update("UPDATE plan SET plan_data = #{planData} WHERE id = #{planId}")
-    void updatePlanData(@Param("planId") Long planId, @Param("planData") String planData);
+    /**
+     * 旧格式 plan_data 重新编码写回：只在内容仍是读到的旧值时写入，不覆盖期间的其他写入；
+     * 显式保留 updated_at，避免 ON UPDATE CURRENT_TIMESTAMP 把后台迁移当成用户修改
+     * @return 更新的行数，0 表示行已被修改或删除
+     */
+    @Update("UPDATE plan SET plan_data = #{planData}, updated_at = updated_at WHERE id = #{planId} AND plan_data = #{legacy}")
+    int updatePlanData(@Param("planId") Long planId, @Param("planData") byte[] planData, @Param("legacy") byte[] legacy);
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.ai.aitravelplanner.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.output.OutputParsingException;
+import dev.langchain4j.service.spring.AiService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * 给所有 @AiService 接口套一层代理
+ * 调用期间设置 LlmCallContext（服务名、方法名），统计结构化输出解析失败；
+ * 返回 TokenStream 的方法换成 MeteredTokenStream 以记录首字耗时。
+ */
+@Component
+public class AiServiceMetricsPostProcessor implements BeanPostProcessor {
+
+    // 后处理器创建得早，指标组件延迟到首次调用时再获取
+    private final ObjectProvider<LlmMetrics> llmMetrics;
+
+    public AiServiceMetricsPostProcessor(ObjectProvider<LlmMetrics> llmMetrics) {
+        this.llmMetrics = llmMetrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        Class<?> aiService = findAiServiceInterface(bean.getClass());
+        if (aiService == null) {
+            return bean;
+        }
+        return Proxy.newProxyInstance(aiService.getClassLoader(), new Class<?>[]{aiService},
+                new MetricsHandler(bean, aiService.getSimpleName()));
+    }
+
+    private static Class<?> findAiServiceInterface(Class<?> beanClass) {
+        for (Class<?> candidate : beanClass.getInterfaces()) {
+            if (candidate.isAnnotationPresent(AiService.class)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private class MetricsHandler implements InvocationHandler {
+
+        private final Object target;
+        private final String service;
+
+        MetricsHandler(Object target, String service) {
+            this.target = target;
+            this.service = service;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeTarget(method, args);
+            }
+            LlmCallContext.Call call = new LlmCallContext.Call(service, method.getName());
+            if (TokenStream.class.isAssignableFrom(method.getReturnType())) {
+                // 创建 TokenStream 时还未请求模型，真正的调用发生在 start()
+                return new MeteredTokenStream((TokenStream) invokeTarget(method, args), call, llmMetrics.getObject());
+            }
+            try (LlmCallContext.Scope ignored = LlmCallContext.open(call)) {
+                return invokeTarget(method, args);
+            } catch (RuntimeException e) {
+                if (isParseFailure(e)) {
+                    llmMetrics.getObject().recordParseFailure(call);
+                }
+                throw e;
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static boolean isParseFailure(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof OutputParsingException || t instanceof JsonProcessingException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
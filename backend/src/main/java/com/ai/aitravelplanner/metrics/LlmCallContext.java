@@ -0,0 +1,67 @@
+package com.ai.aitravelplanner.metrics;
+
+/**
+ * 当前线程正在进行的 AI 服务调用（服务名、方法名、模型名）
+ * 由 AI 服务代理在调用期间设置，模型监听器据此给指标打标签。
+ */
+public final class LlmCallContext {
+
+    private static final ThreadLocal<Call> CURRENT = new ThreadLocal<>();
+
+    private LlmCallContext() {
+    }
+
+    public static Call current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 在当前线程上设置调用上下文，关闭时恢复之前的上下文
+     */
+    public static Scope open(Call call) {
+        Call previous = CURRENT.get();
+        CURRENT.set(call);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static final class Call {
+
+        private final String service;
+        private final String method;
+        private volatile String model = "unknown";
+
+        public Call(String service, String method) {
+            this.service = service;
+            this.method = method;
+        }
+
+        public String getService() {
+            return service;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public void setModel(String model) {
+            if (model != null && !model.isBlank()) {
+                this.model = model;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ai.aitravelplanner.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模型调用指标，均按 service、method、model 打标签
+ * llm.tokens               输入/输出 token 数（type=input|output）
+ * llm.prompt.chars         提示词字符数
+ * llm.call.latency         单次模型调用总耗时（outcome=success|error）
+ * llm.time.to.first.token  流式调用的首字耗时
+ * llm.call.retries         业务层重试次数
+ * llm.parse.failures       结构化输出解析失败次数
+ */
+@Component
+public class LlmMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public LlmMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordTokens(LlmCallContext.Call call, Integer inputTokens, Integer outputTokens) {
+        if (inputTokens != null) {
+            tokenCounter(call, "input").increment(inputTokens);
+        }
+        if (outputTokens != null) {
+            tokenCounter(call, "output").increment(outputTokens);
+        }
+    }
+
+    public void recordPromptChars(LlmCallContext.Call call, int chars) {
+        DistributionSummary.builder("llm.prompt.chars")
+                .description("提示词字符数")
+                .baseUnit("chars")
+                .tags("service", call.getService(), "method", call.getMethod(), "model", call.getModel())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(chars);
+    }
+
+    public void recordLatency(LlmCallContext.Call call, long nanos, boolean success) {
+        Timer.builder("llm.call.latency")
+                .description("单次模型调用总耗时")
+                .tags("service", call.getService(), "method", call.getMethod(), "model", call.getModel(),
+                        "outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTimeToFirstToken(LlmCallContext.Call call, long nanos) {
+        Timer.builder("llm.time.to.first.token")
+                .description("流式调用从发起到收到第一个片段的耗时")
+                .tags("service", call.getService(), "method", call.getMethod(), "model", call.getModel())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRetry(String service, String method) {
+        Counter.builder("llm.call.retries")
+                .description("模型调用失败后的重试次数")
+                .tags("service", service, "method", method)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordParseFailure(LlmCallContext.Call call) {
+        recordParseFailure(call.getService(), call.getMethod(), call.getModel());
+    }
+
+    public void recordParseFailure(String service, String method, String model) {
+        Counter.builder("llm.parse.failures")
+                .description("模型结构化输出解析失败次数")
+                .tags("service", service, "method", method, "model", model != null ? model : "unknown")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Counter tokenCounter(LlmCallContext.Call call, String type) {
+        return Counter.builder("llm.tokens")
+                .description("模型调用消耗的 token 数")
+                .baseUnit("tokens")
+                .tags("service", call.getService(), "method", call.getMethod(), "model", call.getModel(),
+                        "type", type)
+                .register(meterRegistry);
+    }
+}
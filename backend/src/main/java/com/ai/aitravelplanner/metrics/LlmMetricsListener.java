@@ -0,0 +1,107 @@
+package com.ai.aitravelplanner.metrics;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模型调用监听器，由 langchain4j 自动注册到 openAiChatModel / openAiStreamingChatModel
+ * 请求时记下调用上下文和开始时间（流式调用的响应在其他线程回调，只能经 attributes 传递），
+ * 响应时记录 token 数、提示词大小、耗时，并输出一行调用摘要。
+ */
+@Component
+public class LlmMetricsListener implements ChatModelListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmMetricsListener.class);
+
+    private static final String CALL_ATTRIBUTE = "llm.call";
+    private static final String START_ATTRIBUTE = "llm.start";
+    private static final String PROMPT_CHARS_ATTRIBUTE = "llm.prompt.chars";
+
+    private final LlmMetrics llmMetrics;
+
+    public LlmMetricsListener(LlmMetrics llmMetrics) {
+        this.llmMetrics = llmMetrics;
+    }
+
+    @Override
+    public void onRequest(ChatModelRequestContext context) {
+        LlmCallContext.Call call = LlmCallContext.current();
+        if (call == null) {
+            call = new LlmCallContext.Call("unknown", "unknown");
+        }
+        call.setModel(context.chatRequest().modelName());
+        int promptChars = promptChars(context.chatRequest().messages());
+
+        Map<Object, Object> attributes = context.attributes();
+        attributes.put(CALL_ATTRIBUTE, call);
+        attributes.put(START_ATTRIBUTE, System.nanoTime());
+        attributes.put(PROMPT_CHARS_ATTRIBUTE, promptChars);
+        llmMetrics.recordPromptChars(call, promptChars);
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext context) {
+        Map<Object, Object> attributes = context.attributes();
+        LlmCallContext.Call call = (LlmCallContext.Call) attributes.get(CALL_ATTRIBUTE);
+        Long start = (Long) attributes.get(START_ATTRIBUTE);
+        if (call == null || start == null) {
+            return;
+        }
+        ChatResponse response = context.chatResponse();
+        call.setModel(response.modelName());
+        long elapsed = System.nanoTime() - start;
+        TokenUsage usage = response.tokenUsage();
+        Integer inputTokens = usage != null ? usage.inputTokenCount() : null;
+        Integer outputTokens = usage != null ? usage.outputTokenCount() : null;
+
+        llmMetrics.recordTokens(call, inputTokens, outputTokens);
+        llmMetrics.recordLatency(call, elapsed, true);
+        log.info("模型调用完成 service={} method={} model={} 提示词字符数={} 输入token={} 输出token={} 耗时={}ms",
+                call.getService(), call.getMethod(), call.getModel(), attributes.get(PROMPT_CHARS_ATTRIBUTE),
+                inputTokens, outputTokens, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    @Override
+    public void onError(ChatModelErrorContext context) {
+        Map<Object, Object> attributes = context.attributes();
+        LlmCallContext.Call call = (LlmCallContext.Call) attributes.get(CALL_ATTRIBUTE);
+        Long start = (Long) attributes.get(START_ATTRIBUTE);
+        if (call == null || start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        llmMetrics.recordLatency(call, elapsed, false);
+        log.warn("模型调用失败 service={} method={} model={} 提示词字符数={} 耗时={}ms 原因={}",
+                call.getService(), call.getMethod(), call.getModel(), attributes.get(PROMPT_CHARS_ATTRIBUTE),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), context.error().toString());
+    }
+
+    private static int promptChars(List<ChatMessage> messages) {
+        int chars = 0;
+        for (ChatMessage message : messages) {
+            if (message instanceof UserMessage userMessage && userMessage.hasSingleText()) {
+                chars += userMessage.singleText().length();
+            } else if (message instanceof SystemMessage systemMessage) {
+                chars += systemMessage.text().length();
+            } else if (message instanceof AiMessage aiMessage && aiMessage.text() != null) {
+                chars += aiMessage.text().length();
+            }
+        }
+        return chars;
+    }
+}
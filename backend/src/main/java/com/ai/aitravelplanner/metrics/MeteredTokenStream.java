@@ -0,0 +1,78 @@
+package com.ai.aitravelplanner.metrics;
+
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.tool.ToolExecution;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 记录首字耗时的 TokenStream 包装
+ * start() 期间设置调用上下文，使流式模型的监听器能拿到服务名和方法名。
+ */
+class MeteredTokenStream implements TokenStream {
+
+    private final TokenStream delegate;
+    private final LlmCallContext.Call call;
+    private final LlmMetrics llmMetrics;
+    private final AtomicBoolean firstToken = new AtomicBoolean();
+    private volatile long startNanos;
+
+    MeteredTokenStream(TokenStream delegate, LlmCallContext.Call call, LlmMetrics llmMetrics) {
+        this.delegate = delegate;
+        this.call = call;
+        this.llmMetrics = llmMetrics;
+    }
+
+    @Override
+    public TokenStream onPartialResponse(Consumer<String> partialResponseHandler) {
+        delegate.onPartialResponse(token -> {
+            if (firstToken.compareAndSet(false, true)) {
+                llmMetrics.recordTimeToFirstToken(call, System.nanoTime() - startNanos);
+            }
+            partialResponseHandler.accept(token);
+        });
+        return this;
+    }
+
+    @Override
+    public TokenStream onRetrieved(Consumer<List<Content>> contentHandler) {
+        delegate.onRetrieved(contentHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream onToolExecuted(Consumer<ToolExecution> toolExecuteHandler) {
+        delegate.onToolExecuted(toolExecuteHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream onCompleteResponse(Consumer<ChatResponse> completeResponseHandler) {
+        delegate.onCompleteResponse(completeResponseHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream onError(Consumer<Throwable> errorHandler) {
+        delegate.onError(errorHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream ignoreErrors() {
+        delegate.ignoreErrors();
+        return this;
+    }
+
+    @Override
+    public void start() {
+        startNanos = System.nanoTime();
+        try (LlmCallContext.Scope ignored = LlmCallContext.open(call)) {
+            delegate.start();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ai.aitravelplanner.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * 全局自适应降载
+ * 以 AIMD 方式调整 AI 接口的全局并发上限：模型延迟超过目标值时按比例收缩，
+ * 延迟正常时缓慢恢复。超过上限的请求直接拒绝，避免排队拖慢所有用户。
+ */
+public class AdaptiveLoadShedder {
+
+    private static final double DECREASE_FACTOR = 0.9;
+    private static final double EWMA_WEIGHT = 0.2;
+
+    private final long targetLatencyNanos;
+    private final double minLimit;
+    private final double maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // double 以 long 位形式保存，便于 CAS 更新
+    private final AtomicLong limitBits;
+    private final AtomicLong latencyEwmaBits = new AtomicLong(Double.doubleToLongBits(0));
+
+    public AdaptiveLoadShedder(long targetLatencyMs, int minConcurrency, int maxConcurrency) {
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.minLimit = minConcurrency;
+        this.maxLimit = maxConcurrency;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(maxConcurrency));
+    }
+
+    /**
+     * 尝试占用一个并发名额，失败时不占用
+     */
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放名额，并以本次耗时调整并发上限
+     * @param latencyNanos 本次模型调用耗时，小于 0 表示不计入延迟统计
+     */
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos < 0) {
+            return;
+        }
+        updateDouble(latencyEwmaBits, ewma -> ewma == 0 ? latencyNanos : ewma + EWMA_WEIGHT * (latencyNanos - ewma));
+        if (latencyNanos > targetLatencyNanos) {
+            updateDouble(limitBits, limit -> Math.max(minLimit, limit * DECREASE_FACTOR));
+        } else {
+            updateDouble(limitBits, limit -> Math.min(maxLimit, limit + 1 / limit));
+        }
+    }
+
+    public int getLimit() {
+        return (int) Math.floor(Double.longBitsToDouble(limitBits.get()));
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getLatencyEwmaMs() {
+        return Double.longBitsToDouble(latencyEwmaBits.get()) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 降载时建议客户端的重试间隔（秒）：取平均延迟，至少 1 秒
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(getLatencyEwmaMs() / 1000));
+    }
+
+    private static void updateDouble(AtomicLong bits, DoubleUnaryOperator op) {
+        while (true) {
+            long current = bits.get();
+            long next = Double.doubleToLongBits(op.applyAsDouble(Double.longBitsToDouble(current)));
+            if (bits.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.ai.aitravelplanner.ratelimit;
+
+import com.ai.aitravelplanner.config.RateLimitProperties;
+import com.ai.aitravelplanner.result.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI 接口限流拦截器
+ * 1. 按"客户端 IP + 接口"的令牌桶限流，客户端 IP 依次取代理写入的 X-Real-IP、X-Forwarded-For 最后一跳、连接地址；
+ *    X-User-Id 请求头或 userId 参数只在该 IP 下再细分一层，IP 总桶始终生效，轮换用户标识无法绕过
+ * 2. 直接调用模型的接口再经过全局自适应降载
+ * 被拒绝的请求返回 429 和 Retry-After。
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".start";
+    // 异步任务接口只负责入队，由任务队列自身限制并发，不参与降载
+    private static final String JOB_PATH_PREFIX = "/api/ai/jobs/";
+
+    private final RateLimitProperties properties;
+    private final AdaptiveLoadShedder loadShedder;
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        RateLimitProperties.Shedding shedding = properties.getShedding();
+        this.loadShedder = new AdaptiveLoadShedder(shedding.getTargetLatencyMs(),
+                shedding.getMinConcurrency(), shedding.getMaxConcurrency());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofMinutes(30))
+                .build();
+
+        Gauge.builder("ai.rate.limit.buckets", buckets, Cache::estimatedSize)
+                .description("当前跟踪的令牌桶数量")
+                .register(meterRegistry);
+        Gauge.builder("ai.load.shed.limit", loadShedder, AdaptiveLoadShedder::getLimit)
+                .description("自适应降载当前的全局并发上限")
+                .register(meterRegistry);
+        Gauge.builder("ai.load.shed.in.flight", loadShedder, AdaptiveLoadShedder::getInFlight)
+                .description("正在进行的模型调用请求数")
+                .register(meterRegistry);
+        Gauge.builder("ai.load.shed.latency.ewma", loadShedder, AdaptiveLoadShedder::getLatencyEwmaMs)
+                .description("模型调用请求的平均延迟（毫秒）")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws IOException {
+        // 异步请求（SSE）结束时的再次分发不重复计数
+        if (!properties.isEnabled() || request.getDispatcherType() != DispatcherType.REQUEST
+                || !HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        String endpoint = request.getRequestURI();
+        String ipKey = "ip:" + resolveClientIp(request);
+        String userId = resolveUserId(request);
+        String clientKey = userId == null ? ipKey : ipKey + "|user:" + userId;
+        long waitNanos = buckets.get(clientKey + "|" + endpoint, k -> newBucket(endpoint)).tryAcquire();
+        if (waitNanos == 0 && userId != null) {
+            RateLimitProperties.Bucket ipConfig = properties.getIp();
+            waitNanos = buckets.get(ipKey + "|*|" + endpoint,
+                    k -> new TokenBucket(ipConfig.getCapacity(), ipConfig.getRefillPerMinute())).tryAcquire();
+        }
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+            reject(response, endpoint, "bucket", retryAfter, "请求过于频繁，请稍后重试");
+            return false;
+        }
+
+        if (!endpoint.startsWith(JOB_PATH_PREFIX)) {
+            if (!loadShedder.tryAcquire()) {
+                reject(response, endpoint, "shedding", loadShedder.retryAfterSeconds(), "服务繁忙，请稍后重试");
+                return false;
+            }
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        // 同步请求在首次分发结束时调用，SSE 请求在流结束后的异步分发中调用
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            boolean failed = ex != null || response.getStatus() >= 500;
+            loadShedder.release(failed ? -1 : System.nanoTime() - (Long) start);
+        }
+    }
+
+    private TokenBucket newBucket(String endpoint) {
+        RateLimitProperties.Bucket config = properties.getEndpoints().getOrDefault(endpoint, properties.getBucket());
+        return new TokenBucket(config.getCapacity(), config.getRefillPerMinute());
+    }
+
+    /**
+     * 客户端 IP：只取可信代理（nginx）写入的值，X-Forwarded-For 前面的条目由客户端自行填写，不可信
+     */
+    private String resolveClientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedHeaders()) {
+            String realIp = request.getHeader("X-Real-IP");
+            if (realIp != null && !realIp.isBlank()) {
+                return realIp.trim();
+            }
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String[] hops = forwarded.split(",");
+                return hops[hops.length - 1].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private String resolveUserId(HttpServletRequest request) {
+        String userId = request.getHeader("X-User-Id");
+        if (userId == null || userId.isBlank()) {
+            userId = request.getParameter("userId");
+        }
+        return userId == null || userId.isBlank() ? null : userId.trim();
+    }
+
+    private void reject(HttpServletResponse response, String endpoint, String reason,
+                        long retryAfterSeconds, String message) throws IOException {
+        Counter.builder("ai.rate.limit.rejected")
+                .description("被限流拒绝的请求数")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(objectMapper.writeValueAsString(Result.error(message)));
+    }
+}
@@ -0,0 +1,46 @@
+package com.ai.aitravelplanner.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 无锁令牌桶
+ * 状态为不可变快照，通过 CAS 整体替换，按时间差惰性补充令牌。
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    /**
+     * @param capacity 桶容量（允许的突发请求数）
+     * @param refillPerMinute 每分钟补充的令牌数
+     */
+    public TokenBucket(double capacity, double refillPerMinute) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+    }
+
+    /**
+     * 尝试取一个令牌
+     * @return 0 表示成功；否则为还需等待的纳秒数
+     */
+    public long tryAcquire() {
+        while (true) {
+            State current = state.get();
+            long now = System.nanoTime();
+            double tokens = Math.min(capacity, current.tokens + (now - current.timestamp) * tokensPerNano);
+            if (tokens < 1) {
+                return tokensPerNano > 0 ? (long) Math.ceil((1 - tokens) / tokensPerNano) : Long.MAX_VALUE;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                return 0;
+            }
+        }
+    }
+
+    private record State(double tokens, long timestamp) {
+    }
+}
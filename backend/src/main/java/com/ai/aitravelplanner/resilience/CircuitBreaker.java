@@ -0,0 +1,170 @@
+package com.ai.aitravelplanner.resilience;
+
+import com.ai.aitravelplanner.config.AmapCircuitBreakerProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * 熔断器
+ * CLOSED：正常放行，按最近 windowSize 次调用统计失败率和慢调用率，任一超过阈值即熔断；
+ * OPEN：直接拒绝，openSeconds 后转为半开；
+ * HALF_OPEN：放行 halfOpenCalls 个试探请求，全部成功且不慢则恢复，任一失败或慢则重新熔断。
+ * 每次申请返回的名额记录当时的状态阶段，状态变化前发出的调用结果不计入新状态（例如关闭时发出、半开时才返回的调用）。
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 一次调用的名额
+     * @param epoch 申请时的状态阶段，每次状态变化加一
+     */
+    public record Permit(long epoch) {
+    }
+
+    private final AmapCircuitBreakerProperties properties;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final BiConsumer<State, State> onTransition;
+
+    // 滑动窗口（环形数组）
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int calls;
+    private int failedCalls;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long epoch;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    /**
+     * @param onTransition 状态变化回调（from, to），在持有锁时调用，不应阻塞
+     */
+    public CircuitBreaker(AmapCircuitBreakerProperties properties, BiConsumer<State, State> onTransition) {
+        this.properties = properties;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSlowCallMs());
+        this.openNanos = TimeUnit.SECONDS.toNanos(properties.getOpenSeconds());
+        this.onTransition = onTransition;
+        this.failed = new boolean[properties.getWindowSize()];
+        this.slow = new boolean[properties.getWindowSize()];
+    }
+
+    /**
+     * 申请发起一次调用；拿到名额时调用方必须在结束后带着名额调用 onResult 或 onSkipped
+     * @return 名额，被拒绝时为 null
+     */
+    public synchronized Permit tryAcquire() {
+        if (!properties.isEnabled()) {
+            return new Permit(epoch);
+        }
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return null;
+            }
+            halfOpenPermits = properties.getHalfOpenCalls();
+            halfOpenSuccesses = 0;
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits <= 0) {
+                return null;
+            }
+            halfOpenPermits--;
+        }
+        return new Permit(epoch);
+    }
+
+    /**
+     * 当前是否可能放行调用（不占用半开状态的试探名额）
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.nanoTime() - openedAt >= openNanos;
+            case HALF_OPEN -> halfOpenPermits > 0;
+        };
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized void onResult(Permit permit, boolean success, long elapsedNanos) {
+        // 状态变化前发出的调用，结果不再计入：半开时只统计试探请求，关闭后不统计之前的试探请求
+        if (!properties.isEnabled() || permit.epoch() != epoch) {
+            return;
+        }
+        boolean isSlow = elapsedNanos >= slowCallNanos;
+        switch (state) {
+            case HALF_OPEN -> {
+                if (!success || isSlow) {
+                    open();
+                } else if (++halfOpenSuccesses >= properties.getHalfOpenCalls()) {
+                    reset();
+                    transition(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                record(!success, isSlow);
+                if (calls >= properties.getMinCalls()
+                        && ((double) failedCalls / calls >= properties.getFailureRateThreshold()
+                        || (double) slowCalls / calls >= properties.getSlowCallRateThreshold())) {
+                    open();
+                }
+            }
+            // 熔断时不发放名额，同一阶段内不会有结果
+            case OPEN -> {
+            }
+        }
+    }
+
+    /**
+     * 申请到名额但调用没有真正发出（例如本地排队已满），归还半开状态的试探名额
+     */
+    public synchronized void onSkipped(Permit permit) {
+        if (state == State.HALF_OPEN && permit.epoch() == epoch) {
+            halfOpenPermits++;
+        }
+    }
+
+    private void record(boolean isFailed, boolean isSlow) {
+        if (calls == failed.length) {
+            failedCalls -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failed[next] = isFailed;
+        slow[next] = isSlow;
+        failedCalls += isFailed ? 1 : 0;
+        slowCalls += isSlow ? 1 : 0;
+        next = (next + 1) % failed.length;
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        reset();
+        transition(State.OPEN);
+    }
+
+    private void reset() {
+        next = 0;
+        calls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        epoch++;
+        onTransition.accept(from, to);
+    }
+}
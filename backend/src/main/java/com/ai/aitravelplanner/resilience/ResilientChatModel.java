@@ -0,0 +1,252 @@
+package com.ai.aitravelplanner.resilience;
+
+import com.ai.aitravelplanner.config.LlmResilienceProperties;
+import com.ai.aitravelplanner.metrics.LlmCallContext;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 带尾延迟控制的聊天模型
+ * 1. 硬超时：按 AI 服务方法取超时时间，到时不再等待主模型
+ * 2. 对冲：主模型超过近期 p95 耗时仍未返回时再发一个相同请求，取先返回的结果
+ * 3. 降级：主模型超时后改用备用（更快的）模型
+ * 拿到结果或超时后，落败的对冲请求和被放弃的请求都会被中断（cancel(true)），及时归还线程。
+ * 线程池已满时：主模型请求直接失败；对冲请求不再发出，继续等待主模型；备用模型请求不再发出，按超时失败。
+ * 指标：llm.resilient.calls、llm.hedge（outcome=fired|won|rejected）、llm.fallback、llm.timeout、llm.rejected
+ */
+public class ResilientChatModel implements ChatModel {
+
+    private static final int WINDOW_SIZE = 200;
+
+    private final ChatModel primary;
+    private final ChatModel fallback;
+    private final LlmResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param fallback 备用模型，为 null 时超时直接失败
+     */
+    public ResilientChatModel(ChatModel primary, ChatModel fallback,
+                              LlmResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.fallback = fallback;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(0, properties.getMaxThreads(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "llm-call-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest request) {
+        LlmCallContext.Call call = LlmCallContext.current();
+        String method = call != null ? call.getMethod() : "unknown";
+        Duration timeout = properties.timeoutFor(method);
+        counter("llm.resilient.calls", "method", method).increment();
+
+        List<Future<?>> attempts = new ArrayList<>(2);
+        try {
+            return callPrimary(request, call, method, timeout, attempts);
+        } catch (TimeoutException e) {
+            counter("llm.timeout", "method", method, "model", "primary").increment();
+            if (fallback == null) {
+                throw new IllegalStateException("模型调用超时（" + timeout.toSeconds() + " 秒）", e);
+            }
+        } finally {
+            cancelAll(attempts);
+        }
+
+        counter("llm.fallback", "method", method, "reason", "timeout").increment();
+        long fallbackTimeout = properties.getFallback().getTimeoutSeconds();
+        List<Future<?>> fallbackAttempts = new ArrayList<>(1);
+        CompletableFuture<ChatResponse> fallbackResult;
+        try {
+            fallbackResult = submit(fallback, request, call, fallbackAttempts);
+        } catch (RejectedExecutionException e) {
+            counter("llm.rejected", "method", method, "model", "fallback").increment();
+            throw new IllegalStateException("主模型调用超时，备用模型调用线程已满", e);
+        }
+        try {
+            return await(fallbackResult, TimeUnit.SECONDS.toNanos(fallbackTimeout));
+        } catch (TimeoutException e) {
+            counter("llm.timeout", "method", method, "model", "fallback").increment();
+            throw new IllegalStateException("主模型与备用模型均调用超时", e);
+        } finally {
+            cancelAll(fallbackAttempts);
+        }
+    }
+
+    /**
+     * @param attempts 已发出的请求，由调用方在结束后统一中断
+     */
+    private ChatResponse callPrimary(ChatRequest request, LlmCallContext.Call call, String method,
+                                     Duration timeout, List<Future<?>> attempts) throws TimeoutException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        CompletableFuture<ChatResponse> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        try {
+            relay(submit(primary, request, call, attempts), result, pending, null);
+        } catch (RejectedExecutionException e) {
+            counter("llm.rejected", "method", method, "model", "primary").increment();
+            throw new IllegalStateException("模型调用线程已满（" + properties.getMaxThreads() + "），请稍后重试", e);
+        }
+
+        LatencyWindow window = windows.computeIfAbsent(method, k -> new LatencyWindow(WINDOW_SIZE));
+        try {
+            long hedgeDelay = hedgeDelayNanos(window, timeout);
+            if (hedgeDelay > 0) {
+                try {
+                    return await(result, hedgeDelay);
+                } catch (TimeoutException e) {
+                    hedge(request, call, method, result, pending, attempts);
+                }
+            }
+            return await(result, deadline - System.nanoTime());
+        } finally {
+            // 失败和超时也计入耗时（最多记到超时时间），否则分位值只反映快速成功的调用，对冲会发得过早
+            window.record(Math.min(System.nanoTime() - start, timeout.toNanos()));
+        }
+    }
+
+    /**
+     * 发出对冲请求；线程池已满时放弃对冲，继续等待主模型
+     */
+    private void hedge(ChatRequest request, LlmCallContext.Call call, String method,
+                       CompletableFuture<ChatResponse> result, AtomicInteger pending, List<Future<?>> attempts) {
+        pending.incrementAndGet();
+        try {
+            relay(submit(primary, request, call, attempts), result, pending, method);
+            counter("llm.hedge", "method", method, "outcome", "fired").increment();
+        } catch (RejectedExecutionException e) {
+            counter("llm.hedge", "method", method, "outcome", "rejected").increment();
+            // 撤回计数；主模型恰好在此期间失败时由这里补上最终失败
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(new IllegalStateException("模型调用失败", e));
+            }
+        }
+    }
+
+    /**
+     * 对冲延迟取近期耗时分位值，样本不足、未开启或不早于硬超时时返回 0（不对冲）
+     */
+    private long hedgeDelayNanos(LatencyWindow window, Duration timeout) {
+        LlmResilienceProperties.Hedge hedge = properties.getHedge();
+        if (!hedge.isEnabled() || window.count() < hedge.getMinSamples()) {
+            return 0;
+        }
+        long delay = Math.max(TimeUnit.MILLISECONDS.toNanos(hedge.getMinDelayMs()),
+                window.percentile(hedge.getPercentile()));
+        return delay < timeout.toNanos() ? delay : 0;
+    }
+
+    /**
+     * 第一个成功的结果作为最终结果；全部请求都失败时才以最后一个异常失败
+     * @param hedgeMethod 对冲请求传入方法名，用于统计对冲请求胜出的次数
+     */
+    private void relay(CompletableFuture<ChatResponse> attempt, CompletableFuture<ChatResponse> result,
+                       AtomicInteger pending, String hedgeMethod) {
+        attempt.whenComplete((response, error) -> {
+            if (error == null) {
+                if (result.complete(response) && hedgeMethod != null) {
+                    counter("llm.hedge", "method", hedgeMethod, "outcome", "won").increment();
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    /**
+     * 在线程池中发出一次调用，任务句柄加入 attempts 以便结束后中断
+     * @throws RejectedExecutionException 线程池已满
+     */
+    private CompletableFuture<ChatResponse> submit(ChatModel model, ChatRequest request, LlmCallContext.Call call,
+                                                   List<Future<?>> attempts) {
+        CompletableFuture<ChatResponse> attempt = new CompletableFuture<>();
+        attempts.add(executor.submit(() -> {
+            // 在调用线程上恢复 AI 服务上下文，让模型监听器的指标带上服务名和方法名
+            try (LlmCallContext.Scope ignored = call != null ? LlmCallContext.open(call) : null) {
+                attempt.complete(model.chat(request));
+            } catch (Throwable e) {
+                attempt.completeExceptionally(e);
+            }
+        }));
+        return attempt;
+    }
+
+    /**
+     * 中断尚未结束的请求，已结束的请求不受影响
+     */
+    private static void cancelAll(List<Future<?>> attempts) {
+        for (Future<?> attempt : attempts) {
+            attempt.cancel(true);
+        }
+    }
+
+    private ChatResponse await(CompletableFuture<ChatResponse> future, long timeoutNanos) throws TimeoutException {
+        try {
+            return future.get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待模型响应时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    private Counter counter(String name, String... tags) {
+        return Counter.builder(name).tags(tags).register(meterRegistry);
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return primary.defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return primary.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return primary.supportedCapabilities();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
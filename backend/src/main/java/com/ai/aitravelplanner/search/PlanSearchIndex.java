@@ -0,0 +1,314 @@
+package com.ai.aitravelplanner.search;
+
+import com.ai.aitravelplanner.dto.PlanSearchResultDTO;
+import com.ai.aitravelplanner.dto.PlanSummaryDTO;
+import com.ai.aitravelplanner.entity.TravelPlan;
+import com.ai.aitravelplanner.mapper.TravelPlanMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 行程搜索索引（每个用户一份，常驻内存）
+ * - 偏好标签：标签 -> 行程ID 的倒排表
+ * - 标题、目的地：按字切分的 1-gram / 2-gram 倒排表，中文无需分词；命中后再做一次子串校验去掉误报
+ * - 预算：按金额排序的 TreeMap，区间过滤直接取子视图
+ * 首次搜索时从数据库加载该用户的行程（不含 plan_data），之后随保存、删除增量维护；
+ * 一段时间未访问的用户索引被淘汰，下次搜索重新加载。
+ * 命中情况：/actuator/metrics/cache.gets?tag=cache:plan.search
+ */
+@Component
+public class PlanSearchIndex {
+
+    private static final String CACHE_NAME = "plan.search";
+
+    private final TravelPlanMapper planMapper;
+    private final Cache<Long, UserIndex> indexes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public PlanSearchIndex(TravelPlanMapper planMapper,
+                           @Value("${plan.search.max-users:10000}") long maxUsers,
+                           @Value("${plan.search.expire-minutes:60}") long expireMinutes,
+                           MeterRegistry meterRegistry) {
+        this.planMapper = planMapper;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(expireMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, CACHE_NAME);
+    }
+
+    /**
+     * @param text        标题或目的地包含的文字，为空时不过滤
+     * @param preferences 偏好标签，命中任一即可，为空时不过滤
+     * @return 按创建时间倒序的结果，以及按偏好标签的分面计数（不受偏好条件本身影响）
+     */
+    public PlanSearchResultDTO search(Long userId, String text, Collection<String> preferences,
+                                      BigDecimal budgetMin, BigDecimal budgetMax) {
+        UserIndex index = indexes.get(userId, this::load);
+        return index.search(text, normalizeTags(preferences), budgetMin, budgetMax);
+    }
+
+    /**
+     * 保存后调用；该用户的索引正在加载时会等加载完成再加入，不会丢失
+     */
+    public void onSaved(TravelPlan plan) {
+        Doc doc = toDoc(plan);
+        indexes.asMap().computeIfPresent(plan.getUserId(), (k, index) -> {
+            index.add(doc);
+            return index;
+        });
+    }
+
+    public void onDeleted(Long userId, Long planId) {
+        indexes.asMap().computeIfPresent(userId, (k, index) -> {
+            index.remove(planId);
+            return index;
+        });
+    }
+
+    private UserIndex load(Long userId) {
+        UserIndex index = new UserIndex();
+        for (TravelPlan plan : planMapper.selectSearchableByUserId(userId)) {
+            index.add(toDoc(plan));
+        }
+        return index;
+    }
+
+    private Doc toDoc(TravelPlan plan) {
+        PlanSummaryDTO summary = new PlanSummaryDTO();
+        summary.setId(plan.getId());
+        summary.setTitle(plan.getTitle());
+        summary.setDestination(plan.getDestination());
+        summary.setPeople(plan.getPeople());
+        summary.setStartDate(plan.getStartDate());
+        summary.setEndDate(plan.getEndDate());
+        summary.setDays(plan.getDays());
+        summary.setBudget(plan.getBudget());
+        summary.setStatus(plan.getStatus());
+        summary.setCreatedAt(plan.getCreatedAt());
+        summary.setUpdatedAt(plan.getUpdatedAt());
+        return new Doc(summary, normalizeTags(parseTags(plan.getPreferences())));
+    }
+
+    /**
+     * preferences 列为 JSON 数组 ["美食","动漫"]，格式不符时按逗号分隔处理
+     */
+    private List<String> parseTags(String preferences) {
+        if (preferences == null || preferences.isBlank()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(preferences, new TypeReference<List<String>>() {
+            });
+        } catch (Exception e) {
+            return List.of(preferences.replaceAll("[\\[\\]\"]", "").split(","));
+        }
+    }
+
+    static Set<String> normalizeTags(Collection<String> tags) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag != null && !tag.isBlank()) {
+                    normalized.add(tag.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return normalized;
+    }
+
+    private record Doc(PlanSummaryDTO summary, Set<String> tags) {
+        Long id() {
+            return summary.getId();
+        }
+    }
+
+    /**
+     * 单个用户的索引；行程数量有限（通常几十到几百），用对象锁串行化读写即可
+     */
+    static final class UserIndex {
+
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final Map<String, Set<Long>> tagPostings = new HashMap<>();
+        private final Map<String, Set<Long>> gramPostings = new HashMap<>();
+        private final NavigableMap<BigDecimal, Set<Long>> budgets = new TreeMap<>();
+
+        synchronized void add(Doc doc) {
+            remove(doc.id());
+            docs.put(doc.id(), doc);
+            for (String tag : doc.tags()) {
+                tagPostings.computeIfAbsent(tag, k -> new HashSet<>()).add(doc.id());
+            }
+            for (String gram : grams(doc.summary())) {
+                gramPostings.computeIfAbsent(gram, k -> new HashSet<>()).add(doc.id());
+            }
+            BigDecimal budget = doc.summary().getBudget();
+            if (budget != null) {
+                budgets.computeIfAbsent(budget, k -> new HashSet<>()).add(doc.id());
+            }
+        }
+
+        synchronized void remove(Long id) {
+            Doc doc = docs.remove(id);
+            if (doc == null) {
+                return;
+            }
+            for (String tag : doc.tags()) {
+                removePosting(tagPostings, tag, id);
+            }
+            for (String gram : grams(doc.summary())) {
+                removePosting(gramPostings, gram, id);
+            }
+            BigDecimal budget = doc.summary().getBudget();
+            if (budget != null) {
+                removePosting(budgets, budget, id);
+            }
+        }
+
+        synchronized PlanSearchResultDTO search(String text, Set<String> preferences,
+                                                BigDecimal budgetMin, BigDecimal budgetMax) {
+            Set<Long> candidates;
+            String query = text != null ? text.trim().toLowerCase(Locale.ROOT) : "";
+            if (query.isEmpty()) {
+                candidates = new HashSet<>(docs.keySet());
+            } else {
+                candidates = null;
+                for (String gram : queryGrams(query)) {
+                    Set<Long> posting = gramPostings.getOrDefault(gram, Set.of());
+                    if (candidates == null) {
+                        candidates = new HashSet<>(posting);
+                    } else {
+                        candidates.retainAll(posting);
+                    }
+                    if (candidates.isEmpty()) {
+                        break;
+                    }
+                }
+                // n-gram 只保证每一段都出现过，还需确认整个查询串连续出现
+                candidates.removeIf(id -> !matchesText(docs.get(id).summary(), query));
+            }
+            if (budgetMin != null || budgetMax != null) {
+                candidates.retainAll(budgetRange(budgetMin, budgetMax));
+            }
+
+            // 分面按除偏好外的条件统计，便于展示切换某个偏好后的结果数
+            Map<String, Integer> facets = new HashMap<>();
+            for (Long id : candidates) {
+                for (String tag : docs.get(id).tags()) {
+                    facets.merge(tag, 1, Integer::sum);
+                }
+            }
+            if (!preferences.isEmpty()) {
+                Set<Long> matched = new HashSet<>();
+                for (String tag : preferences) {
+                    matched.addAll(tagPostings.getOrDefault(tag, Set.of()));
+                }
+                candidates.retainAll(matched);
+            }
+
+            List<PlanSummaryDTO> items = new ArrayList<>(candidates.size());
+            for (Long id : candidates) {
+                items.add(docs.get(id).summary());
+            }
+            items.sort(Comparator.comparing(PlanSummaryDTO::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(PlanSummaryDTO::getId, Comparator.reverseOrder()));
+
+            Map<String, Integer> sortedFacets = new LinkedHashMap<>();
+            facets.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(e -> sortedFacets.put(e.getKey(), e.getValue()));
+
+            PlanSearchResultDTO result = new PlanSearchResultDTO();
+            result.setItems(items);
+            result.setTotal(items.size());
+            result.setFacets(sortedFacets);
+            return result;
+        }
+
+        private Set<Long> budgetRange(BigDecimal min, BigDecimal max) {
+            NavigableMap<BigDecimal, Set<Long>> range = budgets;
+            if (min != null) {
+                range = range.tailMap(min, true);
+            }
+            if (max != null) {
+                range = range.headMap(max, true);
+            }
+            Set<Long> ids = new HashSet<>();
+            range.values().forEach(ids::addAll);
+            return ids;
+        }
+
+        private static boolean matchesText(PlanSummaryDTO summary, String query) {
+            return lower(summary.getTitle()).contains(query) || lower(summary.getDestination()).contains(query);
+        }
+
+        private static <K> void removePosting(Map<K, Set<Long>> postings, K key, Long id) {
+            Set<Long> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 标题和目的地的所有 1-gram、2-gram（按码点切分，不跨字段）
+     */
+    static Set<String> grams(PlanSummaryDTO summary) {
+        Set<String> grams = new HashSet<>();
+        for (String field : new String[]{lower(summary.getTitle()), lower(summary.getDestination())}) {
+            int[] cps = field.codePoints().toArray();
+            for (int i = 0; i < cps.length; i++) {
+                grams.add(new String(cps, i, 1));
+                if (i + 1 < cps.length) {
+                    grams.add(new String(cps, i, 2));
+                }
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 单字查询用 1-gram，否则用查询串的所有 2-gram
+     */
+    static List<String> queryGrams(String query) {
+        int[] cps = query.codePoints().toArray();
+        if (cps.length == 1) {
+            return List.of(query);
+        }
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + 1 < cps.length; i++) {
+            grams.add(new String(cps, i, 2));
+        }
+        return grams;
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+}
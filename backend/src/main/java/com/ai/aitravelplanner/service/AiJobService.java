@@ -0,0 +1,45 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.dto.AiJobDTO;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AI 异步任务服务
+ * 行程生成、预算分析提交后立即返回任务ID，在独立的有界线程池中执行，
+ * 队列已满时抛出 {@link java.util.concurrent.RejectedExecutionException}
+ */
+public interface AiJobService {
+
+    String TYPE_PLAN = "plan";
+    String TYPE_BUDGET = "budget";
+
+    /**
+     * 提交行程生成任务
+     * @param payload 请求参数
+     * @return 任务状态
+     */
+    AiJobDTO submitPlan(Map<String, Object> payload);
+
+    /**
+     * 提交预算分析任务
+     * @param payload 请求参数
+     * @return 任务状态
+     */
+    AiJobDTO submitBudgetAnalysis(Map<String, Object> payload);
+
+    /**
+     * 查询任务状态
+     * @param jobId 任务ID
+     * @return 任务状态，不存在或已过期时返回 null
+     */
+    AiJobDTO getJob(String jobId);
+
+    /**
+     * 等待任务结束
+     * @param jobId 任务ID
+     * @return 任务结束时完成的 future，不存在时返回 null
+     */
+    CompletableFuture<AiJobDTO> whenFinished(String jobId);
+}
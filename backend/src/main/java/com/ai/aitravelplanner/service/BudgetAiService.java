@@ -12,13 +12,17 @@ import java.util.Map;
  */
 @AiService(
         wiringMode = AiServiceWiringMode.EXPLICIT,
-        chatModel = "openAiChatModel"
+        chatModel = "resilientChatModel"
 )
 public interface BudgetAiService {
 
     @UserMessage("""
         你是一位专业的财务分析AI助手。
-        用户将提供旅行行程的预算信息、总预算以及所有支出记录。
+        用户将提供旅行行程的预算信息和已汇总的支出数据：
+        totalBudget 为总预算，totalSpent 为已支出，remaining 为剩余预算，
+        byCategory 为各类别支出合计，byDay 为每天支出合计，dailyBurn 为日均支出，
+        projectedTotal 为按日均支出推算的全程总支出，projectedOverspend 为推算超支金额。
+        （未汇总时可能直接提供所有支出记录 expenses）
         请根据这些信息进行深度分析，包括：
         1. 消费趋势分析：分析支出变化趋势，识别消费模式
         2. 优化建议：基于当前支出情况，给出具体的预算优化建议
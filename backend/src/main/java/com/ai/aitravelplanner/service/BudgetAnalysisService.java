@@ -0,0 +1,18 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.dto.BudgetAnalysisDTO;
+
+import java.util.Map;
+
+/**
+ * 预算分析服务，负责在调用 BudgetAiService 之前做请求合并等处理
+ */
+public interface BudgetAnalysisService {
+
+    /**
+     * 分析预算
+     * @param payload 请求参数
+     * @return 分析结果
+     */
+    BudgetAnalysisDTO analyzeBudget(Map<String, Object> payload);
+}
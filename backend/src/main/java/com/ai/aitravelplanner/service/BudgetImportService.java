@@ -0,0 +1,26 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.dto.BudgetImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 支出批量导入
+ * 边读边校验边写入，不缓存整个文件；校验失败的行记入错误报告，不影响其他行。
+ */
+public interface BudgetImportService {
+
+    String FORMAT_CSV = "csv";
+    String FORMAT_NDJSON = "ndjson";
+
+    /**
+     * 导入支出
+     * @param planId 行程ID，覆盖文件中的 planId
+     * @param format csv 或 ndjson
+     * @param in 文件内容（UTF-8）
+     * @return 导入结果，行程不存在时返回 null
+     * @throws IllegalArgumentException 格式不支持或 CSV 表头缺少必需的列
+     */
+    BudgetImportResultDTO importBudgets(Long planId, String format, InputStream in) throws IOException;
+}
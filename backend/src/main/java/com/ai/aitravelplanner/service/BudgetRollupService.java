@@ -0,0 +1,143 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.entity.Budget;
+import com.ai.aitravelplanner.entity.BudgetRollup;
+import com.ai.aitravelplanner.mapper.BudgetRollupMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 支出汇总表维护
+ * 新增、删除支出时在同一事务内增量累加（一条 INSERT ... ON DUPLICATE KEY UPDATE），
+ * 读取汇总只需读取 类别数 + 天数 + 1 行，与支出笔数无关。
+ * 合计行（dim=T）同时作为“已建立汇总”的标记：新行程的第一笔支出和升级前已有支出的行程没有合计行，
+ * 此时锁定行程行后从 budget 表重建，避免并发重建重复计数。
+ * 写入方法须在调用方的事务内执行；load 用于只读查询，需要重建时另开写事务。
+ */
+@Service
+public class BudgetRollupService {
+
+    private final BudgetRollupMapper rollupMapper;
+    private final TransactionTemplate rebuildTransaction;
+
+    public BudgetRollupService(BudgetRollupMapper rollupMapper, PlatformTransactionManager transactionManager) {
+        this.rollupMapper = rollupMapper;
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 新增（sign=1）或删除（sign=-1）一笔支出后调用，支出行须已写入或删除
+     */
+    public void apply(Budget budget, int sign) {
+        Long planId = budget.getPlanId();
+        if (planId == null || rebuildIfMissing(planId)) {
+            // 重建结果已包含刚写入或删除的这一笔
+            return;
+        }
+        BigDecimal amount = budget.getAmount() != null ? budget.getAmount() : BigDecimal.ZERO;
+        LocalDate day = dayOf(budget);
+        rollupMapper.applyDelta(planId, categoryOf(budget), day != null ? day.toString() : null,
+                sign > 0 ? amount : amount.negate(), sign);
+        if (sign < 0) {
+            rollupMapper.deleteEmpty(planId);
+        }
+    }
+
+    /**
+     * 批量新增支出后调用，按类别、日期合并后一条语句累加，支出行须已写入
+     */
+    public void applyAll(Long planId, List<Budget> added) {
+        if (added.isEmpty() || rebuildIfMissing(planId)) {
+            return;
+        }
+        Map<String, BudgetRollup> deltas = new LinkedHashMap<>();
+        for (Budget budget : added) {
+            BigDecimal amount = budget.getAmount() != null ? budget.getAmount() : BigDecimal.ZERO;
+            merge(deltas, planId, BudgetRollup.TOTAL, "", amount);
+            merge(deltas, planId, BudgetRollup.CATEGORY, categoryOf(budget), amount);
+            LocalDate day = dayOf(budget);
+            if (day != null) {
+                merge(deltas, planId, BudgetRollup.DAY, day.toString(), amount);
+            }
+        }
+        rollupMapper.applyDeltas(new ArrayList<>(deltas.values()));
+    }
+
+    /**
+     * 只读查询，调用方的事务可以是只读的
+     * @return 该行程的全部汇总行，尚未建立时在单独的写事务中重建
+     */
+    public List<BudgetRollup> load(Long planId) {
+        List<BudgetRollup> rows = rollupMapper.selectByPlanId(planId);
+        if (rows.stream().noneMatch(row -> BudgetRollup.TOTAL.equals(row.getDim()))) {
+            // 在重建事务内读取结果：调用方事务已建立的一致性读看不到新事务提交的行
+            rows = rebuildTransaction.execute(status -> {
+                rebuildIfMissing(planId);
+                return rollupMapper.selectByPlanId(planId);
+            });
+        }
+        return rows;
+    }
+
+    /**
+     * 按 budget 表重新计算该行程的汇总，用于批量写入支出之后
+     */
+    public void rebuild(Long planId) {
+        rollupMapper.lockPlan(planId);
+        doRebuild(planId);
+    }
+
+    private boolean rebuildIfMissing(Long planId) {
+        rollupMapper.lockPlan(planId);
+        if (rollupMapper.selectTotalCountForUpdate(planId) != null) {
+            return false;
+        }
+        doRebuild(planId);
+        return true;
+    }
+
+    private void doRebuild(Long planId) {
+        rollupMapper.deleteByPlanId(planId);
+        rollupMapper.rebuildTotal(planId);
+        rollupMapper.rebuildCategories(planId);
+        rollupMapper.rebuildDays(planId);
+    }
+
+    private static void merge(Map<String, BudgetRollup> deltas, Long planId, String dim, String key, BigDecimal amount) {
+        BudgetRollup row = deltas.computeIfAbsent(dim + key, k -> {
+            BudgetRollup created = new BudgetRollup();
+            created.setPlanId(planId);
+            created.setDim(dim);
+            created.setDimKey(key);
+            created.setAmount(BigDecimal.ZERO);
+            created.setExpenseCount(0);
+            return created;
+        });
+        row.setAmount(row.getAmount().add(amount));
+        row.setExpenseCount(row.getExpenseCount() + 1);
+    }
+
+    public static String categoryOf(Budget budget) {
+        return budget.getCategory() != null ? budget.getCategory() : "其他";
+    }
+
+    /**
+     * 未填支出日期的记录按录入日期统计
+     */
+    public static LocalDate dayOf(Budget budget) {
+        if (budget.getExpenseDate() != null) {
+            return budget.getExpenseDate();
+        }
+        return budget.getCreatedAt() != null ? budget.getCreatedAt().toLocalDate() : null;
+    }
+}
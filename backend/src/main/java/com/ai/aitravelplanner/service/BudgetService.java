@@ -1,5 +1,6 @@
 package com.ai.aitravelplanner.service;
 
+import com.ai.aitravelplanner.dto.BudgetSummaryDTO;
 import com.ai.aitravelplanner.entity.Budget;
 
 import java.util.List;
@@ -26,4 +27,11 @@ public interface BudgetService {
      * @return
      */
     boolean deleteBudget(Long id);
+
+    /**
+     * 汇总行程支出：按类别、按天合计、累计支出及日均支出，读取支出汇总表，不逐笔累加
+     * @param planId
+     * @return 行程不存在时返回 null
+     */
+    BudgetSummaryDTO getBudgetSummary(Long planId);
 }
@@ -1,117 +1,437 @@
 package com.ai.aitravelplanner.service;
 
-import com.ai.aitravelplanner.config.AmapConfig;
+import com.ai.aitravelplanner.cache.NearbyPlaceCache;
+import com.ai.aitravelplanner.cache.PoiSpatialIndex;
+import com.ai.aitravelplanner.client.AmapClient;
+import com.ai.aitravelplanner.dto.NearbySpotDTO;
 import com.ai.aitravelplanner.dto.PlaceInfo;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ai.aitravelplanner.dto.SpotDTO;
+import com.ai.aitravelplanner.ratelimit.TokenBucket;
+import com.ai.aitravelplanner.util.AsyncLimiter;
+import com.ai.aitravelplanner.util.GeoUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 public class MapService {
 
-    private final AmapConfig amapConfig;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Logger log = LoggerFactory.getLogger(MapService.class);
+
+    private final AmapClient amapClient;
+    private final NearbyPlaceCache nearbyPlaceCache;
+    private final PoiSpatialIndex poiIndex;
+    private final MeterRegistry meterRegistry;
+
+    private static final int RADIUS_METERS = 2000;  // 搜索半径 2km
+    private static final int PAGE_SIZE = 10;         // 每次返回数量
+    private static final List<String> ALL_TYPES = List.of("restaurant", "hotel", "traffic");
+    private static final int MAX_STALE_TILES = 1000; // 等待后台刷新的网格数上限
+    private static final long STALE_REFRESH_SECONDS = 30; // 检查是否需要刷新历史结果的间隔
+
+    // 返回过历史结果、等高德恢复后重新采集的网格
+    private final Set<NearbyPlaceCache.Tile> staleTiles = ConcurrentHashMap.newKeySet();
+    private final AsyncLimiter refreshLimiter = new AsyncLimiter(2, MAX_STALE_TILES);
+    private final ScheduledExecutorService staleRefresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "map-stale-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${amap.batch.max-parallelism:6}")
+    private int batchParallelism;
+
+    @PostConstruct
+    public void scheduleStaleRefresh() {
+        staleRefresher.scheduleWithFixedDelay(this::refreshStaleTiles,
+                STALE_REFRESH_SECONDS, STALE_REFRESH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        staleRefresher.shutdownNow();
+    }
 
     /**
      * type 参数可用值: restaurant / hotel / traffic
+     * 开启网格缓存时先取请求点所在 geohash 网格的 POI，再按到请求点的真实距离过滤、排序。
+     * 有效期内的采集能确定结果时直接由本地 POI 索引回答；新采集的网格结果写入索引。
+     * 网格内 POI 过多、翻页到上限仍未取完时，采集按最后一个 POI 的距离截断（高德按距离排序），
+     * 请求点的 2km 圆或最近 10 个 POI 所在的圆落在截断后的采集圆内时仍由网格回答，否则以请求点为中心实时搜索。
+     * 高德熔断或调用失败时，采集过的网格返回索引中的历史结果（stale=true），高德恢复后在后台重新采集。
+     * 异步返回，高德不可用且没有历史结果时为空列表。
      */
-    public List<PlaceInfo> searchNearby(Double lng, Double lat, String type) {
+    public CompletableFuture<List<PlaceInfo>> searchNearby(Double lng, Double lat, String type) {
         if (lng == null || lat == null || type == null) {
-            return List.of();
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        String category = normalizeType(type);
+        if (!nearbyPlaceCache.isEnabled()) {
+            return searchLive(lng, lat, category)
+                    .exceptionally(ex -> {
+                        log.warn("高德周边搜索失败: {}", ex.getMessage());
+                        return List.of();
+                    });
+        }
+
+        String geohash = GeoUtils.geohash(lng, lat, nearbyPlaceCache.getGeohashPrecision());
+        List<PlaceInfo> indexed = poiIndex.answer(lng, lat, RADIUS_METERS, category,
+                nearbyPlaceCache.getGeohashPrecision(), PAGE_SIZE);
+        if (indexed != null) {
+            return CompletableFuture.completedFuture(indexed);
+        }
+        if (!amapClient.isAvailable() && poiIndex.hasHarvested(geohash, category)) {
+            return CompletableFuture.completedFuture(serveStale(geohash, category, lng, lat));
+        }
+        return loadTile(geohash, category, null)
+                .thenCompose(tile -> {
+                    List<PlaceInfo> places = answerFromTile(geohash, tile, lng, lat);
+                    if (places != null) {
+                        return CompletableFuture.completedFuture(places);
+                    }
+                    meterRegistry.counter("map.nearby.tile.live", "type", category).increment();
+                    return searchLive(lng, lat, category);
+                })
+                .exceptionally(ex -> {
+                    log.warn("高德周边搜索失败: {}", ex.getMessage());
+                    return poiIndex.hasHarvested(geohash, category)
+                            ? serveStale(geohash, category, lng, lat)
+                            : List.of();
+                });
+    }
+
+    /**
+     * 批量周边搜索：每个地点、每种类型并发搜索（并发数有上限），
+     * 同一 POI 出现在多个地点的结果中时只保留在距离最近的地点下。
+     * @param types 为空时查询全部类型
+     */
+    public CompletableFuture<List<NearbySpotDTO>> searchNearbyBatch(List<SpotDTO> spots, List<String> types) {
+        List<String> categories = (types == null || types.isEmpty() ? ALL_TYPES : types).stream()
+                .filter(Objects::nonNull)
+                .map(this::normalizeType)
+                .distinct()
+                .toList();
+        AsyncLimiter limiter = new AsyncLimiter(batchParallelism, Integer.MAX_VALUE);
+
+        List<Map<String, CompletableFuture<List<PlaceInfo>>>> searches = new ArrayList<>();
+        List<CompletableFuture<List<PlaceInfo>>> all = new ArrayList<>();
+        for (SpotDTO spot : spots) {
+            Map<String, CompletableFuture<List<PlaceInfo>>> byType = new LinkedHashMap<>();
+            for (String category : categories) {
+                CompletableFuture<List<PlaceInfo>> future =
+                        limiter.submit(() -> searchNearby(spot.getLng(), spot.getLat(), category));
+                byType.put(category, future);
+                all.add(future);
+            }
+            searches.add(byType);
+        }
+
+        return CompletableFuture.allOf(all.toArray(new CompletableFuture[0])).thenApply(v -> {
+            List<NearbySpotDTO> results = new ArrayList<>();
+            for (int i = 0; i < spots.size(); i++) {
+                SpotDTO spot = spots.get(i);
+                NearbySpotDTO result = new NearbySpotDTO();
+                result.setIndex(i);
+                result.setName(spot.getName());
+                result.setLng(spot.getLng());
+                result.setLat(spot.getLat());
+                Map<String, List<PlaceInfo>> places = new LinkedHashMap<>();
+                searches.get(i).forEach((category, future) -> places.put(category, future.join()));
+                result.setPlaces(places);
+                results.add(result);
+            }
+            categories.forEach(category -> dedupe(results, category));
+            return results;
+        });
+    }
+
+    /**
+     * 同一 POI（名称 + 坐标相同）只保留在距离最近的地点下
+     */
+    private void dedupe(List<NearbySpotDTO> results, String category) {
+        Map<String, Integer> owner = new HashMap<>();
+        Map<String, Double> ownerDistance = new HashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            for (PlaceInfo place : results.get(i).getPlaces().get(category)) {
+                String key = poiKey(place);
+                double distance = parseDistance(place.getDistance());
+                Double best = ownerDistance.get(key);
+                if (best == null || distance < best) {
+                    owner.put(key, i);
+                    ownerDistance.put(key, distance);
+                }
+            }
+        }
+        for (int i = 0; i < results.size(); i++) {
+            int index = i;
+            Map<String, List<PlaceInfo>> places = results.get(i).getPlaces();
+            places.put(category, places.get(category).stream()
+                    .filter(place -> owner.get(poiKey(place)) == index)
+                    .toList());
         }
+    }
+
+    private static String poiKey(PlaceInfo place) {
+        return place.getName() + "@" + place.getLng() + "," + place.getLat();
+    }
 
-        // 将业务类型映射为高德 types code
-        String typesCode;
+    private static double parseDistance(String distance) {
+        try {
+            return distance != null ? Double.parseDouble(distance) : Double.MAX_VALUE;
+        } catch (NumberFormatException e) {
+            return Double.MAX_VALUE;
+        }
+    }
+
+    private String normalizeType(String type) {
         switch (type.toLowerCase()) {
             case "hotel":
-                typesCode = "100000"; // 住宿服务
-                break;
+                return "hotel";
             case "traffic":
-                typesCode = "150000"; // 交通设施服务
-                break;
+                return "traffic";
             case "restaurant":
             default:
-                typesCode = "050000"; // 餐饮服务
-                break;
+                return "restaurant";
         }
+    }
 
-        String url = UriComponentsBuilder.fromHttpUrl("https://restapi.amap.com/v3/place/around")
-                .queryParam("key", amapConfig.getKey())
-                .queryParam("location", String.format("%s,%s", lng, lat))
-                .queryParam("radius", 2000)       // 搜索半径 2km
-                .queryParam("types", typesCode)
-                .queryParam("offset", 10)         // 每页返回数量
-                .queryParam("page", 1)
-                .queryParam("extensions", "all")  // ✅ 获取详细信息（含电话、照片）
-                .toUriString();
+    // 将业务类型映射为高德 types code
+    private String typesCode(String category) {
+        switch (category) {
+            case "hotel":
+                return "100000"; // 住宿服务
+            case "traffic":
+                return "150000"; // 交通设施服务
+            case "restaurant":
+            default:
+                return "050000"; // 餐饮服务
+        }
+    }
 
-        try {
-            ResponseEntity<String> resp = restTemplate.getForEntity(url, String.class);
-            if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
-                return List.of();
-            }
+    /**
+     * 请求点所在的缓存网格；未开启网格缓存时为 null
+     */
+    public NearbyPlaceCache.Tile tileOf(double lng, double lat, String type) {
+        if (!nearbyPlaceCache.isEnabled()) {
+            return null;
+        }
+        return new NearbyPlaceCache.Tile(GeoUtils.geohash(lng, lat, nearbyPlaceCache.getGeohashPrecision()),
+                normalizeType(type));
+    }
 
-            JsonNode root = objectMapper.readTree(resp.getBody());
-            if (!"1".equals(root.path("status").asText())) {
-                return List.of();
-            }
+    /**
+     * 预取网格：该网格在有效期内采集过时跳过（热门区域的采集是截断的，不按完整半径判断），否则采集并写入网格缓存和索引
+     * @param pageLimiter 每次请求高德（每一页）前取一个令牌
+     * @return 索引中已有有效数据而跳过时为 false
+     */
+    public CompletableFuture<Boolean> warmTile(NearbyPlaceCache.Tile tile, TokenBucket pageLimiter) {
+        double[] bounds = GeoUtils.bounds(tile.geohash());
+        double centerLng = (bounds[0] + bounds[2]) / 2;
+        double centerLat = (bounds[1] + bounds[3]) / 2;
+        if (poiIndex.isCovered(centerLng, centerLat, 0, tile.type(), nearbyPlaceCache.getGeohashPrecision())) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return loadTile(tile.geohash(), tile.type(), pageLimiter).thenApply(places -> true);
+    }
+
+    /**
+     * 以请求点为中心直接搜索高德，不经过网格缓存
+     */
+    private CompletableFuture<List<PlaceInfo>> searchLive(double lng, double lat, String category) {
+        return amapClient.placeAround(lng, lat, RADIUS_METERS, typesCode(category), PAGE_SIZE);
+    }
 
-            JsonNode pois = root.path("pois");
-            if (pois == null || !pois.isArray() || pois.isEmpty()) {
-                return List.of();
+    /**
+     * 取网格 POI（经过网格缓存），采集结果连同已取全的半径写入索引
+     * @param pageLimiter 采集时每页请求前取令牌，为 null 时不限速
+     */
+    private CompletableFuture<NearbyPlaceCache.TilePlaces> loadTile(String geohash, String category,
+                                                                    TokenBucket pageLimiter) {
+        return nearbyPlaceCache.get(new NearbyPlaceCache.Tile(geohash, category),
+                () -> fetchTile(geohash, category, pageLimiter).thenApply(tile -> {
+                    poiIndex.add(geohash, category, tile.places(), tile.radiusMeters());
+                    return tile;
+                }));
+    }
+
+    /**
+     * 网格采集能确定请求点的结果时返回最近的 PAGE_SIZE 个：请求点的 2km 圆落在采集圆内，
+     * 或已取到 PAGE_SIZE 个且其中最远的一个所在的圆落在采集圆内
+     * @return 不能确定时为 null
+     */
+    private List<PlaceInfo> answerFromTile(String geohash, NearbyPlaceCache.TilePlaces tile, double lng, double lat) {
+        double covered = tile.radiusMeters() - GeoUtils.distanceFromCenterMeters(geohash, lng, lat);
+        List<PlaceInfo> places = nearest(tile.places(), lng, lat);
+        if (covered >= RADIUS_METERS) {
+            return places;
+        }
+        if (places.size() == PAGE_SIZE) {
+            PlaceInfo farthest = places.get(PAGE_SIZE - 1);
+            if (GeoUtils.distanceMeters(lng, lat, farthest.getLng(), farthest.getLat()) <= covered) {
+                return places;
             }
+        }
+        return null;
+    }
 
-            List<PlaceInfo> result = new ArrayList<>();
-            for (JsonNode poi : pois) {
-                String name = poi.path("name").asText(null);
-                String address = poi.path("address").asText(null);
-                String typeStr = poi.path("type").asText(null);
-                String distance = poi.path("distance").asText(null);
-                String tel = poi.path("tel").asText(null);
-
-                // ✅ 提取首张图片（photos 是数组）
-                String photoUrl = null;
-                JsonNode photos = poi.path("photos");
-                if (photos.isArray() && photos.size() > 0) {
-                    photoUrl = photos.get(0).path("url").asText(null);
-                }
+    private List<PlaceInfo> serveStale(String geohash, String category, double lng, double lat) {
+        meterRegistry.counter("map.nearby.stale.served", "type", category).increment();
+        if (staleTiles.size() < MAX_STALE_TILES) {
+            staleTiles.add(new NearbyPlaceCache.Tile(geohash, category));
+        }
+        List<PlaceInfo> places = poiIndex.query(lng, lat, RADIUS_METERS, category, PAGE_SIZE);
+        places.forEach(place -> place.setStale(true));
+        return places;
+    }
 
-                String location = poi.path("location").asText(null);
-                Double poiLng = null, poiLat = null;
-                if (location != null && location.contains(",")) {
-                    String[] arr = location.split(",");
-                    try {
-                        poiLng = Double.parseDouble(arr[0]);
-                        poiLat = Double.parseDouble(arr[1]);
-                    } catch (NumberFormatException ignored) { }
+    /**
+     * 定时任务：熔断关闭时，以较低并发重新采集返回过历史结果的网格；失败或排队已满的留待下次
+     */
+    void refreshStaleTiles() {
+        try {
+            if (staleTiles.isEmpty() || !amapClient.isHealthy()) {
+                return;
+            }
+            for (NearbyPlaceCache.Tile tile : List.copyOf(staleTiles)) {
+                if (!staleTiles.remove(tile)) {
+                    continue;
                 }
+                refreshLimiter.submit(() -> loadTile(tile.geohash(), tile.type(), null))
+                        .exceptionally(ex -> {
+                            staleTiles.add(tile);
+                            return null;
+                        });
+            }
+        } catch (RuntimeException e) {
+            // 异常会终止定时任务，这里只记录
+            log.warn("刷新历史周边结果失败: {}", e.getMessage());
+        }
+    }
 
-                PlaceInfo info = new PlaceInfo();
-                info.setName(name);
-                info.setAddress(address);
-                info.setType(typeStr);
-                info.setDistance(distance);
-                info.setTel(tel);
-                info.setPhotoUrl(photoUrl);
-                info.setLng(poiLng);
-                info.setLat(poiLat);
-
-                result.add(info);
+    /**
+     * 以网格中心搜索，半径放大半个网格对角线，使网格内任意一点的 2km 范围都落在搜索圆内。
+     * 逐页读取直到某页不满；翻到 max-tile-pages 页仍是满页时，搜索圆内还有未取到的 POI，
+     * 结果按距离排序，已取全的范围截断到最后一个 POI 的距离。
+     */
+    private CompletableFuture<NearbyPlaceCache.TilePlaces> fetchTile(String geohash, String category,
+                                                                     TokenBucket pageLimiter) {
+        double[] bounds = GeoUtils.bounds(geohash);
+        double centerLng = (bounds[0] + bounds[2]) / 2;
+        double centerLat = (bounds[1] + bounds[3]) / 2;
+        return fetchPages(centerLng, centerLat, tileRadius(geohash), category, 1, new ArrayList<>(), pageLimiter);
+    }
+
+    /**
+     * 网格采集的搜索半径：2km 加网格中心到最远角的距离
+     */
+    private static int tileRadius(String geohash) {
+        return RADIUS_METERS + (int) Math.ceil(GeoUtils.halfDiagonalMeters(geohash));
+    }
+
+    private CompletableFuture<NearbyPlaceCache.TilePlaces> fetchPages(double lng, double lat, int radius,
+                                                                      String category, int page,
+                                                                      List<PlaceInfo> collected,
+                                                                      TokenBucket pageLimiter) {
+        int pageSize = nearbyPlaceCache.getTileSize();
+        return acquire(pageLimiter)
+                .thenCompose(v -> amapClient.placeAround(lng, lat, radius, typesCode(category), pageSize, page))
+                .thenCompose(places -> {
+                    collected.addAll(places);
+                    if (places.size() < pageSize) {
+                        return CompletableFuture.completedFuture(new NearbyPlaceCache.TilePlaces(collected, radius));
+                    }
+                    if (page >= nearbyPlaceCache.getMaxTilePages()) {
+                        meterRegistry.counter("map.nearby.tile.truncated", "type", category).increment();
+                        return CompletableFuture.completedFuture(
+                                new NearbyPlaceCache.TilePlaces(collected, truncatedRadius(lng, lat, radius, collected)));
+                    }
+                    return fetchPages(lng, lat, radius, category, page + 1, collected, pageLimiter);
+                });
+    }
+
+    /**
+     * 取一个令牌；令牌不足时延迟到补充后再取，不阻塞高德回调线程
+     */
+    private static CompletableFuture<Void> acquire(TokenBucket limiter) {
+        if (limiter == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long waitNanos = limiter.tryAcquire();
+        if (waitNanos == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS))
+                .thenCompose(v -> acquire(limiter));
+    }
+
+    /**
+     * 与最后一个 POI 距离相同的 POI 可能在下一页，少算 1 米
+     */
+    private static int truncatedRadius(double lng, double lat, int radius, List<PlaceInfo> collected) {
+        PlaceInfo last = collected.get(collected.size() - 1);
+        if (last.getLng() == null || last.getLat() == null) {
+            return 0;
+        }
+        int farthest = (int) Math.floor(GeoUtils.distanceMeters(lng, lat, last.getLng(), last.getLat())) - 1;
+        return Math.max(0, Math.min(radius, farthest));
+    }
+
+    private List<PlaceInfo> nearest(List<PlaceInfo> tile, double lng, double lat) {
+        record Candidate(PlaceInfo place, double distance) {
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        for (PlaceInfo place : tile) {
+            if (place.getLng() == null || place.getLat() == null) {
+                continue;
+            }
+            double distance = GeoUtils.distanceMeters(lng, lat, place.getLng(), place.getLat());
+            if (distance <= RADIUS_METERS) {
+                candidates.add(new Candidate(place, distance));
             }
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::distance));
 
-            return result;
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            return List.of();
+        List<PlaceInfo> result = new ArrayList<>();
+        for (Candidate candidate : candidates.subList(0, Math.min(PAGE_SIZE, candidates.size()))) {
+            PlaceInfo copy = copyOf(candidate.place());
+            copy.setDistance(String.valueOf(Math.round(candidate.distance())));
+            result.add(copy);
         }
+        return result;
+    }
+
+    private static PlaceInfo copyOf(PlaceInfo place) {
+        PlaceInfo copy = new PlaceInfo();
+        copy.setName(place.getName());
+        copy.setAddress(place.getAddress());
+        copy.setType(place.getType());
+        copy.setDistance(place.getDistance());
+        copy.setTel(place.getTel());
+        copy.setPhotoUrl(place.getPhotoUrl());
+        copy.setLng(place.getLng());
+        copy.setLat(place.getLat());
+        return copy;
     }
 }
@@ -0,0 +1,162 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.cache.NearbyPlaceCache;
+import com.ai.aitravelplanner.client.AmapClient;
+import com.ai.aitravelplanner.entity.TravelSpot;
+import com.ai.aitravelplanner.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 周边搜索预取
+ * 行程保存（事务提交）后，为每个景点的三种周边类型排队预取，用户打开行程时直接命中网格缓存 / POI 索引。
+ * 以网格为单位去重：同一网格、同一类型已在队列中时不再重复排队，重复保存不会放大请求量。
+ * 单个低优先级线程串行执行，每次请求高德（含采集翻页）前按令牌桶限速；高德熔断期间跳过。
+ * 指标：map.prefetch.jobs（result=fetched|skipped|failed|duplicate|dropped）、map.prefetch.queue.size、
+ * map.prefetch.queue.lag（排队到开始执行的时间）
+ */
+@Service
+public class NearbyPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NearbyPrefetcher.class);
+    private static final List<String> TYPES = List.of("restaurant", "hotel", "traffic");
+
+    private final MapService mapService;
+    private final AmapClient amapClient;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long jobTimeoutMs;
+    private final TokenBucket rateLimiter;
+    private final ThreadPoolExecutor executor;
+    // 已排队、尚未开始执行的网格
+    private final Set<NearbyPlaceCache.Tile> queued = ConcurrentHashMap.newKeySet();
+    private final Timer queueLag;
+
+    public NearbyPrefetcher(MapService mapService,
+                            AmapClient amapClient,
+                            MeterRegistry meterRegistry,
+                            @Value("${amap.prefetch.enabled:true}") boolean enabled,
+                            @Value("${amap.prefetch.queue-capacity:2000}") int queueCapacity,
+                            @Value("${amap.prefetch.requests-per-second:5}") double requestsPerSecond,
+                            @Value("${amap.prefetch.job-timeout-ms:10000}") long jobTimeoutMs) {
+        this.mapService = mapService;
+        this.amapClient = amapClient;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.jobTimeoutMs = jobTimeoutMs;
+        this.rateLimiter = new TokenBucket(Math.max(1, requestsPerSecond), requestsPerSecond * 60);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "nearby-prefetch-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("map.prefetch.queue.size", executor, e -> e.getQueue().size())
+                .description("等待执行的周边预取任务数")
+                .register(meterRegistry);
+        this.queueLag = Timer.builder("map.prefetch.queue.lag")
+                .description("周边预取任务从排队到开始执行的时间")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 当前事务提交后再排队，事务回滚时不预取；不在事务中时立即排队
+     */
+    public void prefetchAfterCommit(List<TravelSpot> spots) {
+        if (!enabled || spots.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    prefetch(spots);
+                }
+            });
+        } else {
+            prefetch(spots);
+        }
+    }
+
+    public void prefetch(List<TravelSpot> spots) {
+        for (TravelSpot spot : spots) {
+            if (spot.getLng() == null || spot.getLat() == null) {
+                continue;
+            }
+            for (String type : TYPES) {
+                NearbyPlaceCache.Tile tile = mapService.tileOf(spot.getLng(), spot.getLat(), type);
+                if (tile == null) {
+                    return;
+                }
+                enqueue(tile);
+            }
+        }
+    }
+
+    private void enqueue(NearbyPlaceCache.Tile tile) {
+        if (!queued.add(tile)) {
+            count("duplicate");
+            return;
+        }
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                queued.remove(tile);
+                queueLag.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                run(tile);
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(tile);
+            count("dropped");
+        }
+    }
+
+    private void run(NearbyPlaceCache.Tile tile) {
+        try {
+            if (!amapClient.isHealthy()) {
+                count("skipped");
+                return;
+            }
+            // 热门网格一次采集要翻多页，按实际发出的高德请求（每页）取令牌
+            boolean fetched = mapService.warmTile(tile, rateLimiter).get(jobTimeoutMs, TimeUnit.MILLISECONDS);
+            count(fetched ? "fetched" : "skipped");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            count("failed");
+            log.debug("周边预取失败 tile={} 原因={}", tile, e.getMessage());
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("map.prefetch.jobs", "result", result).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,182 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.dto.DayOutlineDTO;
+import com.ai.aitravelplanner.dto.PlanDayDTO;
+import com.ai.aitravelplanner.dto.PlanOutlineDTO;
+import com.ai.aitravelplanner.dto.PlanResponse;
+import com.ai.aitravelplanner.metrics.LlmMetrics;
+import com.ai.aitravelplanner.util.PayloadCanonicalizer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并行行程生成
+ * 先让模型生成只含每日主题、区域的轻量骨架，再按天并行生成详细行程，最后按天序合并。
+ * 每天单独超时、单独重试，总耗时接近生成单天行程的耗时。
+ * 单天超时从任务真正开始执行时计时，排队时间不计入；超时或整体失败时中断仍在执行的调用，释放线程。
+ */
+@Service
+public class ParallelPlanGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelPlanGenerator.class);
+
+    private final TravelPlanAiService travelPlanAiService;
+    private final LlmMetrics llmMetrics;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final long dayTimeoutSeconds;
+    private final int maxRetries;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ParallelPlanGenerator(TravelPlanAiService travelPlanAiService,
+                                 LlmMetrics llmMetrics,
+                                 @Value("${plan.fan-out.max-concurrency:4}") int maxConcurrency,
+                                 @Value("${plan.fan-out.day-timeout-seconds:60}") long dayTimeoutSeconds,
+                                 @Value("${plan.fan-out.max-retries:1}") int maxRetries) {
+        this.travelPlanAiService = travelPlanAiService;
+        this.llmMetrics = llmMetrics;
+        this.dayTimeoutSeconds = dayTimeoutSeconds;
+        this.maxRetries = maxRetries;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrency, r -> {
+            Thread t = new Thread(r, "plan-fan-out-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "plan-fan-out-timer-1");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 并行生成完整行程
+     * @param payload 请求参数
+     * @return 按天排序的完整行程；骨架为空或天数与请求不符时返回 null，由调用方退回整体生成
+     */
+    public PlanResponse generate(Map<String, Object> payload) {
+        PlanOutlineDTO outline = travelPlanAiService.generateOutline(payload);
+        if (outline == null || outline.getDays() == null || outline.getDays().isEmpty()) {
+            return null;
+        }
+        List<DayOutlineDTO> days = outline.getDays();
+        Integer requestedDays = PayloadCanonicalizer.resolveDays(payload);
+        if (requestedDays != null && requestedDays != days.size()) {
+            log.warn("行程骨架天数不符 请求={} 骨架={}，改为整体生成", requestedDays, days.size());
+            return null;
+        }
+        String outlineJson = toJson(days);
+        // 骨架中的天序缺失或重复时按顺序编号
+        boolean numbered = days.stream().map(DayOutlineDTO::getDay).filter(Objects::nonNull).distinct().count() == days.size();
+
+        List<CompletableFuture<PlanDayDTO>> attempts = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<PlanDayDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < days.size(); i++) {
+            DayOutlineDTO dayOutline = days.get(i);
+            int day = numbered ? dayOutline.getDay() : i + 1;
+            futures.add(generateDay(payload, outlineJson, day, dayOutline, 0, attempts));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            // 有一天最终失败，其余天的结果已无用，中断仍在执行的调用
+            synchronized (attempts) {
+                attempts.forEach(attempt -> attempt.cancel(true));
+            }
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new IllegalStateException("并行生成行程失败: " + cause.getMessage(), cause);
+        }
+
+        List<PlanDayDTO> planDays = new ArrayList<>();
+        futures.forEach(f -> planDays.add(f.join()));
+        planDays.sort(Comparator.comparing(PlanDayDTO::getDay));
+        PlanResponse response = new PlanResponse();
+        response.setPlan(planDays);
+        return response;
+    }
+
+    private CompletableFuture<PlanDayDTO> generateDay(Map<String, Object> payload, String outlineJson,
+                                                      int day, DayOutlineDTO dayOutline, int attempt,
+                                                      List<CompletableFuture<PlanDayDTO>> attempts) {
+        CompletableFuture<PlanDayDTO> result = new CompletableFuture<>();
+        attempts.add(result);
+        Future<?> task = executor.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            // 开始执行时才计时，排队等待其他天的时间不计入超时
+            ScheduledFuture<?> timeout = timer.schedule(() -> result.completeExceptionally(
+                    new TimeoutException("第 " + day + " 天行程生成超时")), dayTimeoutSeconds, TimeUnit.SECONDS);
+            try {
+                result.complete(travelPlanAiService.generateDay(payload, outlineJson, day,
+                        dayOutline.getTheme(), dayOutline.getArea()));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                timeout.cancel(false);
+            }
+        });
+        return result
+                .whenComplete((value, error) -> {
+                    // 超时或被取消时中断仍在执行的模型调用，重试前先释放线程
+                    if (error != null) {
+                        task.cancel(true);
+                    }
+                })
+                .thenApply(value -> {
+                    if (value == null || value.getSpots() == null || value.getSpots().isEmpty()) {
+                        throw new IllegalStateException("第 " + day + " 天行程为空");
+                    }
+                    // 以骨架中的天序为准，避免模型写错
+                    value.setDay(day);
+                    return value;
+                })
+                .exceptionallyCompose(e -> {
+                    if (attempt >= maxRetries || e instanceof CancellationException
+                            || e.getCause() instanceof CancellationException) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                    llmMetrics.recordRetry("TravelPlanAiService", "generateDay");
+                    return generateDay(payload, outlineJson, day, dayOutline, attempt + 1, attempts);
+                });
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,112 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.mapper.TravelPlanMapper;
+import com.ai.aitravelplanner.util.PlanDataCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * plan_data 旧格式（JSON 文本）按读取懒迁移
+ * 读到旧格式的行时排队，由一个低优先级后台线程重新编码写回，不阻塞读请求；
+ * 队列满时丢弃，下次读到时再排队。没有被读到的行保持原样，解码时仍兼容。
+ * 写回时以读到的旧内容为条件，期间行已被修改时放弃（skipped）；写回不改变 updated_at。
+ * 指标：plan.data.migrations（result=migrated|skipped|failed|duplicate|dropped）
+ */
+@Service
+public class PlanDataMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanDataMigrator.class);
+
+    private final TravelPlanMapper planMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final ThreadPoolExecutor executor;
+    // 已排队、尚未写回的行程
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    public PlanDataMigrator(TravelPlanMapper planMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${plan.data-codec.migrate-on-read:true}") boolean enabled,
+                            @Value("${plan.data-codec.migrate-queue-capacity:1000}") int queueCapacity) {
+        this.planMapper = planMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "plan-data-migrate-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 解码 plan_data 列；旧格式的行排队迁移
+     * @return JSON 字符串
+     */
+    public String decode(Long planId, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (enabled && planId != null && PlanDataCodec.isLegacy(data)) {
+            enqueue(planId, data);
+        }
+        return PlanDataCodec.decode(data);
+    }
+
+    private void enqueue(Long planId, byte[] legacy) {
+        if (!queued.add(planId)) {
+            count("duplicate");
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    migrate(planId, legacy);
+                } finally {
+                    queued.remove(planId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(planId);
+            count("dropped");
+        }
+    }
+
+    private void migrate(Long planId, byte[] legacy) {
+        try {
+            byte[] encoded = PlanDataCodec.encode(new String(legacy, StandardCharsets.UTF_8));
+            count(planMapper.updatePlanData(planId, encoded, legacy) > 0 ? "migrated" : "skipped");
+        } catch (Exception e) {
+            // 失败的行保持原样，下次读到时重试
+            count("failed");
+            log.debug("行程数据迁移失败 planId={} 原因={}", planId, e.getMessage());
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("plan.data.migrations", "result", result).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,108 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.dto.PlanDayDTO;
+import com.ai.aitravelplanner.dto.PlanResponse;
+import com.ai.aitravelplanner.dto.SpotDTO;
+import com.ai.aitravelplanner.util.RouteOptimizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 行程路线排序
+ * 模型返回的景点顺序是随意的，按顺序走会在城市里来回折返。这里按景点坐标重新排列每天的景点，
+ * 使当天总路程尽量短；当天景点中有住宿时固定从住宿出发。纯本地计算，不调用外部路线接口。
+ * 耗时：/actuator/metrics/plan.route.optimize
+ */
+@Service
+public class PlanRouteOptimizer {
+
+    // 天数较多时才按天并行，天数少时线程切换的开销比计算本身还大
+    private static final int PARALLEL_MIN_DAYS = 4;
+    private static final List<String> ACCOMMODATION_TYPES = List.of("hotel", "住宿", "酒店", "民宿");
+
+    private final boolean enabled;
+    private final boolean startAtAccommodation;
+    private final Timer timer;
+
+    public PlanRouteOptimizer(MeterRegistry meterRegistry,
+                              @Value("${plan.route.enabled:true}") boolean enabled,
+                              @Value("${plan.route.start-at-accommodation:true}") boolean startAtAccommodation) {
+        this.enabled = enabled;
+        this.startAtAccommodation = startAtAccommodation;
+        this.timer = Timer.builder("plan.route.optimize")
+                .description("整份行程路线排序耗时")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 原地重排每天的景点顺序
+     */
+    public void optimize(PlanResponse response) {
+        if (!enabled || response == null || response.getPlan() == null) {
+            return;
+        }
+        List<PlanDayDTO> days = response.getPlan();
+        timer.record(() -> {
+            if (days.size() >= PARALLEL_MIN_DAYS) {
+                days.parallelStream().forEach(this::optimizeDay);
+            } else {
+                days.forEach(this::optimizeDay);
+            }
+        });
+    }
+
+    /**
+     * 重排单天景点；缺少坐标的景点保持原有先后顺序排在最后
+     */
+    public void optimizeDay(PlanDayDTO day) {
+        if (!enabled || day == null || day.getSpots() == null || day.getSpots().size() < 3) {
+            return;
+        }
+        List<SpotDTO> located = new ArrayList<>();
+        List<SpotDTO> unlocated = new ArrayList<>();
+        for (SpotDTO spot : day.getSpots()) {
+            (spot != null && spot.getLng() != null && spot.getLat() != null ? located : unlocated).add(spot);
+        }
+        if (located.size() < 3) {
+            return;
+        }
+
+        double[] lngs = new double[located.size()];
+        double[] lats = new double[located.size()];
+        for (int i = 0; i < located.size(); i++) {
+            lngs[i] = located.get(i).getLng();
+            lats[i] = located.get(i).getLat();
+        }
+        int start = startAtAccommodation ? accommodationIndex(located, day.getAccommodation()) : -1;
+
+        List<SpotDTO> ordered = new ArrayList<>(day.getSpots().size());
+        for (int index : RouteOptimizer.order(lngs, lats, start)) {
+            ordered.add(located.get(index));
+        }
+        ordered.addAll(unlocated);
+        day.setSpots(ordered);
+    }
+
+    /**
+     * 类型为住宿、或名称与当天住宿信息一致的景点
+     */
+    private static int accommodationIndex(List<SpotDTO> spots, String accommodation) {
+        for (int i = 0; i < spots.size(); i++) {
+            SpotDTO spot = spots.get(i);
+            String type = spot.getType() != null ? spot.getType().toLowerCase() : "";
+            if (ACCOMMODATION_TYPES.stream().anyMatch(type::contains)) {
+                return i;
+            }
+            if (accommodation != null && !accommodation.isBlank() && spot.getName() != null
+                    && accommodation.contains(spot.getName())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,13 +1,16 @@
 package com.ai.aitravelplanner.service;
 
 import com.ai.aitravelplanner.dto.PlanDayDTO;
+import com.ai.aitravelplanner.dto.PlanPageDTO;
 import com.ai.aitravelplanner.dto.PlanRequestDTO;
 import com.ai.aitravelplanner.dto.PlanResponse;
+import com.ai.aitravelplanner.dto.PlanSearchResultDTO;
 import com.ai.aitravelplanner.entity.TravelPlan;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface PlanService {
 
@@ -18,6 +21,18 @@ public interface PlanService {
      */
     PlanResponse generatePlan(Map<String, Object> payload);
 
+    /**
+     * 流式生成旅行计划，每解析出一天立即回调
+     * @param payload 请求参数
+     * @param onDay 单天行程回调
+     * @param onComplete 全部生成完毕后的完整行程回调
+     * @param onError 异常回调
+     */
+    void generatePlanStream(Map<String, Object> payload,
+                            Consumer<PlanDayDTO> onDay,
+                            Consumer<PlanResponse> onComplete,
+                            Consumer<Throwable> onError);
+
     /**
      * 保存行程和景点
      * @param userId 用户ID
@@ -33,16 +48,34 @@ public interface PlanService {
      */
     List<TravelPlan> getPlansByUserId(Long userId);
 
+    /**
+     * 分页获取用户行程摘要（不含行程数据），按创建时间倒序
+     * @param userId 用户ID
+     * @param cursor 上一页返回的 nextCursor，为空时取第一页
+     * @param size 每页数量
+     * @return 当前页和下一页游标
+     * @throws IllegalArgumentException 游标无法解析
+     */
+    PlanPageDTO getPlanSummaries(Long userId, String cursor, int size);
+
+    /**
+     * 获取单个行程的完整每日行程数据
+     * @param planId 行程ID
+     * @return 每日行程，行程不存在或没有数据时为 null
+     * @throws IllegalStateException 行程数据无法解码或解析
+     */
+    List<PlanDayDTO> getPlanDays(Long planId);
+
     /**
      * 搜索行程
      * @param userId 用户ID
-     * @param planName 行程名称
-     * @param preferences 用户偏好
+     * @param planName 标题或目的地包含的文字
+     * @param preferences 用户偏好，逗号分隔，命中任一即可
      * @param budgetMin 最小预算
      * @param budgetMax 最大预算
-     * @return 搜索结果
+     * @return 搜索结果和按偏好的分面计数
      */
-    List<TravelPlan> searchPlans(Long userId, String planName, String preferences, Double budgetMin, Double budgetMax);
+    PlanSearchResultDTO searchPlans(Long userId, String planName, String preferences, Double budgetMin, Double budgetMax);
 
     /**
      * 删除行程和景点
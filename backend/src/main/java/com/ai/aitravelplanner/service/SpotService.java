@@ -11,4 +11,12 @@ public interface SpotService {
      * @return 景点列表
      */
     List<TravelSpot> getSpotsByPlanId(Long planId);
+
+    /**
+     * 获取行程某一天的景点，按游览顺序排列
+     * @param planId 计划ID
+     * @param day 第几天
+     * @return 景点列表
+     */
+    List<TravelSpot> getSpotsByPlanIdAndDay(Long planId, Integer day);
 }
@@ -1,6 +1,7 @@
 package com.ai.aitravelplanner.service;
 
 import com.ai.aitravelplanner.dto.PlanDayDTO;
+import com.ai.aitravelplanner.dto.PlanOutlineDTO;
 import com.ai.aitravelplanner.dto.PlanResponse;
 import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.V;
@@ -12,7 +13,7 @@ import java.util.Map;
 
 @AiService(
         wiringMode = AiServiceWiringMode.EXPLICIT,
-        chatModel = "openAiChatModel"
+        chatModel = "resilientChatModel"
 )
 public interface TravelPlanAiService {
 
@@ -39,4 +40,46 @@ public interface TravelPlanAiService {
         用户请求参数：{{payload}}
     """)
     PlanResponse generatePlan(Map<String, Object> payload);
+
+    @UserMessage("""
+        你是一位专业的旅行规划AI助手。
+        用户将提供目的地、天数、预算、人数以及旅行偏好。
+        请先为整个行程做每日概要：只给出每天的主题和游览区域，不需要具体景点。
+        相邻的景点尽量安排在同一天，各天的游览区域尽量不重复，天数必须与用户要求一致。
+
+        输出格式必须严格遵循以下结构：
+        {
+          "days": [
+            {"day": 1, "theme": "皇城文化", "area": "东城区 故宫、景山一带"},
+            {"day": 2, "theme": "皇家园林", "area": "海淀区 颐和园、圆明园一带"},
+            ...
+          ]
+        }
+
+        用户请求参数：{{payload}}
+    """)
+    PlanOutlineDTO generateOutline(@V("payload") Map<String, Object> payload);
+
+    @UserMessage("""
+        你是一位专业的旅行规划AI助手。
+        整个行程的每日概要如下：{{outline}}
+        请只生成第 {{day}} 天的详细行程，当天主题为「{{theme}}」，游览区域为「{{area}}」，
+        不要安排属于其它天区域的景点。务必做到经纬度信息准确！
+
+        输出格式必须严格遵循以下结构：
+        {
+          "day": {{day}},
+          "spots": [
+            {"name": "景点A", "lng": 116.397, "lat": 39.908, "description": "描述A"},
+            {"name": "景点B", "lng": 116.384, "lat": 39.925, "description": "描述B"}
+          ]
+        }
+
+        用户请求参数：{{payload}}
+    """)
+    PlanDayDTO generateDay(@V("payload") Map<String, Object> payload,
+                           @V("outline") String outline,
+                           @V("day") int day,
+                           @V("theme") String theme,
+                           @V("area") String area);
 }
@@ -0,0 +1,43 @@
+package com.ai.aitravelplanner.service;
+
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.UserMessage;
+import dev.langchain4j.service.spring.AiService;
+import dev.langchain4j.service.spring.AiServiceWiringMode;
+
+import java.util.Map;
+
+/**
+ * 流式行程生成服务，模型输出按片段推送，由调用方增量解析
+ */
+@AiService(
+        wiringMode = AiServiceWiringMode.EXPLICIT,
+        streamingChatModel = "openAiStreamingChatModel"
+)
+public interface TravelPlanStreamAiService {
+
+    @UserMessage("""
+        你是一位专业的旅行规划AI助手。
+        用户将提供目的地、天数、预算、人数以及旅行偏好。
+        请根据这些信息生成详细的每日旅行计划，返回格式为 JSON。
+        务必做到经纬度信息准确！
+        请按天的顺序依次输出，不要输出 JSON 以外的任何内容。
+
+        输出格式必须严格遵循以下结构：
+        {
+          "plan": [
+            {
+              "day": 1,
+              "spots": [
+                {"name": "景点A", "lng": 116.397, "lat": 39.908, "description": "描述A"},
+                {"name": "景点B", "lng": 116.384, "lat": 39.925, "description": "描述B"}
+              ]
+            },
+            ...
+          ]
+        }
+
+        用户请求参数：{{payload}}
+    """)
+    TokenStream generatePlanStream(Map<String, Object> payload);
+}
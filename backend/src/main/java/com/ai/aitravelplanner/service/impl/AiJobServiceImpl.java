@@ -0,0 +1,202 @@
+package com.ai.aitravelplanner.service.impl;
+
+import com.ai.aitravelplanner.dto.AiJobDTO;
+import com.ai.aitravelplanner.service.AiJobService;
+import com.ai.aitravelplanner.service.BudgetAnalysisService;
+import com.ai.aitravelplanner.service.PlanService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Service
+public class AiJobServiceImpl implements AiJobService {
+
+    private final PlanService planService;
+    private final BudgetAnalysisService budgetAnalysisService;
+
+    private final ThreadPoolExecutor executor;
+    // 排队和执行中的任务不过期；已结束的任务保留一段时间供客户端查询，之后自动清除
+    private final Cache<String, AiJob> jobs;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedCounter;
+
+    public AiJobServiceImpl(PlanService planService,
+                            BudgetAnalysisService budgetAnalysisService,
+                            MeterRegistry meterRegistry,
+                            @Value("${ai.job.max-in-flight:4}") int maxInFlight,
+                            @Value("${ai.job.queue-capacity:50}") int queueCapacity,
+                            @Value("${ai.job.retention-minutes:30}") long retentionMinutes) {
+        this.planService = planService;
+        this.budgetAnalysisService = budgetAnalysisService;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxInFlight, maxInFlight, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "ai-job-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        long retentionNanos = Duration.ofMinutes(retentionMinutes).toNanos();
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, AiJob>() {
+                    @Override
+                    public long expireAfterCreate(String key, AiJob job, long currentTime) {
+                        return job.isFinished() ? retentionNanos : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, AiJob job, long currentTime, long currentDuration) {
+                        return job.isFinished() ? retentionNanos : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, AiJob job, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        Gauge.builder("ai.job.queue.depth", executor, e -> e.getQueue().size())
+                .description("等待执行的 AI 任务数")
+                .register(meterRegistry);
+        Gauge.builder("ai.job.in.flight", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的 AI 任务数")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("ai.job.rejected")
+                .description("因队列已满被拒绝的 AI 任务数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public AiJobDTO submitPlan(Map<String, Object> payload) {
+        return submit(TYPE_PLAN, () -> planService.generatePlan(payload));
+    }
+
+    @Override
+    public AiJobDTO submitBudgetAnalysis(Map<String, Object> payload) {
+        return submit(TYPE_BUDGET, () -> budgetAnalysisService.analyzeBudget(payload));
+    }
+
+    @Override
+    public AiJobDTO getJob(String jobId) {
+        AiJob job = jobs.getIfPresent(jobId);
+        return job != null ? job.toDTO() : null;
+    }
+
+    @Override
+    public CompletableFuture<AiJobDTO> whenFinished(String jobId) {
+        AiJob job = jobs.getIfPresent(jobId);
+        return job != null ? job.done.thenApply(v -> job.toDTO()) : null;
+    }
+
+    private AiJobDTO submit(String type, Supplier<Object> task) {
+        AiJob job = new AiJob(UUID.randomUUID().toString(), type);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            rejectedCounter.increment();
+            throw e;
+        }
+        return job.toDTO();
+    }
+
+    private void run(AiJob job, Supplier<Object> task) {
+        job.startedAt = LocalDateTime.now();
+        job.status = "RUNNING";
+        long waitNanos = System.nanoTime() - job.submittedNanos;
+        Timer.builder("ai.job.wait")
+                .description("AI 任务排队等待时间")
+                .tag("type", job.type)
+                .register(meterRegistry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            job.result = task.get();
+            job.status = "SUCCEEDED";
+        } catch (Exception e) {
+            outcome = "error";
+            job.error = e.getMessage();
+            job.status = "FAILED";
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            sample.stop(Timer.builder("ai.job.execution")
+                    .description("AI 任务执行时间")
+                    .tag("type", job.type)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            // 重新写入，从结束时刻开始计算保留时间
+            jobs.put(job.id, job);
+            job.done.complete(null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 任务运行时状态，字段由工作线程写入、请求线程读取
+     */
+    private static class AiJob {
+        final String id;
+        final String type;
+        final long submittedNanos = System.nanoTime();
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        volatile String status = "QUEUED";
+        volatile Object result;
+        volatile String error;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+
+        AiJob(String id, String type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        AiJobDTO toDTO() {
+            AiJobDTO dto = new AiJobDTO();
+            dto.setJobId(id);
+            dto.setType(type);
+            dto.setStatus(status);
+            dto.setResult(result);
+            dto.setError(error);
+            dto.setSubmittedAt(submittedAt);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ai.aitravelplanner.service.impl;
+
+import com.ai.aitravelplanner.cache.BudgetAnalysisCache;
+import com.ai.aitravelplanner.dto.BudgetAnalysisDTO;
+import com.ai.aitravelplanner.dto.BudgetSummaryDTO;
+import com.ai.aitravelplanner.service.BudgetAiService;
+import com.ai.aitravelplanner.service.BudgetAnalysisService;
+import com.ai.aitravelplanner.service.BudgetService;
+import com.ai.aitravelplanner.util.PayloadCanonicalizer;
+import com.ai.aitravelplanner.util.SingleFlight;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Service
+public class BudgetAnalysisServiceImpl implements BudgetAnalysisService {
+
+    @Autowired
+    private BudgetAiService budgetAiService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private BudgetAnalysisCache budgetAnalysisCache;
+
+    @Autowired
+    private SingleFlight<String, BudgetAnalysisDTO> budgetSingleFlight;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public BudgetAnalysisDTO analyzeBudget(Map<String, Object> payload) {
+        Long planId = parsePlanId(payload.get("planId"));
+        if (planId != null) {
+            // 先记下版本再读汇总，分析期间支出有变化时结果不写入缓存
+            long generation = budgetAnalysisCache.generation(planId);
+            BudgetSummaryDTO summary = budgetService.getBudgetSummary(planId);
+            if (summary != null) {
+                return analyzeSummary(planId, generation, summary, PayloadCanonicalizer.isFresh(payload));
+            }
+        }
+        // 没有对应行程时沿用客户端传来的数据；相同参数的并发请求只调用一次模型
+        String key = PayloadCanonicalizer.genericKey(payload);
+        return budgetSingleFlight.execute(key, () -> budgetAiService.analyzeBudget(payload));
+    }
+
+    /**
+     * 只把服务端汇总后的数据交给模型，分析结果按行程缓存，支出变化时由 BudgetService 失效
+     */
+    private BudgetAnalysisDTO analyzeSummary(Long planId, long generation, BudgetSummaryDTO summary, boolean fresh) {
+        if (!fresh) {
+            BudgetAnalysisDTO cached = budgetAnalysisCache.get(planId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Map<String, Object> summaryPayload = objectMapper.convertValue(summary, new TypeReference<>() {
+        });
+        return budgetSingleFlight.execute("plan:" + planId, () -> {
+            BudgetAnalysisDTO analysis = budgetAiService.analyzeBudget(summaryPayload);
+            budgetAnalysisCache.put(planId, generation, analysis);
+            return analysis;
+        });
+    }
+
+    private static Long parsePlanId(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException ignored) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,261 @@
+package com.ai.aitravelplanner.service.impl;
+
+import com.ai.aitravelplanner.cache.BudgetAnalysisCache;
+import com.ai.aitravelplanner.cache.ReadThroughCache;
+import com.ai.aitravelplanner.dto.BudgetImportResultDTO;
+import com.ai.aitravelplanner.entity.Budget;
+import com.ai.aitravelplanner.mapper.BudgetMapper;
+import com.ai.aitravelplanner.mapper.TravelPlanMapper;
+import com.ai.aitravelplanner.service.BudgetImportService;
+import com.ai.aitravelplanner.service.BudgetRollupService;
+import com.ai.aitravelplanner.util.ExpenseRowReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 支出批量导入
+ * - 逐条读取并校验，合格的行攒够 chunk-size 条后在一个事务内写入，事务内按 batch-size 条一条多行 INSERT
+ * - 每个事务提交时同时累加支出汇总表（按类别、日期合并后一条语句），读缓存和分析缓存在导入结束后失效一次
+ * - 某个事务写入失败时回滚该段并结束导入，之前已提交的段保留
+ * 指标：budget.import.rows（result=imported|rejected）
+ */
+@Service
+public class BudgetImportServiceImpl implements BudgetImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetImportServiceImpl.class);
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("99999999.99");
+    private static final DateTimeFormatter SLASH_DATE = DateTimeFormatter.ofPattern("yyyy/M/d");
+
+    private final BudgetMapper budgetMapper;
+    private final TravelPlanMapper planMapper;
+    private final BudgetRollupService budgetRollupService;
+    private final BudgetAnalysisCache budgetAnalysisCache;
+    private final ReadThroughCache<Long, List<Budget>> budgetListCache;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int chunkSize;
+    private final int maxRows;
+    private final int maxErrors;
+    private final int maxRowChars;
+
+    private final Counter importedCounter;
+    private final Counter rejectedCounter;
+
+    public BudgetImportServiceImpl(BudgetMapper budgetMapper,
+                                   TravelPlanMapper planMapper,
+                                   BudgetRollupService budgetRollupService,
+                                   BudgetAnalysisCache budgetAnalysisCache,
+                                   ReadThroughCache<Long, List<Budget>> budgetListCache,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${budget.import.batch-size:500}") int batchSize,
+                                   @Value("${budget.import.chunk-size:5000}") int chunkSize,
+                                   @Value("${budget.import.max-rows:100000}") int maxRows,
+                                   @Value("${budget.import.max-errors:500}") int maxErrors,
+                                   @Value("${budget.import.max-row-chars:4096}") int maxRowChars) {
+        this.budgetMapper = budgetMapper;
+        this.planMapper = planMapper;
+        this.budgetRollupService = budgetRollupService;
+        this.budgetAnalysisCache = budgetAnalysisCache;
+        this.budgetListCache = budgetListCache;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.chunkSize = Math.max(this.batchSize, chunkSize);
+        this.maxRows = maxRows;
+        this.maxErrors = maxErrors;
+        this.maxRowChars = maxRowChars;
+
+        this.importedCounter = rowCounter(meterRegistry, "imported");
+        this.rejectedCounter = rowCounter(meterRegistry, "rejected");
+    }
+
+    @Override
+    public BudgetImportResultDTO importBudgets(Long planId, String format, InputStream in) throws IOException {
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new IllegalArgumentException("不支持的导入格式: " + format + "，可选 csv、ndjson");
+        }
+        if (planMapper.selectById(planId) == null) {
+            return null;
+        }
+
+        BudgetImportResultDTO result = new BudgetImportResultDTO();
+        LocalDateTime now = LocalDateTime.now();
+        List<Budget> chunk = new ArrayList<>(chunkSize);
+        int chunkFirstLine = 0;
+        BufferedReader text = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try (ExpenseRowReader reader = FORMAT_CSV.equals(format)
+                ? ExpenseRowReader.csv(text, maxRowChars) : ExpenseRowReader.ndjson(text, maxRowChars)) {
+            ExpenseRowReader.Row row;
+            while ((row = reader.next()) != null) {
+                if (result.getTotalRows() >= maxRows) {
+                    addError(result, row.line(), "超过单次导入上限 " + maxRows + " 行，之后的内容未导入");
+                    result.setAborted(true);
+                    break;
+                }
+                result.setTotalRows(result.getTotalRows() + 1);
+                String error = row.error();
+                Budget budget = null;
+                if (error == null) {
+                    try {
+                        budget = toBudget(planId, row.fields(), now);
+                    } catch (IllegalArgumentException e) {
+                        error = e.getMessage();
+                    }
+                }
+                if (budget == null) {
+                    result.setFailed(result.getFailed() + 1);
+                    addError(result, row.line(), error);
+                    continue;
+                }
+                if (chunk.isEmpty()) {
+                    chunkFirstLine = row.line();
+                }
+                chunk.add(budget);
+                if (chunk.size() >= chunkSize) {
+                    if (!writeChunk(planId, chunk, chunkFirstLine, row.line(), result)) {
+                        break;
+                    }
+                    chunk.clear();
+                }
+            }
+            if (!result.isAborted() && !chunk.isEmpty()) {
+                writeChunk(planId, chunk, chunkFirstLine, -1, result);
+            }
+        } finally {
+            if (result.getImported() > 0) {
+                budgetAnalysisCache.invalidate(planId);
+                budgetListCache.invalidate(planId);
+            }
+            importedCounter.increment(result.getImported());
+            rejectedCounter.increment(result.getFailed());
+        }
+        log.info("支出导入完成 planId={} 格式={} 读取={} 写入={} 失败={} 提前结束={}", planId, format,
+                result.getTotalRows(), result.getImported(), result.getFailed(), result.isAborted());
+        return result;
+    }
+
+    /**
+     * 在一个事务内写入一段支出并累加汇总表
+     * @param lastLine 该段最后一行的行号，-1 表示到文件末尾
+     * @return 是否成功，失败时该段回滚并记录错误
+     */
+    private boolean writeChunk(Long planId, List<Budget> chunk, int firstLine, int lastLine,
+                               BudgetImportResultDTO result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < chunk.size(); i += batchSize) {
+                    budgetMapper.insertBatch(chunk.subList(i, Math.min(i + batchSize, chunk.size())));
+                }
+                budgetRollupService.applyAll(planId, chunk);
+            });
+            result.setImported(result.getImported() + chunk.size());
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("支出导入写库失败 planId={} 起始行={} 原因={}", planId, firstLine, e.getMessage());
+            result.setFailed(result.getFailed() + chunk.size());
+            result.setAborted(true);
+            String range = lastLine > 0 ? "第 " + firstLine + "-" + lastLine + " 行" : "第 " + firstLine + " 行至文件末尾";
+            addError(result, firstLine, range + "中的 " + chunk.size() + " 条支出写入失败，已回滚，之后的内容未导入");
+            return false;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException 字段不合法，异常信息即错误原因
+     */
+    private static Budget toBudget(Long planId, Map<String, String> fields, LocalDateTime now) {
+        String category = trimToNull(fields.get(ExpenseRowReader.CATEGORY));
+        if (category == null) {
+            throw new IllegalArgumentException("缺少类别");
+        }
+        if (category.length() > 50) {
+            throw new IllegalArgumentException("类别超过 50 个字符");
+        }
+
+        String amountText = trimToNull(fields.get(ExpenseRowReader.AMOUNT));
+        if (amountText == null) {
+            throw new IllegalArgumentException("缺少金额");
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(amountText.replace("¥", "").replace("￥", "").trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("金额不是数字: " + amountText);
+        }
+        if (amount.signum() <= 0 || amount.compareTo(MAX_AMOUNT) > 0) {
+            throw new IllegalArgumentException("金额须大于 0 且不超过 " + MAX_AMOUNT.toPlainString());
+        }
+        if (amount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("金额最多两位小数");
+        }
+
+        LocalDate expenseDate = null;
+        String dateText = trimToNull(fields.get(ExpenseRowReader.EXPENSE_DATE));
+        if (dateText != null) {
+            try {
+                expenseDate = dateText.contains("/") ? LocalDate.parse(dateText, SLASH_DATE) : LocalDate.parse(dateText);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("日期格式应为 yyyy-MM-dd 或 yyyy/M/d: " + dateText);
+            }
+        }
+
+        String remark = trimToNull(fields.get(ExpenseRowReader.REMARK));
+        if (remark != null && remark.length() > 500) {
+            throw new IllegalArgumentException("备注超过 500 个字符");
+        }
+
+        Budget budget = new Budget();
+        budget.setPlanId(planId);
+        budget.setCategory(category);
+        budget.setAmount(amount);
+        budget.setExpenseDate(expenseDate);
+        budget.setRemark(remark);
+        budget.setCreatedAt(now);
+        budget.setUpdatedAt(now);
+        return budget;
+    }
+
+    private void addError(BudgetImportResultDTO result, int line, String message) {
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new BudgetImportResultDTO.RowError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("budget.import.rows")
+                .description("批量导入的支出行数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
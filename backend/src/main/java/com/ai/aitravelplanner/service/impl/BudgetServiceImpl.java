@@ -1,35 +1,151 @@
 package com.ai.aitravelplanner.service.impl;
 
+import com.ai.aitravelplanner.cache.BudgetAnalysisCache;
+import com.ai.aitravelplanner.cache.ReadThroughCache;
+import com.ai.aitravelplanner.dto.BudgetSummaryDTO;
 import com.ai.aitravelplanner.entity.Budget;
+import com.ai.aitravelplanner.entity.BudgetRollup;
+import com.ai.aitravelplanner.entity.TravelPlan;
 import com.ai.aitravelplanner.mapper.BudgetMapper;
+import com.ai.aitravelplanner.mapper.TravelPlanMapper;
+import com.ai.aitravelplanner.service.BudgetRollupService;
 import com.ai.aitravelplanner.service.BudgetService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class BudgetServiceImpl implements BudgetService {
     @Autowired
     private BudgetMapper budgetMapper;
 
+    @Autowired
+    private TravelPlanMapper planMapper;
+
+    @Autowired
+    private BudgetAnalysisCache budgetAnalysisCache;
+
+    @Autowired
+    private ReadThroughCache<Long, List<Budget>> budgetListCache;
+
+    @Autowired
+    private BudgetRollupService budgetRollupService;
+
     @Override
+    @Transactional
     public boolean addBudget(Budget budget) {
         budget.setCreatedAt(LocalDateTime.now());
         budget.setUpdatedAt(LocalDateTime.now());
 
         int rows = budgetMapper.insert(budget);
+        if (rows > 0) {
+            budgetRollupService.apply(budget, 1);
+            budgetAnalysisCache.invalidate(budget.getPlanId());
+            budgetListCache.invalidate(budget.getPlanId());
+        }
         return rows > 0;
     }
 
     @Override
     public List<Budget> getBudgetByPlanId(Long planId) {
-        return budgetMapper.getByPlanId(planId);
+        return budgetListCache.get(planId, budgetMapper::getByPlanId);
     }
 
     @Override
+    @Transactional
     public boolean deleteBudget(Long id) {
-        return budgetMapper.deleteById(id) > 0;
+        Budget budget = budgetMapper.getById(id);
+        if (budget == null) {
+            return false;
+        }
+        Long planId = budget.getPlanId();
+        boolean deleted = budgetMapper.deleteById(id) > 0;
+        if (deleted) {
+            budgetRollupService.apply(budget, -1);
+            budgetAnalysisCache.invalidate(planId);
+            budgetListCache.invalidate(planId);
+        }
+        return deleted;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BudgetSummaryDTO getBudgetSummary(Long planId) {
+        TravelPlan plan = planMapper.selectById(planId);
+        if (plan == null) {
+            return null;
+        }
+
+        int expenseCount = 0;
+        BigDecimal totalSpent = BigDecimal.ZERO;
+        Map<String, BigDecimal> byCategory = new HashMap<>();
+        Map<LocalDate, BigDecimal> byDay = new TreeMap<>();
+        for (BudgetRollup row : budgetRollupService.load(planId)) {
+            switch (row.getDim()) {
+                case BudgetRollup.TOTAL -> {
+                    expenseCount = row.getExpenseCount();
+                    totalSpent = row.getAmount();
+                }
+                case BudgetRollup.CATEGORY -> byCategory.put(row.getDimKey(), row.getAmount());
+                case BudgetRollup.DAY -> byDay.put(LocalDate.parse(row.getDimKey()), row.getAmount());
+                default -> {
+                }
+            }
+        }
+
+        Map<String, BigDecimal> sortedCategories = new LinkedHashMap<>();
+        byCategory.entrySet().stream()
+                .sorted(Map.Entry.<String, BigDecimal>comparingByValue().reversed())
+                .forEach(e -> sortedCategories.put(e.getKey(), e.getValue()));
+
+        return buildSummary(plan, expenseCount, totalSpent, sortedCategories, byDay);
+    }
+
+    private BudgetSummaryDTO buildSummary(TravelPlan plan, int expenseCount, BigDecimal totalSpent,
+                                          Map<String, BigDecimal> byCategory, Map<LocalDate, BigDecimal> byDay) {
+        BigDecimal totalBudget = plan.getBudget() != null ? plan.getBudget() : BigDecimal.ZERO;
+        int planDays = plan.getDays() != null && plan.getDays() > 0 ? plan.getDays() : 1;
+
+        BudgetSummaryDTO summary = new BudgetSummaryDTO();
+        summary.setPlanId(plan.getId());
+        summary.setDestination(plan.getDestination());
+        summary.setPlanDays(planDays);
+        summary.setTotalBudget(totalBudget);
+        summary.setTotalSpent(totalSpent);
+        summary.setRemaining(totalBudget.subtract(totalSpent));
+        summary.setExpenseCount(expenseCount);
+        summary.setByCategory(byCategory);
+        summary.setByDay(byDay);
+
+        Map<LocalDate, BigDecimal> cumulativeByDay = new LinkedHashMap<>();
+        BigDecimal running = BigDecimal.ZERO;
+        for (Map.Entry<LocalDate, BigDecimal> day : byDay.entrySet()) {
+            running = running.add(day.getValue());
+            cumulativeByDay.put(day.getKey(), running);
+        }
+        summary.setCumulativeByDay(cumulativeByDay);
+        if (totalBudget.signum() > 0) {
+            summary.setBudgetUsedPercent(totalSpent.multiply(BigDecimal.valueOf(100))
+                    .divide(totalBudget, 1, RoundingMode.HALF_UP));
+        }
+
+        // 日均支出按有支出的天数计算，据此推算全程总支出
+        int activeDays = Math.max(1, byDay.size());
+        BigDecimal dailyBurn = totalSpent.divide(BigDecimal.valueOf(activeDays), 2, RoundingMode.HALF_UP);
+        BigDecimal projectedTotal = totalSpent.max(dailyBurn.multiply(BigDecimal.valueOf(planDays)));
+        summary.setDailyBurn(dailyBurn);
+        summary.setProjectedTotal(projectedTotal);
+        summary.setProjectedOverspend(projectedTotal.subtract(totalBudget).max(BigDecimal.ZERO));
+        return summary;
     }
 }
@@ -1,30 +1,103 @@
 package com.ai.aitravelplanner.service.impl;
 
+import com.ai.aitravelplanner.cache.PlanResponseCache;
+import com.ai.aitravelplanner.cache.ReadThroughCache;
+import com.ai.aitravelplanner.dto.PlanDayDTO;
+import com.ai.aitravelplanner.dto.PlanPageDTO;
 import com.ai.aitravelplanner.dto.PlanRequestDTO;
 import com.ai.aitravelplanner.dto.PlanResponse;
+import com.ai.aitravelplanner.dto.PlanSearchResultDTO;
+import com.ai.aitravelplanner.dto.PlanSummaryDTO;
 import com.ai.aitravelplanner.dto.SpotDTO;
 import com.ai.aitravelplanner.entity.TravelPlan;
 import com.ai.aitravelplanner.entity.TravelSpot;
 import com.ai.aitravelplanner.mapper.TravelPlanMapper;
 import com.ai.aitravelplanner.mapper.TravelSpotMapper;
+import com.ai.aitravelplanner.metrics.LlmMetrics;
+import com.ai.aitravelplanner.search.PlanSearchIndex;
+import com.ai.aitravelplanner.service.NearbyPrefetcher;
+import com.ai.aitravelplanner.service.ParallelPlanGenerator;
+import com.ai.aitravelplanner.service.PlanDataMigrator;
+import com.ai.aitravelplanner.service.PlanRouteOptimizer;
 import com.ai.aitravelplanner.service.PlanService;
 import com.ai.aitravelplanner.service.TravelPlanAiService;
+import com.ai.aitravelplanner.service.TravelPlanStreamAiService;
+import com.ai.aitravelplanner.util.PayloadCanonicalizer;
+import com.ai.aitravelplanner.util.PlanDataCodec;
+import com.ai.aitravelplanner.util.PlanDayStreamParser;
+import com.ai.aitravelplanner.util.SingleFlight;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 public class PlanServiceImpl implements PlanService {
 
+    private static final Logger log = LoggerFactory.getLogger(PlanServiceImpl.class);
+    // 单条多行 INSERT 的最大行数，避免超过 max_allowed_packet
+    private static final int SPOT_BATCH_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private TravelPlanAiService travelPlanAiService;
 
+    @Autowired
+    private TravelPlanStreamAiService travelPlanStreamAiService;
+
+    @Autowired
+    private PlanResponseCache planResponseCache;
+
+    @Autowired
+    private SingleFlight<String, PlanResponse> planSingleFlight;
+
+    @Autowired
+    private ParallelPlanGenerator parallelPlanGenerator;
+
+    @Autowired
+    private LlmMetrics llmMetrics;
+
+    @Autowired
+    private PlanRouteOptimizer planRouteOptimizer;
+
+    @Autowired
+    private NearbyPrefetcher nearbyPrefetcher;
+
+    @Autowired
+    private PlanSearchIndex planSearchIndex;
+
+    @Autowired
+    private PlanDataMigrator planDataMigrator;
+
+    @Autowired
+    private ReadThroughCache<Long, List<TravelPlan>> planListCache;
+
+    @Autowired
+    private ReadThroughCache<Long, List<TravelSpot>> spotListCache;
+
+    @Value("${plan.fan-out.enabled:false}")
+    private boolean fanOutEnabled;
+
+    @Value("${plan.fan-out.min-days:3}")
+    private int fanOutMinDays;
+
     @Autowired
     private TravelPlanMapper planMapper;
     @Autowired
@@ -33,125 +106,273 @@ public class PlanServiceImpl implements PlanService {
 
     @Override
     public PlanResponse generatePlan(Map<String, Object> payload) {
-        return travelPlanAiService.generatePlan(payload);
+        // fresh=true 时跳过缓存重新生成，新结果仍会写回缓存
+        boolean fresh = PayloadCanonicalizer.isFresh(payload);
+        Map<String, Object> request = PayloadCanonicalizer.withoutControlFlags(payload);
+        String cacheKey = planResponseCache.keyOf(request);
+        if (!fresh) {
+            PlanResponse cached = planResponseCache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // 相同参数的并发请求只调用一次模型
+        boolean fanOut = useFanOut(payload);
+        return planSingleFlight.execute(cacheKey, () -> {
+            PlanResponse response = fanOut ? parallelPlanGenerator.generate(request) : null;
+            if (response == null) {
+                response = travelPlanAiService.generatePlan(request);
+            }
+            // 按坐标重排每天的景点顺序，减少来回折返
+            planRouteOptimizer.optimize(response);
+            planResponseCache.put(cacheKey, response);
+            return response;
+        });
+    }
+
+    @Override
+    public void generatePlanStream(Map<String, Object> payload,
+                                   Consumer<PlanDayDTO> onDay,
+                                   Consumer<PlanResponse> onComplete,
+                                   Consumer<Throwable> onError) {
+        boolean fresh = PayloadCanonicalizer.isFresh(payload);
+        Map<String, Object> request = PayloadCanonicalizer.withoutControlFlags(payload);
+        String cacheKey = planResponseCache.keyOf(request);
+        if (!fresh) {
+            PlanResponse cached = planResponseCache.get(cacheKey);
+            if (cached != null) {
+                cached.getPlan().forEach(onDay);
+                onComplete.accept(cached);
+                return;
+            }
+        }
+
+        PlanDayStreamParser parser = new PlanDayStreamParser(day -> {
+            planRouteOptimizer.optimizeDay(day);
+            onDay.accept(day);
+        });
+        travelPlanStreamAiService.generatePlanStream(request)
+                .onPartialResponse(parser::append)
+                .onCompleteResponse(chatResponse -> {
+                    PlanResponse response;
+                    try {
+                        response = parser.finish();
+                    } catch (Exception e) {
+                        llmMetrics.recordParseFailure("TravelPlanStreamAiService", "generatePlanStream",
+                                chatResponse.modelName());
+                        onError.accept(e);
+                        return;
+                    }
+                    planResponseCache.put(cacheKey, response);
+                    onComplete.accept(response);
+                })
+                .onError(onError)
+                .start();
+    }
+
+    /**
+     * 多天行程按天并行生成：请求可用 fanOut 字段指定，否则按配置和天数决定
+     */
+    private boolean useFanOut(Map<String, Object> payload) {
+        Boolean requested = PayloadCanonicalizer.flagValue(payload, PayloadCanonicalizer.FAN_OUT_FLAG);
+        if (requested != null) {
+            return requested;
+        }
+        Integer days = PayloadCanonicalizer.resolveDays(payload);
+        return fanOutEnabled && days != null && days >= fanOutMinDays;
     }
 
+    /**
+     * 保存行程：plan_data 随主表一条语句写入，景点用一条多行 INSERT 批量写入，
+     * 不论行程多长都只有两条语句（景点超过 SPOT_BATCH_SIZE 时按批拆分）
+     */
     @Override
     @Transactional
     public Long savePlan(Long userId, PlanRequestDTO dto) {
+        long start = System.nanoTime();
+        TravelPlan plan = new TravelPlan();
+        plan.setUserId(userId);
+
+        // 灵活处理字段映射，支持直接传入的JSON格式
+        String title = dto.getPlanName();
+        if (title == null || title.isEmpty()) {
+            title = "未命名行程";
+        }
+        plan.setTitle(title);
+
+        // 设置目的地和人数
+        plan.setDestination(dto.getDestination());
+        plan.setPeople(dto.getPeople() != null ? dto.getPeople() : 1);
+        plan.setStartDate(dto.getStartDate());
+        plan.setEndDate(dto.getEndDate());
+
+        // 设置天数，如果为null则使用默认值
+        plan.setDays(dto.getDays() != null ? dto.getDays() : 1);
+        // 设置预算，从Double转换为BigDecimal
+        if (dto.getBudget() != null) {
+            plan.setBudget(BigDecimal.valueOf(dto.getBudget()));
+        }
+        plan.setPreferences(dto.getPreferences() != null ?
+            objectMapper.valueToTree(dto.getPreferences()).toString() : "[]");
+        // 完整的行程数据，编码后落库，序列化失败时不中断保存
         try {
-            System.out.println("开始保存行程，用户ID: " + userId);
-            
-            // 保存 plan 主表
-            TravelPlan plan = new TravelPlan();
-            plan.setUserId(userId);
-            
-            // 灵活处理字段映射，支持直接传入的JSON格式
-            String title = dto.getPlanName();
-            if (title == null || title.isEmpty()) {
-                title = "未命名行程";
-            }
-            plan.setTitle(title);
-            
-            // 设置目的地和人数
-            plan.setDestination(dto.getDestination());
-            plan.setPeople(dto.getPeople() != null ? dto.getPeople() : 1);
-            
-            // 设置开始日期和结束日期 - 添加详细日志调试
-            System.out.println("DTO中的startDate: " + dto.getStartDate());
-            System.out.println("DTO中的endDate: " + dto.getEndDate());
-            
-            if (dto.getStartDate() != null) {
-                plan.setStartDate(dto.getStartDate());
-                System.out.println("设置plan.startDate: " + plan.getStartDate());
-            } else {
-                System.out.println("DTO中的startDate为null，未设置到plan对象");
-            }
-            
-            if (dto.getEndDate() != null) {
-                plan.setEndDate(dto.getEndDate());
-                System.out.println("设置plan.endDate: " + plan.getEndDate());
-            } else {
-                System.out.println("DTO中的endDate为null，未设置到plan对象");
-            }
-            
-            // 设置天数，如果为null则使用默认值
-            plan.setDays(dto.getDays() != null ? dto.getDays() : 1);
-            // 设置预算，从Double转换为BigDecimal
-            if (dto.getBudget() != null) {
-                plan.setBudget(BigDecimal.valueOf(dto.getBudget()));
+            plan.setPlanDataBytes(PlanDataCodec.encode(objectMapper.writeValueAsString(dto.getPlan())));
+        } catch (Exception e) {
+            log.warn("行程数据序列化失败 userId={} 原因={}", userId, e.getMessage());
+        }
+        // 设置默认状态为1（有效/正常）
+        plan.setStatus(1);
+        LocalDateTime now = LocalDateTime.now();
+        plan.setCreatedAt(now);
+        plan.setUpdatedAt(now);
+        planMapper.insert(plan);
+        int statements = 1;
+
+        // 保存每一天的景点
+        List<TravelSpot> savedSpots = new ArrayList<>();
+        if (dto.getPlan() != null) {
+            for (PlanDayDTO dayPlan : dto.getPlan()) {
+                if (dayPlan.getSpots() == null) {
+                    continue;
+                }
+                int order = 1;
+                for (SpotDTO spotDTO : dayPlan.getSpots()) {
+                    TravelSpot spot = new TravelSpot();
+                    spot.setPlanId(plan.getId());
+                    spot.setDay(dayPlan.getDay());
+                    spot.setName(spotDTO.getName());
+                    spot.setLng(spotDTO.getLng());
+                    spot.setLat(spotDTO.getLat());
+                    spot.setType(spotDTO.getType());
+                    spot.setDescription(spotDTO.getDescription());
+                    spot.setOrderIndex(order++);
+                    spot.setCreatedAt(now);
+                    spot.setUpdatedAt(now);
+                    savedSpots.add(spot);
+                }
             }
-            plan.setPreferences(dto.getPreferences() != null ? 
-                objectMapper.valueToTree(dto.getPreferences()).toString() : "[]");
-            // 设置默认状态为1（有效/正常）
-            plan.setStatus(1);
-            plan.setCreatedAt(LocalDateTime.now());
-            plan.setUpdatedAt(LocalDateTime.now());
-
-            System.out.println("准备插入行程数据: " + plan);
-            int insertResult = planMapper.insert(plan);
-            System.out.println("行程插入结果: " + insertResult + ", 生成的planId: " + plan.getId());
-
-            // 保存每一天的景点
-            if (dto.getPlan() != null) {
-                System.out.println("开始保存景点数据，共 " + dto.getPlan().size() + " 天的行程");
-                dto.getPlan().forEach(dayPlan -> {
-                    int order = 1;
-                    for (SpotDTO spotDTO : dayPlan.getSpots()) {
-                        TravelSpot spot = new TravelSpot();
-                        spot.setPlanId(plan.getId());
-                        spot.setDay(dayPlan.getDay());
-                        spot.setName(spotDTO.getName());
-                        spot.setLng(spotDTO.getLng());
-                        spot.setLat(spotDTO.getLat());
-                        spot.setType(spotDTO.getType());
-                        spot.setDescription(spotDTO.getDescription());
-                        spot.setOrderIndex(order++);
-                        spot.setCreatedAt(LocalDateTime.now());
-                        spot.setUpdatedAt(LocalDateTime.now());
-                        spotMapper.insert(spot);
-                        System.out.println("保存景点成功: " + spot.getName());
-                    }
-                });
-                System.out.println("所有景点保存完成");
+        }
+        for (int i = 0; i < savedSpots.size(); i += SPOT_BATCH_SIZE) {
+            spotMapper.insertBatch(savedSpots.subList(i, Math.min(i + SPOT_BATCH_SIZE, savedSpots.size())));
+            statements++;
+        }
+        // 提交后在后台预取各景点的周边餐饮、住宿、交通
+        nearbyPrefetcher.prefetchAfterCommit(savedSpots);
+        // 提交后加入搜索索引，回滚时不加入
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                planSearchIndex.onSaved(plan);
             }
-            
-            // 设置planData字段，存储完整的行程数据JSON
+        });
+        // 提交后失效该用户的行程列表和新行程的景点列表
+        planListCache.invalidate(userId);
+        spotListCache.invalidate(plan.getId());
+
+        log.debug("行程已保存 planId={} userId={} days={} spots={} statements={} elapsedMs={}",
+                plan.getId(), userId, dto.getPlan() != null ? dto.getPlan().size() : 0, savedSpots.size(),
+                statements, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return plan.getId(); // 返回生成的行程ID
+    }
+
+    @Override
+    public List<TravelPlan> getPlansByUserId(Long userId) {
+        return planListCache.get(userId, this::loadPlans);
+    }
+
+    private List<TravelPlan> loadPlans(Long userId) {
+        List<TravelPlan> plans = planMapper.selectByUserId(userId);
+        for (TravelPlan plan : plans) {
             try {
-                String planDataJson = objectMapper.writeValueAsString(dto.getPlan());
-                plan.setPlanData(planDataJson);
-                // 更新plan_data字段
-                planMapper.updatePlanData(plan.getId(), planDataJson);
-                System.out.println("行程数据planData已保存");
-            } catch (Exception e) {
-                System.err.println("保存planData失败: " + e.getMessage());
-                // 不中断主流程，只记录日志
+                plan.setPlanData(planDataMigrator.decode(plan.getId(), plan.getPlanDataBytes()));
+            } catch (RuntimeException e) {
+                // 单个行程数据损坏不影响整个列表，前端按无行程数据展示
+                log.warn("行程数据解码失败 planId={} 原因={}", plan.getId(), e.getMessage());
             }
-            
-            return plan.getId(); // 返回生成的行程ID
-        } catch (Exception e) {
-            System.err.println("保存行程失败: " + e.getMessage());
-            e.printStackTrace();
-            throw e; // 重新抛出异常，确保事务回滚
+            plan.setPlanDataBytes(null);
         }
+        return plans;
     }
 
     @Override
-    public List<TravelPlan> getPlansByUserId(Long userId) {
-        return planMapper.selectByUserId(userId);
+    public PlanPageDTO getPlanSummaries(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+        // 多取一条判断是否还有下一页
+        List<PlanSummaryDTO> rows = planMapper.selectSummariesByUserId(userId,
+                after != null ? after.createdAt() : null, after != null ? after.id() : null, pageSize + 1);
+
+        PlanPageDTO page = new PlanPageDTO();
+        page.setHasMore(rows.size() > pageSize);
+        page.setItems(page.isHasMore() ? new ArrayList<>(rows.subList(0, pageSize)) : rows);
+        if (page.isHasMore()) {
+            PlanSummaryDTO last = page.getItems().get(pageSize - 1);
+            page.setNextCursor(encodeCursor(last.getCreatedAt(), last.getId()));
+        }
+        return page;
+    }
+
+    @Override
+    public List<PlanDayDTO> getPlanDays(Long planId) {
+        TravelPlan row = planMapper.selectPlanDataById(planId);
+        byte[] data = row != null ? row.getPlanDataBytes() : null;
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            String planData = planDataMigrator.decode(planId, data);
+            if (planData.isBlank()) {
+                return null;
+            }
+            return objectMapper.readValue(planData, new TypeReference<List<PlanDayDTO>>() {
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException("行程数据解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 游标为 "创建时间|id" 的 Base64URL 编码，对客户端不透明
+     */
+    private static String encodeCursor(LocalDateTime createdAt, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PageCursor decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new PageCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    private record PageCursor(LocalDateTime createdAt, Long id) {
     }
 
     @Override
-    public List<TravelPlan> searchPlans(Long userId, String planName, String preferences, Double budgetMin, Double budgetMax) {
-        return planMapper.searchPlans(userId, planName, preferences, budgetMin, budgetMax);
+    public PlanSearchResultDTO searchPlans(Long userId, String planName, String preferences, Double budgetMin, Double budgetMax) {
+        List<String> tags = preferences != null ? Arrays.asList(preferences.split(",")) : List.of();
+        return planSearchIndex.search(userId, planName, tags,
+                budgetMin != null ? BigDecimal.valueOf(budgetMin) : null,
+                budgetMax != null ? BigDecimal.valueOf(budgetMax) : null);
     }
 
     @Override
     public void deletePlanWithSpots(Long planId) {
+        Long userId = planMapper.selectUserIdById(planId);
         // 1. 删除关联的景点
         spotMapper.deleteByPlanId(planId);
 
         // 2. 删除行程
         planMapper.deleteById(planId);
+
+        // 3. 失效缓存、移出搜索索引
+        spotListCache.invalidate(planId);
+        if (userId != null) {
+            planListCache.invalidate(userId);
+            planSearchIndex.onDeleted(userId, planId);
+        }
     }
 }
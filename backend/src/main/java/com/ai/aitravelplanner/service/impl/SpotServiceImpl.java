@@ -1,5 +1,6 @@
 package com.ai.aitravelplanner.service.impl;
 
+import com.ai.aitravelplanner.cache.ReadThroughCache;
 import com.ai.aitravelplanner.entity.TravelSpot;
 import com.ai.aitravelplanner.mapper.TravelSpotMapper;
 import com.ai.aitravelplanner.service.SpotService;
@@ -13,8 +14,17 @@ public class SpotServiceImpl implements SpotService {
 
     @Autowired
     private TravelSpotMapper spotMapper;
+
+    @Autowired
+    private ReadThroughCache<Long, List<TravelSpot>> spotListCache;
+
     @Override
     public List<TravelSpot> getSpotsByPlanId(Long planId) {
-        return spotMapper.selectByPlanId(planId);
+        return spotListCache.get(planId, spotMapper::selectByPlanId);
+    }
+
+    @Override
+    public List<TravelSpot> getSpotsByPlanIdAndDay(Long planId, Integer day) {
+        return spotMapper.selectByPlanIdAndDay(planId, day);
     }
 }
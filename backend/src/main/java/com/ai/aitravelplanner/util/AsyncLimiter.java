@@ -0,0 +1,100 @@
+package com.ai.aitravelplanner.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 异步调用并发上限
+ * 超过上限的调用排队等待前面的调用完成后再发出，不占用线程；排队也满时直接拒绝。
+ * 排队的调用在释放名额的线程上发出；调用同步完成时不递归，而是在同一线程上逐个循环发出，避免排队很长时栈溢出。
+ */
+public class AsyncLimiter {
+
+    // 当前线程正在发出排队调用时，释放名额产生的新调用追加到这里，由外层循环继续发出
+    private static final ThreadLocal<Deque<Runnable>> DRAINING = new ThreadLocal<>();
+
+    private final int maxActive;
+    private final int maxPending;
+    private final Deque<Runnable> pending = new ArrayDeque<>();
+    private int active;
+
+    public AsyncLimiter(int maxActive, int maxPending) {
+        this.maxActive = maxActive;
+        this.maxPending = maxPending;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        synchronized (this) {
+            if (active >= maxActive) {
+                if (pending.size() >= maxPending) {
+                    return CompletableFuture.failedFuture(new RejectedExecutionException("等待中的请求过多"));
+                }
+                pending.addLast(start);
+                return result;
+            }
+            active++;
+        }
+        start.run();
+        return result;
+    }
+
+    public synchronized int getActive() {
+        return active;
+    }
+
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = pending.pollFirst();
+            if (next == null) {
+                active--;
+            }
+        }
+        // 名额直接转给排队中的下一个调用
+        if (next != null) {
+            runQueued(next);
+        }
+    }
+
+    private static void runQueued(Runnable task) {
+        Deque<Runnable> draining = DRAINING.get();
+        if (draining != null) {
+            draining.addLast(task);
+            return;
+        }
+        draining = new ArrayDeque<>();
+        DRAINING.set(draining);
+        try {
+            for (Runnable next = task; next != null; next = draining.pollFirst()) {
+                next.run();
+            }
+        } finally {
+            DRAINING.remove();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.ai.aitravelplanner.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 支出导入文件的逐行读取器，支持 CSV 和 NDJSON
+ * 每次只读取一条记录，内存占用与文件大小无关；单条记录超过长度上限时跳过该记录并返回错误，不影响后续记录。
+ * CSV：首行为表头，按 RFC 4180 处理引号（引号内可含逗号和换行）；表头支持中英文列名。
+ * NDJSON：每行一个 JSON 对象，字段与 /api/budget/add 相同；空行忽略。
+ * 字段统一转为 category、amount、expense_date、remark 四个键，值为原始文本，由调用方校验。
+ */
+public class ExpenseRowReader implements Closeable {
+
+    public static final String CATEGORY = "category";
+    public static final String AMOUNT = "amount";
+    public static final String EXPENSE_DATE = "expense_date";
+    public static final String REMARK = "remark";
+
+    private static final Map<String, String> COLUMN_ALIASES = Map.ofEntries(
+            Map.entry("category", CATEGORY), Map.entry("类别", CATEGORY),
+            Map.entry("amount", AMOUNT), Map.entry("金额", AMOUNT),
+            Map.entry("expense_date", EXPENSE_DATE), Map.entry("expensedate", EXPENSE_DATE),
+            Map.entry("date", EXPENSE_DATE), Map.entry("日期", EXPENSE_DATE),
+            Map.entry("remark", REMARK), Map.entry("备注", REMARK));
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 一条记录；error 不为 null 时 fields 为空
+     */
+    public record Row(int line, Map<String, String> fields, String error) {
+    }
+
+    private final Reader reader;
+    private final boolean csv;
+    private final int maxRowChars;
+    // 各列对应的字段键，未识别的列为 null
+    private String[] columns;
+    private int nextLine = 1;
+    private int pushback = -2;
+    private boolean started;
+    private boolean eof;
+
+    private ExpenseRowReader(Reader reader, boolean csv, int maxRowChars) {
+        this.reader = reader;
+        this.csv = csv;
+        this.maxRowChars = maxRowChars;
+    }
+
+    public static ExpenseRowReader csv(Reader reader, int maxRowChars) {
+        return new ExpenseRowReader(reader, true, maxRowChars);
+    }
+
+    public static ExpenseRowReader ndjson(Reader reader, int maxRowChars) {
+        return new ExpenseRowReader(reader, false, maxRowChars);
+    }
+
+    /**
+     * @return 下一条记录，文件结束返回 null
+     * @throws IllegalArgumentException CSV 表头缺少必需的列
+     */
+    public Row next() throws IOException {
+        while (true) {
+            int line = nextLine;
+            List<String> values = new ArrayList<>();
+            boolean tooLong = csv ? readCsvRecord(values) : readLine(values);
+            if (values.isEmpty() && !tooLong) {
+                if (eof) {
+                    return null;
+                }
+                continue;
+            }
+            if (csv && columns == null) {
+                readHeader(values);
+                continue;
+            }
+            if (tooLong) {
+                return new Row(line, Map.of(), "超过单行长度上限 " + maxRowChars + " 字符");
+            }
+            return csv ? csvRow(line, values) : jsonRow(line, values.get(0));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader(List<String> values) {
+        columns = new String[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            String name = values.get(i).trim().toLowerCase(Locale.ROOT);
+            columns[i] = COLUMN_ALIASES.get(name);
+        }
+        List<String> known = Arrays.asList(columns);
+        if (!known.contains(CATEGORY) || !known.contains(AMOUNT)) {
+            throw new IllegalArgumentException("CSV 表头须包含 category（类别）和 amount（金额）列");
+        }
+    }
+
+    private Row csvRow(int line, List<String> values) {
+        if (values.size() > columns.length) {
+            return new Row(line, Map.of(), "列数多于表头");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (columns[i] != null) {
+                fields.put(columns[i], values.get(i));
+            }
+        }
+        return new Row(line, fields, null);
+    }
+
+    private Row jsonRow(int line, String text) {
+        JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(text);
+        } catch (JsonProcessingException e) {
+            return new Row(line, Map.of(), "JSON 格式错误: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            return new Row(line, Map.of(), "每行须为一个 JSON 对象");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            String key = COLUMN_ALIASES.get(field.getKey().toLowerCase(Locale.ROOT));
+            if (key != null && !field.getValue().isNull()) {
+                fields.put(key, field.getValue().asText());
+            }
+        }
+        return new Row(line, fields, null);
+    }
+
+    /**
+     * 读取一行作为单个值，空白行不产生值
+     * @return 是否超长
+     */
+    private boolean readLine(List<String> values) throws IOException {
+        StringBuilder value = new StringBuilder();
+        boolean tooLong = false;
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            if (c == '\r') {
+                continue;
+            }
+            if (value.length() < maxRowChars) {
+                value.append((char) c);
+            } else {
+                tooLong = true;
+            }
+        }
+        nextLine++;
+        if (!tooLong && !value.toString().isBlank()) {
+            values.add(value.toString());
+        }
+        return tooLong;
+    }
+
+    /**
+     * 读取一条 CSV 记录，空行不产生值
+     * @return 是否超长
+     */
+    private boolean readCsvRecord(List<String> values) throws IOException {
+        StringBuilder value = new StringBuilder();
+        int chars = 0;
+        boolean tooLong = false;
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                        unread(n);
+                    }
+                    continue;
+                }
+                if (c == '\n') {
+                    nextLine++;
+                }
+            } else if (c == '"' && value.isEmpty()) {
+                quoted = true;
+                any = true;
+                continue;
+            } else if (c == ',') {
+                if (++chars > maxRowChars) {
+                    tooLong = true;
+                } else {
+                    values.add(value.toString());
+                }
+                value.setLength(0);
+                any = true;
+                continue;
+            } else if (c == '\r') {
+                continue;
+            } else if (c == '\n') {
+                break;
+            }
+            if (++chars > maxRowChars) {
+                tooLong = true;
+            } else {
+                value.append((char) c);
+            }
+            any = true;
+        }
+        nextLine++;
+        if (tooLong) {
+            values.clear();
+        } else if (any) {
+            values.add(value.toString());
+        }
+        return tooLong;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        int c = reader.read();
+        if (!started) {
+            started = true;
+            // 跳过表格软件导出时写入的 UTF-8 BOM
+            if (c == '\uFEFF') {
+                c = reader.read();
+            }
+        }
+        if (c == -1) {
+            eof = true;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+}
@@ -0,0 +1,152 @@
+package com.ai.aitravelplanner.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 地理计算工具：geohash 编解码、球面距离
+ */
+public final class GeoUtils {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * @param precision geohash 长度，5 约 4.9km×4.9km，6 约 1.2km×0.6km，7 约 153m×153m
+     */
+    public static String geohash(double lng, double lat, int precision) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (lng >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * geohash 对应的矩形范围
+     * @return {minLng, minLat, maxLng, maxLat}
+     */
+    public static double[] bounds(String geohash) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        boolean evenBit = true;
+        for (int i = 0; i < geohash.length(); i++) {
+            int value = BASE32.indexOf(geohash.charAt(i));
+            if (value < 0) {
+                throw new IllegalArgumentException("非法的 geohash: " + geohash);
+            }
+            for (int mask = 16; mask > 0; mask >>= 1) {
+                boolean set = (value & mask) != 0;
+                if (evenBit) {
+                    double mid = (minLng + maxLng) / 2;
+                    if (set) {
+                        minLng = mid;
+                    } else {
+                        maxLng = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[]{minLng, minLat, maxLng, maxLat};
+    }
+
+    /**
+     * 以某点为圆心、radiusMeters 为半径的圆的外接矩形所覆盖的全部 geohash 网格，圆心所在网格排在第一个
+     */
+    public static Set<String> geohashesAround(double lng, double lat, double radiusMeters, int precision) {
+        String center = geohash(lng, lat, precision);
+        double[] tile = bounds(center);
+        double tileWidth = tile[2] - tile[0];
+        double tileHeight = tile[3] - tile[1];
+        double latDelta = radiusMeters / METERS_PER_DEGREE;
+        double lngDelta = radiusMeters / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+
+        Set<String> geohashes = new LinkedHashSet<>();
+        geohashes.add(center);
+        // 按网格边长步进，最后一步落在矩形边上，保证边缘的网格也被取到
+        for (double y = lat - latDelta; ; y += tileHeight) {
+            double rowLat = Math.min(y, lat + latDelta);
+            for (double x = lng - lngDelta; ; x += tileWidth) {
+                double colLng = Math.min(x, lng + lngDelta);
+                geohashes.add(geohash(colLng, rowLat, precision));
+                if (colLng >= lng + lngDelta) {
+                    break;
+                }
+            }
+            if (rowLat >= lat + latDelta) {
+                break;
+            }
+        }
+        return geohashes;
+    }
+
+    /**
+     * 点到网格中心的距离（米）
+     */
+    public static double distanceFromCenterMeters(String geohash, double lng, double lat) {
+        double[] bounds = bounds(geohash);
+        return distanceMeters((bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2, lng, lat);
+    }
+
+    /**
+     * 网格中心到最远角的距离（米）；靠近赤道一侧的角更远
+     */
+    public static double halfDiagonalMeters(String geohash) {
+        double[] bounds = bounds(geohash);
+        double centerLng = (bounds[0] + bounds[2]) / 2;
+        double centerLat = (bounds[1] + bounds[3]) / 2;
+        return Math.max(distanceMeters(centerLng, centerLat, bounds[2], bounds[3]),
+                distanceMeters(centerLng, centerLat, bounds[2], bounds[1]));
+    }
+
+    /**
+     * 两点间球面距离（米）
+     */
+    public static double distanceMeters(double lng1, double lat1, double lng2, double lat2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,195 @@
+package com.ai.aitravelplanner.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 请求参数规范化工具
+ * 将前端传来的 Map 参数转换为稳定的字符串 key：字段排序、文本归一化、偏好排序去重、预算分档，
+ * 使"几乎相同"的请求得到同一个 key，用于缓存和请求合并。
+ */
+public final class PayloadCanonicalizer {
+
+    /** 跳过缓存，重新生成 */
+    public static final String FRESH_FLAG = "fresh";
+    /** 按天并行生成 */
+    public static final String FAN_OUT_FLAG = "fanOut";
+
+    /** 只影响处理方式、不传给模型也不参与 key 计算的控制字段 */
+    public static final Set<String> CONTROL_FLAGS = Set.of(FRESH_FLAG, FAN_OUT_FLAG);
+
+    // 由其它字段推导或与生成结果无关的字段
+    private static final Set<String> PLAN_IGNORED_KEYS = Set.of("title", "planName", "startDate", "endDate", "userId");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private PayloadCanonicalizer() {
+    }
+
+    /**
+     * 生成行程请求的规范化 key
+     * @param payload 原始请求参数
+     * @param budgetBucket 预算分档宽度，小于等于 0 时不分档
+     */
+    public static String planKey(Map<String, Object> payload, int budgetBucket) {
+        Map<String, Object> canonical = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : payload.entrySet()) {
+            if (entry.getValue() == null || CONTROL_FLAGS.contains(entry.getKey())
+                    || PLAN_IGNORED_KEYS.contains(entry.getKey())) {
+                continue;
+            }
+            canonical.put(entry.getKey(), canonicalValue(entry.getValue()));
+        }
+        canonical.put("destination", normalizeText(payload.get("destination")));
+        Integer days = resolveDays(payload);
+        if (days != null) {
+            canonical.put("days", days);
+        }
+        Integer people = toInteger(payload.get("people"));
+        canonical.put("people", people != null ? people : 1);
+        Double budget = toDouble(payload.get("budget"));
+        if (budget != null) {
+            canonical.put("budget", budgetBucket > 0 ? (long) Math.floor(budget / budgetBucket) : budget);
+        }
+        return write(canonical);
+    }
+
+    /**
+     * 通用规范化 key：字段排序、文本归一化、列表排序去重，不做业务推导
+     */
+    public static String genericKey(Map<String, Object> payload) {
+        Map<String, Object> canonical = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : payload.entrySet()) {
+            if (entry.getValue() == null || CONTROL_FLAGS.contains(entry.getKey())) {
+                continue;
+            }
+            canonical.put(entry.getKey(), canonicalValue(entry.getValue()));
+        }
+        return write(canonical);
+    }
+
+    /**
+     * 请求是否要求跳过缓存（"fresh": true）
+     */
+    public static boolean isFresh(Map<String, Object> payload) {
+        return flagValue(payload, FRESH_FLAG) == Boolean.TRUE;
+    }
+
+    /**
+     * 读取布尔控制字段，未传时返回 null
+     */
+    public static Boolean flagValue(Map<String, Object> payload, String flag) {
+        Object value = payload.get(flag);
+        return value != null ? Boolean.parseBoolean(value.toString()) : null;
+    }
+
+    /**
+     * 去掉控制字段后的请求参数，用于传给模型
+     */
+    public static Map<String, Object> withoutControlFlags(Map<String, Object> payload) {
+        Map<String, Object> request = new HashMap<>(payload);
+        CONTROL_FLAGS.forEach(request::remove);
+        return request;
+    }
+
+    /**
+     * 请求的天数：优先取 days 字段，否则由开始、结束日期推算
+     */
+    public static Integer resolveDays(Map<String, Object> payload) {
+        Integer days = toInteger(payload.get("days"));
+        if (days != null) {
+            return days;
+        }
+        Object start = payload.get("startDate");
+        Object end = payload.get("endDate");
+        if (start == null || end == null) {
+            return null;
+        }
+        try {
+            LocalDate startDate = LocalDate.parse(start.toString().substring(0, 10));
+            LocalDate endDate = LocalDate.parse(end.toString().substring(0, 10));
+            return (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 文本归一化：全角转半角、去除空白、统一小写
+     */
+    public static String normalizeText(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = Normalizer.normalize(value.toString(), Normalizer.Form.NFKC);
+        return text.replaceAll("\\s+", "").toLowerCase();
+    }
+
+    private static Object canonicalValue(Object value) {
+        if (value instanceof String) {
+            return normalizeText(value);
+        }
+        if (value instanceof Collection<?> collection) {
+            // 偏好等列表与顺序无关：归一化后排序去重
+            TreeSet<String> sorted = new TreeSet<>();
+            for (Object item : collection) {
+                if (item != null) {
+                    String text = item instanceof Map || item instanceof Collection ? write(canonicalValue(item)) : normalizeText(item);
+                    if (!text.isEmpty()) {
+                        sorted.add(text);
+                    }
+                }
+            }
+            return sorted;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> nested = new TreeMap<>();
+            map.forEach((k, v) -> {
+                if (v != null) {
+                    nested.put(String.valueOf(k), canonicalValue(v));
+                }
+            });
+            return nested;
+        }
+        return value;
+    }
+
+    private static Integer toInteger(Object value) {
+        Double number = toDouble(value);
+        return number != null ? number.intValue() : null;
+    }
+
+    private static Double toDouble(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return Double.parseDouble(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String write(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("请求参数无法规范化: " + e.getMessage(), e);
+        }
+    }
+}
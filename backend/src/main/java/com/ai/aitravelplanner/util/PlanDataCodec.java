@@ -0,0 +1,91 @@
+package com.ai.aitravelplanner.util;
+
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * plan.plan_data 列的编码：对外仍是 JSON 字符串，落库为带格式版本号的 LZ4 压缩块
+ * 格式：首字节为格式版本，之后是原文 UTF-8 字节数（varint）和 LZ4 压缩块。
+ * 行程 JSON 中每个景点都重复同样的字段名和相近的坐标，LZ4 压缩后约为原来的 1/8，解压只需几微秒；
+ * 接口直接返回 JSON 字符串，解码时不需要解析和重新生成 JSON。
+ * 旧数据为 UTF-8 JSON 文本，首字节不可能是版本号，解码时按原文返回。
+ */
+public final class PlanDataCodec {
+
+    /** UTF-8 JSON + LZ4 */
+    public static final byte FORMAT_JSON_LZ4 = 1;
+
+    private static final ThreadLocal<Lz4Compressor> COMPRESSOR = ThreadLocal.withInitial(Lz4Compressor::new);
+    private static final Lz4Decompressor DECOMPRESSOR = new Lz4Decompressor();
+    private static final int MAX_DECODED_BYTES = 64 * 1024 * 1024;
+
+    private PlanDataCodec() {
+    }
+
+    public static byte[] encode(String json) {
+        if (json == null) {
+            return null;
+        }
+        byte[] raw = json.getBytes(StandardCharsets.UTF_8);
+        Lz4Compressor compressor = COMPRESSOR.get();
+        byte[] out = new byte[1 + 5 + compressor.maxCompressedLength(raw.length)];
+        out[0] = FORMAT_JSON_LZ4;
+        int offset = 1;
+        int length = raw.length;
+        while ((length & ~0x7F) != 0) {
+            out[offset++] = (byte) ((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        out[offset++] = (byte) length;
+        int compressed = compressor.compress(raw, 0, raw.length, out, offset, out.length - offset);
+        return Arrays.copyOf(out, offset + compressed);
+    }
+
+    /**
+     * @throws IllegalArgumentException 数据已损坏
+     */
+    public static String decode(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (isLegacy(data)) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        int offset = 1;
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (offset >= data.length || shift > 28) {
+                throw new IllegalArgumentException("行程数据已损坏，长度字段无效");
+            }
+            int b = data[offset++] & 0xFF;
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length < 0 || length > MAX_DECODED_BYTES) {
+            throw new IllegalArgumentException("行程数据长度异常: " + length);
+        }
+        byte[] raw = new byte[length];
+        int decompressed;
+        try {
+            decompressed = DECOMPRESSOR.decompress(data, offset, data.length - offset, raw, 0, length);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("行程数据已损坏: " + e.getMessage(), e);
+        }
+        if (decompressed != length) {
+            throw new IllegalArgumentException("行程数据已损坏，解压后长度不符");
+        }
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 旧格式（JSON 文本）的首字节是 [、{、n（null）或空白等可见字符，不会与格式版本号冲突
+     */
+    public static boolean isLegacy(byte[] data) {
+        return data.length == 0 || data[0] != FORMAT_JSON_LZ4;
+    }
+}
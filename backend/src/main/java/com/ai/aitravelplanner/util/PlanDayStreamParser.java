@@ -0,0 +1,205 @@
+package com.ai.aitravelplanner.util;
+
+import com.ai.aitravelplanner.dto.PlanDayDTO;
+import com.ai.aitravelplanner.dto.PlanResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 行程 JSON 增量解析器
+ * 逐段接收模型输出，"plan" 数组中每个单天对象一旦闭合就立即解析并回调，
+ * 不必等待整份 JSON 生成完毕。也兼容模型直接输出数组、或在 JSON 外包裹 ``` 代码块的情况。
+ */
+public class PlanDayStreamParser {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Consumer<PlanDayDTO> onDay;
+    private final StringBuilder buffer = new StringBuilder();
+    private final List<PlanDayDTO> days = new ArrayList<>();
+
+    // 当前嵌套结构，'{' 或 '['
+    private final StringBuilder stack = new StringBuilder();
+    private int scanIndex = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+    // 根对象中当前字段的起始位置，用于判断数组是否为 "plan"
+    private int rootKeyStart = -1;
+    private boolean inPlanArray = false;
+    private int dayStart = -1;
+    // 增量解析中出现过失败，结束时改为整体解析
+    private boolean dayParseFailed = false;
+
+    public PlanDayStreamParser(Consumer<PlanDayDTO> onDay) {
+        this.onDay = onDay;
+    }
+
+    /**
+     * 追加一段模型输出，解析出的完整单天行程会同步回调
+     */
+    public void append(String chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        buffer.append(chunk);
+        for (; scanIndex < buffer.length(); scanIndex++) {
+            scan(buffer.charAt(scanIndex), scanIndex);
+        }
+    }
+
+    private void scan(char c, int index) {
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+            }
+            return;
+        }
+        // 根结构开始之前的内容（如 ```json）直接跳过
+        if (stack.length() == 0 && c != '{' && c != '[') {
+            return;
+        }
+        switch (c) {
+            case '"':
+                inString = true;
+                break;
+            case '{':
+                if (inPlanArray && stack.length() == planArrayDepth()) {
+                    dayStart = index;
+                }
+                stack.append(c);
+                if (stack.length() == 1) {
+                    rootKeyStart = index + 1;
+                }
+                break;
+            case '[':
+                if (stack.length() == 0) {
+                    // 模型直接输出了数组
+                    inPlanArray = true;
+                } else if (stack.length() == 1 && stack.charAt(0) == '{'
+                        && buffer.substring(rootKeyStart, index).contains("\"plan\"")) {
+                    inPlanArray = true;
+                }
+                stack.append(c);
+                break;
+            case '}':
+            case ']':
+                if (stack.length() > 0) {
+                    stack.setLength(stack.length() - 1);
+                }
+                if (c == '}' && dayStart >= 0 && stack.length() == planArrayDepth()) {
+                    emitDay(buffer.substring(dayStart, index + 1));
+                    dayStart = -1;
+                } else if (c == ']' && inPlanArray && stack.length() == planArrayDepth() - 1) {
+                    inPlanArray = false;
+                }
+                break;
+            case ',':
+                if (stack.length() == 1) {
+                    rootKeyStart = index + 1;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 单天对象所在数组的嵌套深度：根为数组时为 1，否则为 2
+     */
+    private int planArrayDepth() {
+        return stack.length() > 0 && stack.charAt(0) == '[' ? 1 : 2;
+    }
+
+    private void emitDay(String json) {
+        if (dayParseFailed) {
+            return;
+        }
+        PlanDayDTO day;
+        try {
+            day = OBJECT_MAPPER.readValue(json, PlanDayDTO.class);
+        } catch (Exception e) {
+            dayParseFailed = true;
+            return;
+        }
+        if (day.getDay() == null) {
+            day.setDay(days.size() + 1);
+        }
+        days.add(day);
+        onDay.accept(day);
+    }
+
+    /**
+     * 模型输出结束后调用，返回汇总后的完整行程
+     * 若增量过程中没有解析出任何一天或有单天解析失败，则尝试整体解析一次（根为对象或数组均可），
+     * 整体解析出的单天中尚未回调过的补充回调，已回调过的沿用当时的对象，不会重复推送
+     */
+    public PlanResponse finish() {
+        PlanResponse response = new PlanResponse();
+        if (!days.isEmpty() && !dayParseFailed) {
+            response.setPlan(new ArrayList<>(days));
+            return response;
+        }
+        response = parseWhole(buffer.toString());
+        if (response.getPlan() == null) {
+            response.setPlan(new ArrayList<>());
+        }
+        Map<Integer, PlanDayDTO> emitted = new HashMap<>();
+        for (PlanDayDTO day : days) {
+            emitted.put(day.getDay(), day);
+        }
+        List<PlanDayDTO> merged = new ArrayList<>();
+        for (PlanDayDTO day : response.getPlan()) {
+            if (day.getDay() == null) {
+                day.setDay(merged.size() + 1);
+            }
+            PlanDayDTO previous = emitted.get(day.getDay());
+            if (previous != null) {
+                merged.add(previous);
+            } else {
+                days.add(day);
+                onDay.accept(day);
+                merged.add(day);
+            }
+        }
+        response.setPlan(merged);
+        return response;
+    }
+
+    private static PlanResponse parseWhole(String text) {
+        int objectStart = text.indexOf('{');
+        int arrayStart = text.indexOf('[');
+        boolean rootArray = arrayStart >= 0 && (objectStart < 0 || arrayStart < objectStart);
+        int start = rootArray ? arrayStart : objectStart;
+        int end = rootArray ? text.lastIndexOf(']') : text.lastIndexOf('}');
+        if (start < 0 || end <= start) {
+            throw new IllegalStateException("模型未返回有效的行程 JSON");
+        }
+        String json = text.substring(start, end + 1);
+        try {
+            if (rootArray) {
+                PlanResponse response = new PlanResponse();
+                response.setPlan(OBJECT_MAPPER.readValue(json, new TypeReference<List<PlanDayDTO>>() { }));
+                return response;
+            }
+            return OBJECT_MAPPER.readValue(json, PlanResponse.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("解析行程 JSON 失败: " + e.getMessage(), e);
+        }
+    }
+
+    public List<PlanDayDTO> getDays() {
+        return days;
+    }
+}
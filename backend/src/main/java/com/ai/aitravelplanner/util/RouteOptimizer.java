@@ -0,0 +1,119 @@
+package com.ai.aitravelplanner.util;
+
+/**
+ * 单日路线排序（开放路径，不回到起点）
+ * 先按球面距离建距离矩阵，用最近邻法得到初始顺序（未固定起点时每个点都试一次作起点），
+ * 再用 2-opt 反转区间直到不再变短。一天的景点通常不超过十几个，耗时在微秒级。
+ */
+public final class RouteOptimizer {
+
+    private RouteOptimizer() {
+    }
+
+    /**
+     * @param lngs       各点经度
+     * @param lats       各点纬度
+     * @param fixedStart 固定的起点下标，-1 表示不固定
+     * @return 访问顺序（原下标）
+     */
+    public static int[] order(double[] lngs, double[] lats, int fixedStart) {
+        int n = lngs.length;
+        if (n <= 2 && fixedStart <= 0) {
+            int[] identity = new int[n];
+            for (int i = 0; i < n; i++) {
+                identity[i] = i;
+            }
+            return identity;
+        }
+
+        double[][] distances = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double d = GeoUtils.distanceMeters(lngs[i], lats[i], lngs[j], lats[j]);
+                distances[i][j] = d;
+                distances[j][i] = d;
+            }
+        }
+
+        int[] best = null;
+        double bestLength = Double.MAX_VALUE;
+        int from = fixedStart >= 0 ? fixedStart : 0;
+        int to = fixedStart >= 0 ? fixedStart : n - 1;
+        for (int start = from; start <= to; start++) {
+            int[] route = nearestNeighbour(distances, start);
+            twoOpt(route, distances, fixedStart >= 0);
+            double length = length(route, distances);
+            if (length < bestLength) {
+                best = route;
+                bestLength = length;
+            }
+        }
+        return best;
+    }
+
+    private static double length(int[] route, double[][] distances) {
+        double length = 0;
+        for (int i = 1; i < route.length; i++) {
+            length += distances[route[i - 1]][route[i]];
+        }
+        return length;
+    }
+
+    private static int[] nearestNeighbour(double[][] distances, int start) {
+        int n = distances.length;
+        int[] route = new int[n];
+        boolean[] visited = new boolean[n];
+        route[0] = start;
+        visited[start] = true;
+        for (int i = 1; i < n; i++) {
+            int last = route[i - 1];
+            int next = -1;
+            for (int j = 0; j < n; j++) {
+                if (!visited[j] && (next < 0 || distances[last][j] < distances[last][next])) {
+                    next = j;
+                }
+            }
+            route[i] = next;
+            visited[next] = true;
+        }
+        return route;
+    }
+
+    /**
+     * 反转 route[i..j]：只有 (i-1, i) 和 (j, j+1) 两条边变化，路径两端没有边
+     */
+    private static void twoOpt(int[] route, double[][] distances, boolean fixedStart) {
+        int n = route.length;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = fixedStart ? 1 : 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    double before = 0;
+                    double after = 0;
+                    if (i > 0) {
+                        before += distances[route[i - 1]][route[i]];
+                        after += distances[route[i - 1]][route[j]];
+                    }
+                    if (j < n - 1) {
+                        before += distances[route[j]][route[j + 1]];
+                        after += distances[route[i]][route[j + 1]];
+                    }
+                    // 留一点余量，避免浮点误差导致来回反转
+                    if (after < before - 1e-6) {
+                        reverse(route, i, j);
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void reverse(int[] route, int i, int j) {
+        while (i < j) {
+            int tmp = route[i];
+            route[i++] = route[j];
+            route[j--] = tmp;
+        }
+    }
+}
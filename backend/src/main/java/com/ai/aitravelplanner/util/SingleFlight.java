@@ -0,0 +1,93 @@
+package com.ai.aitravelplanner.util;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 进程内请求合并（single-flight）
+ * 同一 key 的并发调用只有第一个真正执行，其余调用等待并共享它的结果。
+ * 调用结束（无论成功失败）后立即移除 key，失败不会被缓存，后续请求会重新执行；
+ * 等待方超时只影响自身，不会取消正在执行的调用。
+ * 执行方拿到原结果，每个等待方拿到 copier 生成的独立副本，调用方修改结果互不影响。
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration waitTimeout;
+    private final Counter savedCounter;
+    private final UnaryOperator<V> copier;
+
+    /**
+     * 结果为不可变对象时使用，等待方直接共享同一实例
+     */
+    public SingleFlight(Duration waitTimeout, Counter savedCounter) {
+        this(waitTimeout, savedCounter, UnaryOperator.identity());
+    }
+
+    /**
+     * @param waitTimeout 跟随方最长等待时间
+     * @param savedCounter 被合并（省下）的调用次数
+     * @param copier 为每个等待方复制结果
+     */
+    public SingleFlight(Duration waitTimeout, Counter savedCounter, UnaryOperator<V> copier) {
+        this.waitTimeout = waitTimeout;
+        this.savedCounter = savedCounter;
+        this.copier = copier;
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            savedCounter.increment();
+            V shared = await(existing);
+            return shared != null ? copier.apply(shared) : null;
+        }
+        try {
+            V value = call.get();
+            // 等待方从一份快照复制，执行方返回后修改原结果不会影响等待方
+            created.complete(value != null ? copier.apply(value) : null);
+            return value;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("等待相同请求的结果超时", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待相同请求的结果被中断", e);
+        }
+    }
+
+    /**
+     * 当前正在执行的调用数
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
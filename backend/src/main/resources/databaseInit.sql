@@ -26,11 +26,11 @@ CREATE TABLE IF NOT EXISTS `plan` (
   `destination` VARCHAR(200) COMMENT '目的地',
   `people` INT DEFAULT 1 COMMENT '人数',
   `preferences` TEXT COMMENT '偏好（JSON格式）',
-  `plan_data` TEXT COMMENT '行程数据（JSON格式）',
+  `plan_data` MEDIUMBLOB COMMENT '行程数据（PlanDataCodec 编码，旧数据为 JSON 文本）',
   `status` INT DEFAULT 1 COMMENT '状态：1-进行中，2-已完成，3-已取消',
   `created_at` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
-  INDEX `idx_user_id` (`user_id`),
+  INDEX `idx_plan_user_created` (`user_id`, `created_at`, `id`),
   INDEX `idx_status` (`status`),
   FOREIGN KEY (`user_id`) REFERENCES `user`(`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='行程表';
@@ -69,6 +69,17 @@ CREATE TABLE IF NOT EXISTS `budget` (
   FOREIGN KEY (`plan_id`) REFERENCES `plan`(`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='预算表';
 
+-- 支出汇总表（新增、删除支出时在同一事务内增量更新）
+CREATE TABLE IF NOT EXISTS `budget_rollup` (
+  `plan_id` BIGINT NOT NULL COMMENT '行程ID',
+  `dim` CHAR(1) NOT NULL COMMENT '维度：T-合计，C-类别，D-日期',
+  `dim_key` VARCHAR(50) NOT NULL DEFAULT '' COMMENT '类别名或日期（yyyy-MM-dd），合计行为空串',
+  `amount` DECIMAL(12,2) NOT NULL DEFAULT 0.00 COMMENT '累计金额',
+  `expense_count` INT NOT NULL DEFAULT 0 COMMENT '支出笔数',
+  PRIMARY KEY (`plan_id`, `dim`, `dim_key`),
+  FOREIGN KEY (`plan_id`) REFERENCES `plan`(`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='支出汇总表';
+
 -- 用户偏好表
 CREATE TABLE IF NOT EXISTS `user_preference` (
   `id` BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -81,6 +92,13 @@ CREATE TABLE IF NOT EXISTS `user_preference` (
   FOREIGN KEY (`user_id`) REFERENCES `user`(`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户偏好表';
 
+-- 已有数据库升级：行程列表游标分页使用的索引
+-- ALTER TABLE `plan` ADD INDEX `idx_plan_user_created` (`user_id`, `created_at`, `id`), DROP INDEX `idx_user_id`;
+-- 已有数据库升级：plan_data 改为二进制列，原有 JSON 文本按 UTF-8 字节保留，读取时兼容并逐步迁移
+-- ALTER TABLE `plan` MODIFY `plan_data` MEDIUMBLOB COMMENT '行程数据（PlanDataCodec 编码，旧数据为 JSON 文本）';
+
+-- 已有数据库升级：执行上面的 budget_rollup 建表语句即可，已有行程的汇总在首次读取或记账时从 budget 表重建
+
 -- 插入测试数据（可选）
 -- 注意：实际部署时请删除或修改此部分
 
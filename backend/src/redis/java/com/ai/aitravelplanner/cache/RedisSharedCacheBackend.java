@@ -0,0 +1,121 @@
+package com.ai.aitravelplanner.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 基于 Spring Data Redis 的共享缓存（连接参数见 spring.data.redis.*）
+ * 条目以 UTF-8 文本保存（缓存内容都是 JSON）；失效消息通过 {channel} 频道广播，
+ * 订阅由 RedisMessageListenerContainer 维护，连接断开后自动重连并重新订阅。
+ */
+public class RedisSharedCacheBackend implements SharedCacheBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSharedCacheBackend.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String channel;
+    private final List<MessageListener> listeners = new CopyOnWriteArrayList<>();
+
+    public RedisSharedCacheBackend(StringRedisTemplate redisTemplate,
+                                   RedisMessageListenerContainer listenerContainer, String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.channel = keyPrefix + "cache:invalidation";
+    }
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        try {
+            String value = redisTemplate.opsForValue().get(key);
+            return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        } catch (DataAccessException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void set(String key, byte[] value, Duration ttl) throws IOException {
+        try {
+            redisTemplate.opsForValue().set(key, new String(value, StandardCharsets.UTF_8), ttl);
+        } catch (DataAccessException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            redisTemplate.delete(key);
+        } catch (DataAccessException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void publish(String message) throws IOException {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (DataAccessException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener, Runnable onResubscribe) {
+        MessageListener messageListener = new InvalidationListener(listener, onResubscribe);
+        listeners.add(messageListener);
+        listenerContainer.addMessageListener(messageListener, new ChannelTopic(channel));
+    }
+
+    @Override
+    public void close() {
+        for (MessageListener listener : listeners) {
+            listenerContainer.removeMessageListener(listener);
+        }
+        listeners.clear();
+    }
+
+    /**
+     * 第一次订阅成功之后的每次订阅成功都是断线重连，断开期间的消息可能已丢失
+     */
+    private static class InvalidationListener implements MessageListener, SubscriptionListener {
+
+        private final Consumer<String> listener;
+        private final Runnable onResubscribe;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        InvalidationListener(Consumer<String> listener, Runnable onResubscribe) {
+            this.listener = listener;
+            this.onResubscribe = onResubscribe;
+        }
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            if (subscribed.getAndSet(true)) {
+                log.info("失效消息频道已重新订阅 channel={}", new String(channel, StandardCharsets.UTF_8));
+                onResubscribe.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ai.aitravelplanner.config;
+
+import com.ai.aitravelplanner.cache.RedisSharedCacheBackend;
+import com.ai.aitravelplanner.cache.SharedCacheBackend;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * cache.read.shared.mode=redis 时的共享缓存，只在以 -Predis 构建时编译进来
+ * 连接使用 Spring Boot 按 spring.data.redis.* 自动配置的连接工厂。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cache.read.shared", name = "mode", havingValue = "redis")
+public class RedisCacheBackendConfig {
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean(destroyMethod = "close")
+    public SharedCacheBackend redisSharedCacheBackend(StringRedisTemplate redisTemplate,
+                                                      RedisMessageListenerContainer cacheInvalidationListenerContainer,
+                                                      ReadCacheProperties properties) {
+        return new RedisSharedCacheBackend(redisTemplate, cacheInvalidationListenerContainer,
+                properties.getShared().getKeyPrefix());
+    }
+}
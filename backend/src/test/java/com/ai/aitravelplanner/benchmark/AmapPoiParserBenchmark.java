@@ -0,0 +1,113 @@
+package com.ai.aitravelplanner.benchmark;
+
+import com.ai.aitravelplanner.client.AmapPoiParser;
+import com.ai.aitravelplanner.dto.PlaceInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 高德周边搜索响应解析基准：原 readTree + split 方式 vs AmapPoiParser 流式解析
+ * 样本为 25 个 POI、extensions=all 的响应（stub/amap-around.json）。
+ * 运行（结果中 gc.alloc.rate.norm 为每次解析分配的字节数）：
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath com.ai.aitravelplanner.benchmark.AmapPoiParserBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AmapPoiParserBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AmapPoiParser poiParser = new AmapPoiParser();
+    private byte[] body;
+
+    @Setup
+    public void load() throws IOException {
+        try (InputStream in = AmapPoiParserBenchmark.class.getClassLoader()
+                .getResourceAsStream("stub/amap-around.json")) {
+            body = in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public List<PlaceInfo> streaming() throws IOException {
+        return poiParser.parse(body);
+    }
+
+    /**
+     * 改造前 MapService 的解析方式
+     */
+    @Benchmark
+    public List<PlaceInfo> tree() throws IOException {
+        JsonNode root = objectMapper.readTree(new String(body, StandardCharsets.UTF_8));
+        if (!"1".equals(root.path("status").asText())) {
+            return List.of();
+        }
+        JsonNode pois = root.path("pois");
+        if (pois == null || !pois.isArray() || pois.isEmpty()) {
+            return List.of();
+        }
+
+        List<PlaceInfo> result = new ArrayList<>();
+        for (JsonNode poi : pois) {
+            String photoUrl = null;
+            JsonNode photos = poi.path("photos");
+            if (photos.isArray() && photos.size() > 0) {
+                photoUrl = photos.get(0).path("url").asText(null);
+            }
+
+            String location = poi.path("location").asText(null);
+            Double poiLng = null, poiLat = null;
+            if (location != null && location.contains(",")) {
+                String[] arr = location.split(",");
+                try {
+                    poiLng = Double.parseDouble(arr[0]);
+                    poiLat = Double.parseDouble(arr[1]);
+                } catch (NumberFormatException ignored) { }
+            }
+
+            PlaceInfo info = new PlaceInfo();
+            info.setName(poi.path("name").asText(null));
+            info.setAddress(poi.path("address").asText(null));
+            info.setType(poi.path("type").asText(null));
+            info.setDistance(poi.path("distance").asText(null));
+            info.setTel(poi.path("tel").asText(null));
+            info.setPhotoUrl(photoUrl);
+            info.setLng(poiLng);
+            info.setLat(poiLat);
+            result.add(info);
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AmapPoiParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.ai.aitravelplanner.benchmark;
+
+import com.ai.aitravelplanner.util.PlanDataCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * plan_data 编解码基准：旧格式（JSON 文本）vs PlanDataCodec（JSON + LZ4）
+ * 启动时打印各天数下的落库字节数；吞吐量看 encode / decode 的单次耗时。
+ * 运行：
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath com.ai.aitravelplanner.benchmark.PlanDataCodecBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanDataCodecBenchmark {
+
+    /** 每天 6 个景点 */
+    @Param({"3", "7", "14"})
+    private int days;
+
+    private String json;
+    private byte[] legacy;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        json = samplePlan(days);
+        legacy = json.getBytes(StandardCharsets.UTF_8);
+        encoded = PlanDataCodec.encode(json);
+        System.out.printf("%n[days=%d] JSON 文本 %d 字节，PlanDataCodec %d 字节（%.1f%%）%n",
+                days, legacy.length, encoded.length, 100.0 * encoded.length / legacy.length);
+    }
+
+    @Benchmark
+    public byte[] encodeLegacy() {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return PlanDataCodec.encode(json);
+    }
+
+    @Benchmark
+    public String decodeLegacy() {
+        return PlanDataCodec.decode(legacy);
+    }
+
+    @Benchmark
+    public String decode() {
+        return PlanDataCodec.decode(encoded);
+    }
+
+    /**
+     * 与模型输出结构一致的行程：每天 6 个景点，附带住宿和交通说明
+     */
+    static String samplePlan(int days) {
+        StringBuilder json = new StringBuilder("[");
+        for (int day = 1; day <= days; day++) {
+            json.append(day == 1 ? "" : ",").append("{\"day\":").append(day)
+                    .append(",\"accommodation\":\"推荐入住市中心酒店，步行可达地铁站，方便第二天出行\",")
+                    .append("\"transport\":\"地铁为主，景点之间距离较远时打车\",\"spots\":[");
+            for (int i = 0; i < 6; i++) {
+                json.append(i == 0 ? "" : ",")
+                        .append("{\"name\":\"景点").append(day).append('-').append(i)
+                        .append("\",\"lng\":").append(String.format("%.6f", 116.397428 + day * 0.0137 + i * 0.0071))
+                        .append(",\"lat\":").append(String.format("%.6f", 39.90923 + day * 0.0093 - i * 0.0052))
+                        .append(",\"type\":\"").append(i % 3 == 0 ? "景点" : i % 3 == 1 ? "餐厅" : "购物")
+                        .append("\",\"description\":\"第").append(day).append("天第").append(i + 1)
+                        .append("站：建议游览一到两小时，人多时可先去周边逛逛，傍晚光线适合拍照。\"")
+                        .append(",\"time\":\"").append(9 + i * 2).append(":00\",\"cost\":").append(50 * i).append('}');
+            }
+            json.append("]}");
+        }
+        return json.append("]").toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PlanDataCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,204 @@
+package com.ai.aitravelplanner.benchmark;
+
+import com.ai.aitravelplanner.entity.TravelPlan;
+import com.ai.aitravelplanner.entity.TravelSpot;
+import com.ai.aitravelplanner.mapper.TravelPlanMapper;
+import com.ai.aitravelplanner.mapper.TravelSpotMapper;
+import com.ai.aitravelplanner.util.PlanDataCodec;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 行程保存基准：经过真实的 MyBatis 映射器（TravelPlanMapper、TravelSpotMapper）和连接池，
+ * 对比逐条写入景点（每个景点一条 spotMapper.insert）与 savePlan 的写法（一条 spotMapper.insertBatch）。
+ * 数据库为 H2 TCP 服务，每条语句都有一次本机回环往返。
+ * 每次保存的语句数：逐条 spots + 1，批量 2。本机回环往返很便宜，两种写法的耗时差别在误差范围内，
+ * 本基准只用来确认批量写法没有变慢；实际收益取决于到数据库的往返延迟，需在目标环境测量。
+ * 运行：
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath com.ai.aitravelplanner.benchmark.PlanSaveBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanSaveBenchmark {
+
+    // 与 PlanServiceImpl.SPOT_BATCH_SIZE 一致
+    private static final int SPOT_BATCH_SIZE = 500;
+
+    /** 7 天 × 5 个景点 */
+    @Param({"35"})
+    private int spots;
+
+    private Server server;
+    private PooledDataSource dataSource;
+    private SqlSessionFactory sessionFactory;
+    private byte[] planData;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+        dataSource = new PooledDataSource("org.h2.Driver", "jdbc:h2:tcp://localhost:" + port
+                + "/mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,DAY,VALUE", "sa", "");
+        try (InputStream in = PlanSaveBenchmark.class.getClassLoader().getResourceAsStream("schema-h2.sql");
+             Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : new String(in.readAllBytes(), StandardCharsets.UTF_8).split(";")) {
+                if (!sql.isBlank()) {
+                    statement.execute(sql);
+                }
+            }
+        }
+
+        // 与 application.yml 中的 mybatis 配置一致
+        Configuration configuration = new Configuration(
+                new Environment("bench", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addMapper(TravelPlanMapper.class);
+        configuration.addMapper(TravelSpotMapper.class);
+        sessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < spots; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\":\"景点").append(i)
+                    .append("\",\"lng\":116.397,\"lat\":39.908,\"description\":\"一段景点介绍文字\"}");
+        }
+        planData = PlanDataCodec.encode(json.append("]").toString());
+    }
+
+    /**
+     * 每轮清空，避免表越来越大影响后面的测量
+     */
+    @TearDown(Level.Iteration)
+    public void truncate() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM spot");
+            statement.execute("DELETE FROM plan");
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.forceCloseAll();
+        server.stop();
+    }
+
+    @Benchmark
+    public long perStatement() {
+        try (SqlSession session = sessionFactory.openSession(false)) {
+            LocalDateTime now = LocalDateTime.now();
+            TravelPlan plan = newPlan(now);
+            session.getMapper(TravelPlanMapper.class).insert(plan);
+            TravelSpotMapper spotMapper = session.getMapper(TravelSpotMapper.class);
+            for (TravelSpot spot : newSpots(plan.getId(), now)) {
+                spotMapper.insert(spot);
+            }
+            session.commit();
+            return plan.getId();
+        }
+    }
+
+    /**
+     * 与 PlanServiceImpl.savePlan 相同的语句：主表一条，景点按 SPOT_BATCH_SIZE 分批的多行 INSERT
+     */
+    @Benchmark
+    public long batched() {
+        try (SqlSession session = sessionFactory.openSession(false)) {
+            LocalDateTime now = LocalDateTime.now();
+            TravelPlan plan = newPlan(now);
+            session.getMapper(TravelPlanMapper.class).insert(plan);
+            TravelSpotMapper spotMapper = session.getMapper(TravelSpotMapper.class);
+            List<TravelSpot> saved = newSpots(plan.getId(), now);
+            for (int i = 0; i < saved.size(); i += SPOT_BATCH_SIZE) {
+                spotMapper.insertBatch(saved.subList(i, Math.min(i + SPOT_BATCH_SIZE, saved.size())));
+            }
+            session.commit();
+            return plan.getId();
+        }
+    }
+
+    private TravelPlan newPlan(LocalDateTime now) {
+        TravelPlan plan = new TravelPlan();
+        plan.setUserId(1L);
+        plan.setTitle("七日游");
+        plan.setDestination("北京");
+        plan.setPeople(2);
+        plan.setDays(7);
+        plan.setBudget(BigDecimal.valueOf(5000));
+        plan.setPreferences("[]");
+        plan.setPlanDataBytes(planData);
+        plan.setStatus(1);
+        plan.setCreatedAt(now);
+        plan.setUpdatedAt(now);
+        return plan;
+    }
+
+    private List<TravelSpot> newSpots(Long planId, LocalDateTime now) {
+        List<TravelSpot> list = new ArrayList<>(spots);
+        for (int i = 0; i < spots; i++) {
+            TravelSpot spot = new TravelSpot();
+            spot.setPlanId(planId);
+            spot.setDay(i / 5 + 1);
+            spot.setName("景点" + i);
+            spot.setLng(116.397 + i * 0.001);
+            spot.setLat(39.908 + i * 0.001);
+            spot.setType("景点");
+            spot.setDescription("一段景点介绍文字");
+            spot.setOrderIndex(i % 5 + 1);
+            spot.setCreatedAt(now);
+            spot.setUpdatedAt(now);
+            list.add(spot);
+        }
+        return list;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PlanSaveBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
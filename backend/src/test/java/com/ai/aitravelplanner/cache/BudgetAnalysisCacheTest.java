@@ -0,0 +1,55 @@
+package com.ai.aitravelplanner.cache;
+
+import com.ai.aitravelplanner.dto.BudgetAnalysisDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BudgetAnalysisCacheTest {
+
+    private final BudgetAnalysisCache cache = new BudgetAnalysisCache(100, 24, new SimpleMeterRegistry());
+
+    @Test
+    void dropsAnalysisWhenExpensesChangedDuringTheCall() {
+        long generation = cache.generation(1L);
+        // 模型调用期间新增了支出
+        cache.invalidate(1L);
+        cache.put(1L, generation, new BudgetAnalysisDTO());
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void storesAnalysisWhenNothingChanged() {
+        cache.invalidate(2L);
+        long generation = cache.generation(2L);
+        cache.put(2L, generation, new BudgetAnalysisDTO());
+
+        assertNotNull(cache.get(2L));
+        cache.invalidate(2L);
+        assertNull(cache.get(2L));
+    }
+
+    @Test
+    void callerChangesDoNotLeakIntoCache() {
+        BudgetAnalysisDTO analysis = new BudgetAnalysisDTO();
+        analysis.setBudgetSummary("summary");
+        analysis.setSuggestions(new ArrayList<>(List.of("a")));
+        cache.put(3L, cache.generation(3L), analysis);
+        analysis.getSuggestions().add("changed after put");
+
+        BudgetAnalysisDTO first = cache.get(3L);
+        first.setBudgetSummary("changed");
+        first.getSuggestions().add("changed after get");
+
+        BudgetAnalysisDTO second = cache.get(3L);
+        assertEquals("summary", second.getBudgetSummary());
+        assertEquals(List.of("a"), second.getSuggestions());
+    }
+}
@@ -0,0 +1,52 @@
+package com.ai.aitravelplanner.cache;
+
+import com.ai.aitravelplanner.dto.PlanDayDTO;
+import com.ai.aitravelplanner.dto.PlanResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PlanResponseCacheTest {
+
+    @Test
+    void hitsForEquivalentRequestsAndMissesOtherwise() {
+        PlanResponseCache cache = new PlanResponseCache(100, 60, 500, new SimpleMeterRegistry());
+        String key = cache.keyOf(Map.of("destination", "北京", "days", 2, "budget", 2100));
+        cache.put(key, response(2));
+
+        assertNotNull(cache.get(cache.keyOf(Map.of("destination", " 北京", "days", "2", "budget", 2400))));
+        assertNull(cache.get(cache.keyOf(Map.of("destination", "北京", "days", 3, "budget", 2100))));
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void returnsCopiesAndSkipsEmptyPlans() {
+        PlanResponseCache cache = new PlanResponseCache(100, 60, 500, new SimpleMeterRegistry());
+        cache.put("a", response(2));
+        cache.get("a").getPlan().clear();
+        assertEquals(2, cache.get("a").getPlan().size());
+
+        cache.put("b", response(0));
+        assertNull(cache.get("b"));
+    }
+
+    private static PlanResponse response(int days) {
+        List<PlanDayDTO> plan = new ArrayList<>();
+        for (int i = 1; i <= days; i++) {
+            PlanDayDTO day = new PlanDayDTO();
+            day.setDay(i);
+            plan.add(day);
+        }
+        PlanResponse response = new PlanResponse();
+        response.setPlan(plan);
+        return response;
+    }
+}
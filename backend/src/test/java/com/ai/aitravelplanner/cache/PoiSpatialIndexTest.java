@@ -0,0 +1,113 @@
+package com.ai.aitravelplanner.cache;
+
+import com.ai.aitravelplanner.config.PoiIndexProperties;
+import com.ai.aitravelplanner.dto.PlaceInfo;
+import com.ai.aitravelplanner.util.GeoUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PoiSpatialIndexTest {
+
+    private static final double LNG = 116.397428;
+    private static final double LAT = 39.90923;
+    private static final String TILE = GeoUtils.geohash(LNG, LAT, 6);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void answersRadiusQueriesAndSurvivesRestart() {
+        PoiIndexProperties properties = new PoiIndexProperties();
+        properties.setFile(dir.resolve("poi-index.bin").toString());
+
+        PoiSpatialIndex index = new PoiSpatialIndex(properties, new SimpleMeterRegistry());
+        assertFalse(index.covers(LNG, LAT, 2000, "restaurant", 6));
+        index.add(TILE, "restaurant", List.of(
+                place("近", 116.398428, 39.90923),    // 约 85m
+                place("远", 116.417428, 39.90923),    // 约 1.7km
+                place("范围外", 116.447428, 39.90923)  // 约 4.3km
+        ), tileRadius(TILE));
+        assertTrue(index.covers(LNG, LAT, 2000, "restaurant", 6));
+        assertFalse(index.covers(LNG, LAT, 2000, "hotel", 6));
+
+        List<PlaceInfo> places = index.query(116.397428, 39.90923, 2000, "restaurant", 10);
+        assertEquals(List.of("近", "远"), places.stream().map(PlaceInfo::getName).toList());
+        assertEquals("85", places.get(0).getDistance());
+        index.shutdown();
+
+        PoiSpatialIndex reloaded = new PoiSpatialIndex(properties, new SimpleMeterRegistry());
+        assertEquals(3, reloaded.size());
+        assertTrue(reloaded.covers(LNG, LAT, 2000, "restaurant", 6));
+        PlaceInfo nearest = reloaded.query(116.397428, 39.90923, 2000, "restaurant", 1).get(0);
+        assertEquals(116.398428, nearest.getLng());
+        assertEquals("010-1234", nearest.getTel());
+        reloaded.shutdown();
+    }
+
+    @Test
+    void coversOnlyWhenQueryCircleLiesInsideAHarvest() {
+        PoiIndexProperties properties = new PoiIndexProperties();
+        properties.setFile(dir.resolve("poi-index.bin").toString());
+        PoiSpatialIndex index = new PoiSpatialIndex(properties, new SimpleMeterRegistry());
+
+        // 只按 2km 采集的网格，网格内偏离中心的点的查询圆会超出采集范围
+        index.add(TILE, "restaurant", List.of(), 2000);
+        assertFalse(index.covers(LNG, LAT, 2000, "restaurant", 6));
+
+        // 相邻网格的采集不能代替请求点所在网格，除非其搜索圆包含整个查询圆
+        String east = GeoUtils.geohash(LNG + 0.02, LAT, 6);
+        index.add(east, "hotel", List.of(), tileRadius(east));
+        assertFalse(index.covers(LNG, LAT, 2000, "hotel", 6));
+        index.add(east, "traffic", List.of(), 6000);
+        assertTrue(index.covers(LNG, LAT, 2000, "traffic", 6));
+        index.shutdown();
+    }
+
+    @Test
+    void answersNearestFromTruncatedHarvest() {
+        PoiIndexProperties properties = new PoiIndexProperties();
+        properties.setFile(dir.resolve("poi-index.bin").toString());
+        PoiSpatialIndex index = new PoiSpatialIndex(properties, new SimpleMeterRegistry());
+        double[] bounds = GeoUtils.bounds(TILE);
+        double centerLng = (bounds[0] + bounds[2]) / 2;
+        double centerLat = (bounds[1] + bounds[3]) / 2;
+
+        // 密集区域：网格中心 300m 内取到 12 个 POI 后截断
+        List<PlaceInfo> places = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            places.add(place("p" + i, centerLng + i * 0.0003, centerLat));
+        }
+        index.add(TILE, "restaurant", places, 300);
+
+        assertFalse(index.covers(centerLng, centerLat, 2000, "restaurant", 6));
+        List<PlaceInfo> nearest = index.answer(centerLng, centerLat, 2000, "restaurant", 6, 10);
+        assertEquals(10, nearest.size());
+        assertEquals("p10", nearest.get(9).getName());
+        // 最近 10 个所在的圆超出截断范围
+        assertNull(index.answer(centerLng - 0.003, centerLat, 2000, "restaurant", 6, 10));
+        index.shutdown();
+    }
+
+    private static int tileRadius(String geohash) {
+        return 2000 + (int) Math.ceil(GeoUtils.halfDiagonalMeters(geohash));
+    }
+
+    private static PlaceInfo place(String name, double lng, double lat) {
+        PlaceInfo place = new PlaceInfo();
+        place.setName(name);
+        place.setTel("010-1234");
+        place.setLng(lng);
+        place.setLat(lat);
+        return place;
+    }
+}
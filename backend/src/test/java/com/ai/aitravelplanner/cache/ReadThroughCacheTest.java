@@ -0,0 +1,115 @@
+package com.ai.aitravelplanner.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadThroughCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JavaType type = objectMapper.getTypeFactory().constructCollectionType(List.class, String.class);
+
+    @Test
+    void nodesShareEntriesAndInvalidations() {
+        Map<Long, List<String>> db = new ConcurrentHashMap<>(Map.of(1L, List.of("故宫", "天坛")));
+        AtomicInteger loads = new AtomicInteger();
+        SharedCacheBackend shared = new LocalSharedCacheBackend();
+        ReadThroughCache<Long, List<String>> nodeA = cache(shared);
+        ReadThroughCache<Long, List<String>> nodeB = cache(shared);
+
+        assertEquals(List.of("故宫", "天坛"), nodeA.get(1L, id -> load(db, loads, id)));
+        // 节点 B 从共享缓存读到，不回源
+        assertEquals(List.of("故宫", "天坛"), nodeB.get(1L, id -> load(db, loads, id)));
+        assertEquals(1, loads.get());
+
+        // 返回的是副本，修改不影响缓存
+        nodeB.get(1L, id -> load(db, loads, id)).add("颐和园");
+        assertEquals(2, nodeB.get(1L, id -> load(db, loads, id)).size());
+
+        // 节点 A 写入后失效，节点 B 的本地条目随广播一起丢弃
+        db.put(1L, List.of("故宫"));
+        nodeA.invalidate(1L);
+        assertEquals(List.of("故宫"), nodeB.get(1L, id -> load(db, loads, id)));
+        assertEquals(List.of("故宫"), nodeA.get(1L, id -> load(db, loads, id)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidationDuringLoadKeepsStaleValueOutOfBothLevels() throws Exception {
+        Map<Long, List<String>> db = new ConcurrentHashMap<>(Map.of(1L, List.of("故宫")));
+        AtomicInteger loads = new AtomicInteger();
+        SharedCacheBackend shared = new LocalSharedCacheBackend();
+        ReadThroughCache<Long, List<String>> nodeA = cache(shared);
+        ReadThroughCache<Long, List<String>> nodeB = cache(shared);
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+
+        // 节点 A 读到旧数据后停住，期间节点 B 写入并失效
+        CompletableFuture<List<String>> staleRead = CompletableFuture.supplyAsync(() -> nodeA.get(1L, id -> {
+            List<String> stale = load(db, loads, id);
+            loaded.countDown();
+            try {
+                assertTrue(written.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return stale;
+        }));
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        db.put(1L, List.of("天坛"));
+        Thread writer = new Thread(() -> nodeB.invalidate(1L));
+        writer.start();
+        // 广播先递增节点 A 的版本号，再等节点 A 回源结束后丢弃本地条目
+        while (writer.getState() == Thread.State.NEW || writer.getState() == Thread.State.RUNNABLE) {
+            Thread.onSpinWait();
+        }
+        written.countDown();
+        writer.join(5000);
+
+        assertEquals(List.of("故宫"), staleRead.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("天坛"), nodeB.get(1L, id -> load(db, loads, id)));
+        assertEquals(List.of("天坛"), nodeA.get(1L, id -> load(db, loads, id)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void unserializableValueIsLoadedOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        ReadThroughCache<Long, List<Object>> cache = new ReadThroughCache<>("test.objects", true,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, Object.class), objectMapper,
+                1024 * 1024, Duration.ofMinutes(10), null, Duration.ofMinutes(30), "test:", new SimpleMeterRegistry());
+        // 没有属性的对象 Jackson 无法序列化
+        List<Object> value = List.of(new Object());
+
+        assertSame(value, cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return value;
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    private ReadThroughCache<Long, List<String>> cache(SharedCacheBackend shared) {
+        return new ReadThroughCache<>("test.list", true, type, objectMapper, 1024 * 1024,
+                Duration.ofMinutes(10), shared, Duration.ofMinutes(30), "test:", new SimpleMeterRegistry());
+    }
+
+    private static List<String> load(Map<Long, List<String>> db, AtomicInteger loads, Long id) {
+        loads.incrementAndGet();
+        return new ArrayList<>(db.get(id));
+    }
+}
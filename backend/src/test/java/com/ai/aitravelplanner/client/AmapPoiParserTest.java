@@ -0,0 +1,67 @@
+package com.ai.aitravelplanner.client;
+
+import com.ai.aitravelplanner.dto.PlaceInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AmapPoiParserTest {
+
+    private final AmapPoiParser parser = new AmapPoiParser();
+
+    @Test
+    void matchesTreeBasedParsing() throws Exception {
+        byte[] body;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("stub/amap-around.json")) {
+            body = in.readAllBytes();
+        }
+        List<PlaceInfo> places = parser.parse(body);
+
+        JsonNode pois = new ObjectMapper().readTree(body).path("pois");
+        assertEquals(pois.size(), places.size());
+        for (int i = 0; i < pois.size(); i++) {
+            JsonNode poi = pois.get(i);
+            PlaceInfo place = places.get(i);
+            assertEquals(poi.path("name").asText(null), place.getName());
+            assertEquals(poi.path("address").asText(null), place.getAddress());
+            assertEquals(poi.path("type").asText(null), place.getType());
+            assertEquals(poi.path("distance").asText(null), place.getDistance());
+            assertEquals(poi.path("tel").asText(null), place.getTel());
+            assertEquals(poi.path("photos").get(0).path("url").asText(null), place.getPhotoUrl());
+            String[] location = poi.path("location").asText().split(",");
+            assertEquals(Double.parseDouble(location[0]), place.getLng());
+            assertEquals(Double.parseDouble(location[1]), place.getLat());
+        }
+    }
+
+    @Test
+    void failedStatusThrows() {
+        byte[] body = "{\"status\":\"0\",\"info\":\"INVALID_USER_KEY\",\"infocode\":\"10001\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> parser.parse(body));
+        assertTrue(e.getMessage().contains("INVALID_USER_KEY"));
+    }
+
+    @Test
+    void decimalParsingMatchesJdk() {
+        String[] values = {"116.397428", "-0.000001", "39.9", "180", "0.1234567890123456789", "1e3", "abc"};
+        for (String value : values) {
+            char[] chars = value.toCharArray();
+            double expected;
+            try {
+                expected = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                expected = Double.NaN;
+            }
+            assertEquals(expected, AmapPoiParser.parseDecimal(chars, 0, chars.length), value);
+        }
+    }
+}
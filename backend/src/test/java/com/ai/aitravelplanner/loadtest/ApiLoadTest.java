@@ -0,0 +1,137 @@
+package com.ai.aitravelplanner.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 离线端到端压测：本地桩模型 + 本地桩高德 + H2，全程不访问外部网络
+ *
+ * 运行：mvn test -Dtest=ApiLoadTest -Dloadtest=true
+ * 可选参数：
+ *   -Dloadtest.rps=20                 每个场景的目标 RPS
+ *   -Dloadtest.duration-seconds=10    每个场景的持续时间
+ *   -Dloadtest.llm-latency-ms=500     桩模型每次调用耗时
+ *   -Dloadtest.amap-latency-ms=20     桩高德每次调用耗时
+ *   -Dloadtest.max-error-rate=0.01    允许的最大错误率
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ApiLoadTest {
+
+    private static final int RPS = Integer.getInteger("loadtest.rps", 20);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 10));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+    private static final String[] NEARBY_TYPES = {"restaurant", "hotel", "traffic"};
+
+    private static StubLlmServer llmServer;
+    private static StubAmapServer amapServer;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void stubProperties(DynamicPropertyRegistry registry) throws IOException {
+        llmServer = new StubLlmServer(Long.getLong("loadtest.llm-latency-ms", 500));
+        amapServer = new StubAmapServer(Long.getLong("loadtest.amap-latency-ms", 20));
+        registry.add("langchain4j.open-ai.chat-model.base-url", llmServer::baseUrl);
+        registry.add("langchain4j.open-ai.streaming-chat-model.base-url", llmServer::baseUrl);
+        registry.add("amap.base-url", amapServer::baseUrl);
+        // 压测流量全部来自同一客户端，关闭限流
+        registry.add("rate-limit.enabled", () -> "false");
+        // /generate 经过 AI 任务线程池，按目标速率和桩模型延迟放宽并发
+        registry.add("ai.job.max-in-flight", () -> "32");
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        llmServer.close();
+        amapServer.close();
+    }
+
+    @Test
+    void runLoad() throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        LoadGenerator generator = new LoadGenerator(client);
+        String base = "http://127.0.0.1:" + port;
+        String planJson = StubLlmServer.load("stub/plan-response.json");
+
+        List<LoadGenerator.Scenario> scenarios = List.of(
+                // 预算逐个错开分档，保证每次都真正调用（桩）模型
+                new LoadGenerator.Scenario("generate", i -> post(base + "/api/ai/generate",
+                        "{\"destination\":\"北京\",\"days\":3,\"people\":2,\"budget\":" + (1000 + i * 1000)
+                                + ",\"preferences\":[\"历史文化\",\"美食\"],\"fresh\":true}"),
+                        ApiLoadTest::isResultSuccess),
+                new LoadGenerator.Scenario("nearby", i -> get(base + "/api/map/nearby?lng=" + (116.39 + (i % 50) * 0.01)
+                        + "&lat=39.90&type=" + NEARBY_TYPES[i % NEARBY_TYPES.length]),
+                        r -> r.statusCode() == 200 && r.body().startsWith("[{")),
+                // 一天 5 个景点、3 种类型合并为一个请求
+                new LoadGenerator.Scenario("batch", i -> post(base + "/api/map/nearby/batch",
+                        "{\"spots\":[" + batchSpots(i) + "]}"),
+                        ApiLoadTest::isResultSuccess),
+                new LoadGenerator.Scenario("save", i -> post(base + "/api/plan/save?userId=1",
+                        "{\"title\":\"压测行程" + i + "\",\"destination\":\"北京\",\"days\":3,\"budget\":3000,\"people\":2,"
+                                + "\"startDate\":\"2025-11-09\",\"endDate\":\"2025-11-11\",\"preferences\":[\"历史文化\"],"
+                                + planJson.substring(planJson.indexOf('{') + 1)),
+                        ApiLoadTest::isResultSuccess),
+                new LoadGenerator.Scenario("list", i -> get(base + "/api/plan/list/1"),
+                        ApiLoadTest::isResultSuccess),
+                new LoadGenerator.Scenario("summaries", i -> get(base + "/api/plan/summaries/1?size=20"),
+                        ApiLoadTest::isResultSuccess)
+        );
+
+        List<LoadGenerator.Report> reports = new ArrayList<>();
+        for (LoadGenerator.Scenario scenario : scenarios) {
+            reports.add(generator.run(scenario, RPS, DURATION));
+        }
+
+        System.out.printf("%n==== 压测结果（目标 %d rps，每个场景 %d 秒）====%n", RPS, DURATION.toSeconds());
+        reports.forEach(report -> System.out.println(report.format()));
+        System.out.printf("桩高德收到请求数: %d%n", amapServer.requestCount());
+        for (LoadGenerator.Report report : reports) {
+            assertTrue(report.errorRate() <= MAX_ERROR_RATE, report.name() + " 错误率过高: " + report.format());
+        }
+    }
+
+    private static String batchSpots(int i) {
+        List<String> spots = new ArrayList<>();
+        for (int s = 0; s < 5; s++) {
+            spots.add("{\"name\":\"景点" + s + "\",\"lng\":" + (116.30 + (i % 20) * 0.02 + s * 0.005) + ",\"lat\":39.95}");
+        }
+        return String.join(",", spots);
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static boolean isResultSuccess(HttpResponse<String> response) {
+        return response.statusCode() == 200 && response.body().contains("\"code\":1");
+    }
+}
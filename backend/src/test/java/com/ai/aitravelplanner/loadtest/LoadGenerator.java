@@ -0,0 +1,105 @@
+package com.ai.aitravelplanner.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * 开环压测发生器
+ * 按固定速率发出请求（不等待上一个请求返回），统计延迟分位数和错误率。
+ */
+public class LoadGenerator {
+
+    private final HttpClient client;
+
+    public LoadGenerator(HttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param name 场景名
+     * @param request 第 i 个请求
+     * @param success 判断响应是否成功
+     */
+    public record Scenario(String name, IntFunction<HttpRequest> request, Predicate<HttpResponse<String>> success) {
+    }
+
+    public record Report(String name, int total, long errors, double achievedRps,
+                         double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+
+        public double errorRate() {
+            return total == 0 ? 0 : (double) errors / total;
+        }
+
+        public String format() {
+            return String.format("%-10s total=%6d  rps=%7.1f  p50=%8.1fms  p95=%8.1fms  p99=%8.1fms  max=%8.1fms  errors=%5.2f%%",
+                    name, total, achievedRps, p50Ms, p95Ms, p99Ms, maxMs, errorRate() * 100);
+        }
+    }
+
+    public Report run(Scenario scenario, int targetRps, Duration duration) throws InterruptedException {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        AtomicInteger sequence = new AtomicInteger();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / targetRps;
+        long startNanos = System.nanoTime();
+        ticker.scheduleAtFixedRate(() -> {
+            HttpRequest request = scenario.request().apply(sequence.getAndIncrement());
+            long sentAt = System.nanoTime();
+            CompletableFuture<Void> future = client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .handle((response, error) -> {
+                        latencies.add(System.nanoTime() - sentAt);
+                        if (error != null || !scenario.success().test(response)) {
+                            errors.incrementAndGet();
+                        }
+                        return null;
+                    });
+            synchronized (pending) {
+                pending.add(future);
+            }
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        Thread.sleep(duration.toMillis());
+        ticker.shutdownNow();
+        ticker.awaitTermination(1, TimeUnit.SECONDS);
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        CompletableFuture<?>[] all;
+        synchronized (pending) {
+            all = pending.toArray(new CompletableFuture[0]);
+        }
+        try {
+            CompletableFuture.allOf(all).get(60, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // 超时未返回的请求计为错误
+            errors.addAndGet(all.length - latencies.size());
+        }
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Report(scenario.name(), all.length, errors.get(), all.length / elapsedSeconds,
+                percentileMs(sorted, 0.50), percentileMs(sorted, 0.95), percentileMs(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
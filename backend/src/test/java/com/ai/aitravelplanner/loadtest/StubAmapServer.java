@@ -0,0 +1,134 @@
+package com.ai.aitravelplanner.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地高德周边搜索桩服务（GET /v3/place/around）
+ * 在请求坐标附近生成固定数量的 POI，按距离排序并按 offset / page 分页，返回结构与高德 extensions=all 一致，用于离线压测。
+ */
+public class StubAmapServer implements AutoCloseable {
+
+    private static final int POI_COUNT = 10;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long latencyMs;
+    private final AtomicLong requestCount = new AtomicLong();
+
+    public StubAmapServer(long latencyMs) throws IOException {
+        this.latencyMs = latencyMs;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/v3/place/around", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 收到的请求总数，用于验证缓存等是否减少了外部调用
+     */
+    public long requestCount() {
+        return requestCount.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requestCount.incrementAndGet();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String[] location = query.getOrDefault("location", "116.397428,39.90923").split(",");
+            double lng = Double.parseDouble(location[0]);
+            double lat = Double.parseDouble(location[1]);
+            String types = query.getOrDefault("types", "050000");
+
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            // 与高德一致：按距离排序后按 offset / page 分页
+            List<double[]> locations = new ArrayList<>();
+            for (int i = 0; i < POI_COUNT; i++) {
+                locations.add(new double[]{i, lng + (i - POI_COUNT / 2.0) * 0.001, lat + (i % 3 - 1) * 0.001});
+            }
+            locations.sort(Comparator.comparingDouble(p -> Math.hypot(p[1] - lng, p[2] - lat)));
+            int offset = Integer.parseInt(query.getOrDefault("offset", "20"));
+            int page = Integer.parseInt(query.getOrDefault("page", "1"));
+            int from = Math.min(POI_COUNT, (page - 1) * offset);
+            List<double[]> pageLocations = locations.subList(from, Math.min(POI_COUNT, from + offset));
+
+            ObjectNode root = objectMapper.createObjectNode();
+            root.put("status", "1");
+            root.put("info", "OK");
+            root.put("infocode", "10000");
+            root.put("count", String.valueOf(POI_COUNT));
+            ArrayNode pois = root.putArray("pois");
+            for (double[] poiLocation : pageLocations) {
+                int i = (int) poiLocation[0];
+                double poiLng = poiLocation[1];
+                double poiLat = poiLocation[2];
+                ObjectNode poi = pois.addObject();
+                poi.put("id", "B0STUB" + types + i);
+                poi.put("name", "桩数据地点" + types + "-" + i);
+                poi.put("type", "餐饮服务;中餐厅;中餐厅");
+                poi.put("typecode", types);
+                poi.put("address", "测试路" + i + "号");
+                poi.put("location", String.format("%.6f,%.6f", poiLng, poiLat));
+                poi.put("tel", "010-0000000" + i);
+                poi.put("distance", String.valueOf(100 * (i + 1)));
+                ObjectNode bizExt = poi.putObject("biz_ext");
+                bizExt.put("rating", "4.5");
+                bizExt.put("cost", "88.00");
+                ArrayNode photos = poi.putArray("photos");
+                photos.addObject().put("title", "").put("url", "http://store.is.autonavi.com/showpic/stub" + i);
+            }
+
+            byte[] body = objectMapper.writeValueAsBytes(root);
+            exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
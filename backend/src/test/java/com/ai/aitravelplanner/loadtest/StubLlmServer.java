@@ -0,0 +1,165 @@
+package com.ai.aitravelplanner.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 本地 OpenAI 兼容聊天接口桩服务（POST /v1/chat/completions）
+ * 按提示词内容返回预置的行程、骨架、单天行程或预算分析 JSON，支持 stream 模式，
+ * 响应延迟可配置，用于离线压测。
+ */
+public class StubLlmServer implements AutoCloseable {
+
+    private static final int STREAM_CHUNKS = 20;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long latencyMs;
+
+    private final String planJson = load("stub/plan-response.json");
+    private final String outlineJson = load("stub/plan-outline.json");
+    private final String dayJson = load("stub/plan-day.json");
+    private final String budgetJson = load("stub/budget-analysis.json");
+
+    /**
+     * @param latencyMs 每次调用的模拟耗时，stream 模式下均匀分布在各个分片之间
+     */
+    public StubLlmServer(long latencyMs) throws IOException {
+        this.latencyMs = latencyMs;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/v1/chat/completions", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            String prompt = request.path("messages").toString();
+            String content = pickContent(prompt);
+            if (request.path("stream").asBoolean(false)) {
+                stream(exchange, content);
+            } else {
+                sleep(latencyMs);
+                byte[] body = objectMapper.writeValueAsBytes(completion(content));
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+        }
+    }
+
+    private String pickContent(String prompt) {
+        if (prompt.contains("财务分析")) {
+            return budgetJson;
+        }
+        if (prompt.contains("每日概要：只给出")) {
+            return outlineJson;
+        }
+        if (prompt.contains("请只生成第")) {
+            return dayJson;
+        }
+        return planJson;
+    }
+
+    private ObjectNode completion(String content) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("id", "chatcmpl-stub");
+        root.put("object", "chat.completion");
+        root.put("created", System.currentTimeMillis() / 1000);
+        root.put("model", "stub-model");
+        ArrayNode choices = root.putArray("choices");
+        ObjectNode choice = choices.addObject();
+        choice.put("index", 0);
+        choice.putObject("message").put("role", "assistant").put("content", content);
+        choice.put("finish_reason", "stop");
+        root.set("usage", usage(content));
+        return root;
+    }
+
+    private void stream(HttpExchange exchange, String content) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        int chunkSize = Math.max(1, (content.length() + STREAM_CHUNKS - 1) / STREAM_CHUNKS);
+        for (int start = 0; start < content.length(); start += chunkSize) {
+            sleep(latencyMs / STREAM_CHUNKS);
+            String piece = content.substring(start, Math.min(content.length(), start + chunkSize));
+            ObjectNode chunk = objectMapper.createObjectNode();
+            chunk.put("id", "chatcmpl-stub");
+            chunk.put("object", "chat.completion.chunk");
+            chunk.put("model", "stub-model");
+            ObjectNode choice = chunk.putArray("choices").addObject();
+            choice.put("index", 0);
+            choice.putObject("delta").put("content", piece);
+            writeEvent(out, objectMapper.writeValueAsString(chunk));
+        }
+        ObjectNode last = objectMapper.createObjectNode();
+        last.put("id", "chatcmpl-stub");
+        last.put("object", "chat.completion.chunk");
+        last.put("model", "stub-model");
+        ObjectNode choice = last.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.putObject("delta");
+        choice.put("finish_reason", "stop");
+        last.set("usage", usage(content));
+        writeEvent(out, objectMapper.writeValueAsString(last));
+        writeEvent(out, "[DONE]");
+    }
+
+    private ObjectNode usage(String content) {
+        ObjectNode usage = objectMapper.createObjectNode();
+        usage.put("prompt_tokens", 300);
+        usage.put("completion_tokens", content.length() / 2);
+        usage.put("total_tokens", 300 + content.length() / 2);
+        return usage;
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static String load(String resource) {
+        try (InputStream in = StubLlmServer.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("缺少测试资源: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
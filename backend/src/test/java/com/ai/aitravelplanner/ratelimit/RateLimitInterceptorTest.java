@@ -0,0 +1,73 @@
+package com.ai.aitravelplanner.ratelimit;
+
+import com.ai.aitravelplanner.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitInterceptorTest {
+
+    private static final String ENDPOINT = "/api/ai/jobs/plan";
+
+    private final RateLimitInterceptor interceptor = new RateLimitInterceptor(properties(), new SimpleMeterRegistry());
+
+    private static RateLimitProperties properties() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setBucket(new RateLimitProperties.Bucket(2, 0));
+        properties.setIp(new RateLimitProperties.Bucket(3, 0));
+        return properties;
+    }
+
+    private boolean call(String realIp, String forwardedFor, String userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", ENDPOINT);
+        request.setRemoteAddr("10.0.0.2");
+        if (realIp != null) {
+            request.addHeader("X-Real-IP", realIp);
+        }
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        if (userId != null) {
+            request.addHeader("X-User-Id", userId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean allowed = interceptor.preHandle(request, response, new Object());
+        if (!allowed) {
+            assertEquals(429, response.getStatus());
+        }
+        return allowed;
+    }
+
+    @Test
+    void rotatingUserIdDoesNotEscapeIpBucket() throws Exception {
+        // 每个用户 2 个令牌，但同一 IP 总共只有 3 个
+        assertTrue(call("1.1.1.1", null, "a"));
+        assertTrue(call("1.1.1.1", null, "a"));
+        assertFalse(call("1.1.1.1", null, "a"));
+        assertTrue(call("1.1.1.1", null, "b"));
+        assertFalse(call("1.1.1.1", null, "c"));
+
+        // 其他 IP 不受影响
+        assertTrue(call("2.2.2.2", null, "c"));
+    }
+
+    @Test
+    void keysOnLastForwardedHopInsteadOfClientSuppliedEntries() throws Exception {
+        assertTrue(call(null, "9.9.9.1, 3.3.3.3", null));
+        assertTrue(call(null, "9.9.9.2, 3.3.3.3", null));
+        // 伪造 X-Forwarded-For 第一项无法换出新桶
+        assertFalse(call(null, "9.9.9.3, 3.3.3.3", null));
+    }
+
+    @Test
+    void fallsBackToRemoteAddrWithoutProxyHeaders() throws Exception {
+        assertTrue(call(null, null, null));
+        assertTrue(call(null, null, null));
+        assertFalse(call(null, null, null));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ai.aitravelplanner.resilience;
+
+import com.ai.aitravelplanner.config.AmapCircuitBreakerProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final List<String> transitions = new ArrayList<>();
+
+    private CircuitBreaker breaker(long openSeconds) {
+        AmapCircuitBreakerProperties properties = new AmapCircuitBreakerProperties();
+        properties.setWindowSize(10);
+        properties.setMinCalls(4);
+        properties.setOpenSeconds(openSeconds);
+        properties.setHalfOpenCalls(2);
+        return new CircuitBreaker(properties, (from, to) -> transitions.add(from + "->" + to));
+    }
+
+    @Test
+    void opensOnFailureRateAndRecoversAfterHalfOpenTrials() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(breaker.tryAcquire(), i == 0, FAST);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // openSeconds=0：下一次申请即进入半开，只放行 2 个试探请求
+        CircuitBreaker.Permit first = breaker.tryAcquire();
+        CircuitBreaker.Permit second = breaker.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(breaker.tryAcquire());
+        breaker.onResult(first, true, FAST);
+        breaker.onResult(second, true, FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    void opensOnSlowCallsAndRejectsWhileOpen() {
+        CircuitBreaker breaker = breaker(60);
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(breaker.tryAcquire(), true, TimeUnit.SECONDS.toNanos(5));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    void halfOpenCountsOnlyProbeCalls() {
+        CircuitBreaker breaker = breaker(0);
+        // 关闭时发出、半开后才返回的调用
+        CircuitBreaker.Permit lateSuccess = breaker.tryAcquire();
+        CircuitBreaker.Permit lateFailure = breaker.tryAcquire();
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(breaker.tryAcquire(), false, FAST);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onResult(lateFailure, false, FAST);
+        breaker.onResult(lateSuccess, true, FAST);
+        breaker.onResult(probe, true, FAST);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onResult(breaker.tryAcquire(), true, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,116 @@
+package com.ai.aitravelplanner.resilience;
+
+import com.ai.aitravelplanner.config.LlmResilienceProperties;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientChatModelTest {
+
+    private static final ChatRequest REQUEST = ChatRequest.builder().messages(UserMessage.from("hi")).build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void interruptsPrimaryAfterTimeout() throws InterruptedException {
+        LlmResilienceProperties properties = new LlmResilienceProperties();
+        properties.getTimeouts().put("unknown", 1L);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ChatModel slow = new ChatModel() {
+            @Override
+            public ChatResponse chat(ChatRequest request) {
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return response("late");
+            }
+        };
+        ResilientChatModel model = new ResilientChatModel(slow, null, properties, meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> model.chat(REQUEST));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        model.shutdown();
+    }
+
+    @Test
+    void keepsWaitingForPrimaryWhenHedgeIsRejected() throws InterruptedException {
+        LlmResilienceProperties properties = new LlmResilienceProperties();
+        properties.setMaxThreads(1);
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setMinSamples(1);
+        properties.getHedge().setMinDelayMs(10);
+        // 第一次调用立即返回，之后每次耗时 200ms，必然触发对冲
+        AtomicLong delayMs = new AtomicLong();
+        ChatModel primary = new ChatModel() {
+            @Override
+            public ChatResponse chat(ChatRequest request) {
+                try {
+                    Thread.sleep(delayMs.getAndSet(200));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return response("ok");
+            }
+        };
+        ResilientChatModel model = new ResilientChatModel(primary, null, properties, meterRegistry);
+
+        assertEquals("ok", model.chat(REQUEST).aiMessage().text());
+        // 结果返回后唯一的线程还要回到线程池等待新任务，否则第二次调用本身就会被拒绝
+        Thread.sleep(100);
+        assertEquals("ok", model.chat(REQUEST).aiMessage().text());
+        assertEquals(1.0, meterRegistry.counter("llm.hedge", "method", "unknown", "outcome", "rejected").count());
+        model.shutdown();
+    }
+
+    @Test
+    void recordsTimedOutCallsInHedgeLatencyWindow() {
+        LlmResilienceProperties properties = new LlmResilienceProperties();
+        properties.getTimeouts().put("unknown", 1L);
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setMinSamples(1);
+        properties.getHedge().setMinDelayMs(10);
+        AtomicLong delayMs = new AtomicLong();
+        ChatModel primary = new ChatModel() {
+            @Override
+            public ChatResponse chat(ChatRequest request) {
+                try {
+                    Thread.sleep(delayMs.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return response("ok");
+            }
+        };
+        ResilientChatModel model = new ResilientChatModel(primary, null, properties, meterRegistry);
+
+        model.chat(REQUEST);
+        // 近期只有快速成功的样本，发出对冲后仍超时
+        delayMs.set(30_000);
+        assertThrows(IllegalStateException.class, () -> model.chat(REQUEST));
+        assertEquals(1.0, meterRegistry.counter("llm.hedge", "method", "unknown", "outcome", "fired").count());
+
+        // 超时按 1 秒计入窗口，p95 达到超时时间，不再对冲
+        delayMs.set(200);
+        assertEquals("ok", model.chat(REQUEST).aiMessage().text());
+        assertEquals(1.0, meterRegistry.counter("llm.hedge", "method", "unknown", "outcome", "fired").count());
+        model.shutdown();
+    }
+
+    private static ChatResponse response(String text) {
+        return ChatResponse.builder().aiMessage(AiMessage.from(text)).build();
+    }
+}
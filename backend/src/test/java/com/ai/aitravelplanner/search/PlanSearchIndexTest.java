@@ -0,0 +1,65 @@
+package com.ai.aitravelplanner.search;
+
+import com.ai.aitravelplanner.dto.PlanSearchResultDTO;
+import com.ai.aitravelplanner.dto.PlanSummaryDTO;
+import com.ai.aitravelplanner.entity.TravelPlan;
+import com.ai.aitravelplanner.mapper.TravelPlanMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlanSearchIndexTest {
+
+    @Test
+    void filtersByTextTagsAndBudgetAndMaintainsIndex() {
+        TravelPlanMapper mapper = mock(TravelPlanMapper.class);
+        when(mapper.selectSearchableByUserId(1L)).thenReturn(List.of(
+                plan(1L, "北京三日游", "北京", "[\"美食\",\"历史文化\"]", 3000),
+                plan(2L, "北海度假", "北海", "[\"美食\"]", 6000),
+                plan(3L, "Tokyo Trip", "东京", "[\"动漫\"]", 8000)
+        ));
+        PlanSearchIndex index = new PlanSearchIndex(mapper, 100, 60, new SimpleMeterRegistry());
+
+        // 2-gram 命中"北京"，不会误中"北海"
+        assertEquals(List.of(1L), ids(index.search(1L, "北京", null, null, null)));
+        // 单字查询、不区分大小写
+        assertEquals(List.of(2L, 1L), ids(index.search(1L, "北", null, null, null)));
+        assertEquals(List.of(3L), ids(index.search(1L, "tokyo", null, null, null)));
+
+        PlanSearchResultDTO result = index.search(1L, null, List.of("历史文化"), null, new BigDecimal("7000"));
+        assertEquals(List.of(1L), ids(result));
+        // 分面不受偏好条件影响，只受预算条件影响
+        assertEquals(Map.of("美食", 2, "历史文化", 1), result.getFacets());
+
+        index.onSaved(plan(4L, "北京美食之旅", "北京", "[\"美食\"]", 2000));
+        index.onDeleted(1L, 1L);
+        assertEquals(List.of(4L), ids(index.search(1L, "北京", List.of("美食"), null, null)));
+        verify(mapper, times(1)).selectSearchableByUserId(1L);
+    }
+
+    private static List<Long> ids(PlanSearchResultDTO result) {
+        return result.getItems().stream().map(PlanSummaryDTO::getId).toList();
+    }
+
+    private static TravelPlan plan(Long id, String title, String destination, String preferences, int budget) {
+        TravelPlan plan = new TravelPlan();
+        plan.setId(id);
+        plan.setUserId(1L);
+        plan.setTitle(title);
+        plan.setDestination(destination);
+        plan.setPreferences(preferences);
+        plan.setBudget(BigDecimal.valueOf(budget));
+        plan.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(id));
+        return plan;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.cache.BudgetAnalysisCache;
+import com.ai.aitravelplanner.cache.ReadThroughCache;
+import com.ai.aitravelplanner.dto.BudgetImportResultDTO;
+import com.ai.aitravelplanner.dto.BudgetSummaryDTO;
+import com.ai.aitravelplanner.entity.Budget;
+import com.ai.aitravelplanner.entity.TravelPlan;
+import com.ai.aitravelplanner.mapper.BudgetMapper;
+import com.ai.aitravelplanner.mapper.TravelPlanMapper;
+import com.ai.aitravelplanner.service.impl.BudgetImportServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class BudgetImportServiceTest {
+
+    @Autowired
+    private BudgetMapper budgetMapper;
+
+    @Autowired
+    private TravelPlanMapper planMapper;
+
+    @Autowired
+    private BudgetRollupService budgetRollupService;
+
+    @Autowired
+    private BudgetAnalysisCache budgetAnalysisCache;
+
+    @Autowired
+    private ReadThroughCache<Long, List<Budget>> budgetListCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    private BudgetImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        // 批次和事务段取小值，覆盖多段提交
+        importService = new BudgetImportServiceImpl(budgetMapper, planMapper, budgetRollupService,
+                budgetAnalysisCache, budgetListCache, transactionTemplate, new SimpleMeterRegistry(),
+                2, 3, 100, 50, 1024);
+    }
+
+    @Test
+    void importsValidRowsInChunksAndReportsInvalidOnes() throws IOException {
+        Long planId = createPlan();
+        budgetService.addBudget(budget(planId, "餐饮", "20"));
+        // 导入前读一次，确认导入后列表缓存已失效
+        assertEquals(1, budgetService.getBudgetByPlanId(planId).size());
+
+        String csv = "日期,类别,金额,备注\n"
+                + "2026-05-01,餐饮,58.50,午饭\n"
+                + "2026/5/1,交通,12,\n"
+                + "2026-05-02,,30,缺类别\n"
+                + "2026-05-02,住宿,abc,\n"
+                + "2026-05-02,住宿,450,\n"
+                + "2026-13-01,门票,80,\n"
+                + "2026-05-03,门票,-5,\n"
+                + ",购物,99.9,未填日期\n"
+                + "2026-05-03,餐饮,0.001,\n";
+        BudgetImportResultDTO result = importService.importBudgets(planId, BudgetImportService.FORMAT_CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(9, result.getTotalRows());
+        assertEquals(4, result.getImported());
+        assertEquals(5, result.getFailed());
+        assertFalse(result.isAborted());
+        assertEquals(List.of(4, 5, 7, 8, 10),
+                result.getErrors().stream().map(BudgetImportResultDTO.RowError::getLine).toList());
+
+        List<Budget> budgets = budgetService.getBudgetByPlanId(planId);
+        assertEquals(5, budgets.size());
+        BudgetSummaryDTO summary = budgetService.getBudgetSummary(planId);
+        assertEquals(5, summary.getExpenseCount());
+        assertEquals(0, new BigDecimal("640.40").compareTo(summary.getTotalSpent()));
+        assertEquals(0, new BigDecimal("78.50").compareTo(summary.getByCategory().get("餐饮")));
+        assertEquals(0, new BigDecimal("90.50").compareTo(summary.getByDay().get(LocalDate.of(2026, 5, 1))));
+    }
+
+    @Test
+    void rejectsUnknownPlan() throws IOException {
+        assertNull(importService.importBudgets(-1L, BudgetImportService.FORMAT_NDJSON,
+                new ByteArrayInputStream(new byte[0])));
+    }
+
+    private Budget budget(Long planId, String category, String amount) {
+        Budget budget = new Budget();
+        budget.setPlanId(planId);
+        budget.setCategory(category);
+        budget.setAmount(new BigDecimal(amount));
+        budget.setExpenseDate(LocalDate.of(2026, 5, 1));
+        return budget;
+    }
+
+    private Long createPlan() {
+        TravelPlan plan = new TravelPlan();
+        plan.setUserId(1L);
+        plan.setTitle("导入测试");
+        plan.setDestination("成都");
+        plan.setDays(3);
+        plan.setBudget(new BigDecimal("2000"));
+        plan.setStatus(1);
+        plan.setCreatedAt(LocalDateTime.now());
+        plan.setUpdatedAt(LocalDateTime.now());
+        planMapper.insert(plan);
+        return plan.getId();
+    }
+}
@@ -0,0 +1,157 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.dto.BudgetSummaryDTO;
+import com.ai.aitravelplanner.entity.Budget;
+import com.ai.aitravelplanner.entity.TravelPlan;
+import com.ai.aitravelplanner.mapper.BudgetMapper;
+import com.ai.aitravelplanner.mapper.BudgetRollupMapper;
+import com.ai.aitravelplanner.mapper.TravelPlanMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BudgetRollupServiceTest {
+
+    private static final String[] CATEGORIES = {"餐饮", "住宿", "交通", "门票"};
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private BudgetMapper budgetMapper;
+
+    @Autowired
+    private TravelPlanMapper planMapper;
+
+    @Autowired
+    private BudgetRollupMapper rollupMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void incrementalRollupMatchesFullRecompute() {
+        Long planId = createPlan(new BigDecimal("3000"));
+        Random random = new Random(7);
+        for (int i = 0; i < 40; i++) {
+            Budget budget = new Budget();
+            budget.setPlanId(planId);
+            budget.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            budget.setAmount(BigDecimal.valueOf(random.nextInt(50000), 2));
+            // 部分支出不填日期，按录入日期统计
+            budget.setExpenseDate(random.nextInt(4) == 0 ? null : LocalDate.of(2026, 5, 1 + random.nextInt(3)));
+            budgetService.addBudget(budget);
+            if (i % 5 == 4) {
+                budgetService.deleteBudget(budget.getId());
+            }
+            assertMatchesRecompute(planId);
+        }
+        List<Budget> remaining = budgetMapper.getByPlanId(planId);
+        for (Budget budget : remaining) {
+            budgetService.deleteBudget(budget.getId());
+        }
+        BudgetSummaryDTO empty = budgetService.getBudgetSummary(planId);
+        assertEquals(0, empty.getExpenseCount());
+        assertEquals(0, empty.getTotalSpent().signum());
+        assertTrue(empty.getByCategory().isEmpty());
+        assertTrue(empty.getByDay().isEmpty());
+    }
+
+    @Test
+    void rebuildsRollupForExpensesWrittenBeforeUpgrade() {
+        Long planId = createPlan(new BigDecimal("100"));
+        for (int day = 1; day <= 2; day++) {
+            Budget budget = new Budget();
+            budget.setPlanId(planId);
+            budget.setCategory("餐饮");
+            budget.setAmount(new BigDecimal("80"));
+            budget.setExpenseDate(LocalDate.of(2026, 5, day));
+            // 直接写表，模拟升级前没有汇总行的数据
+            budgetMapper.insert(budget);
+        }
+
+        BudgetSummaryDTO summary = budgetService.getBudgetSummary(planId);
+        assertEquals(2, summary.getExpenseCount());
+        assertEquals(0, new BigDecimal("160").compareTo(summary.getTotalSpent()));
+        assertEquals(0, new BigDecimal("160").compareTo(summary.getCumulativeByDay().get(LocalDate.of(2026, 5, 2))));
+        assertEquals(0, new BigDecimal("160.0").compareTo(summary.getBudgetUsedPercent()));
+        // 3 天行程、日均 80，推算 240，超支 140
+        assertEquals(0, new BigDecimal("140").compareTo(summary.getProjectedOverspend()));
+        assertNull(budgetService.getBudgetSummary(-1L));
+    }
+
+    @Test
+    void rebuildOnReadCommitsIndependentlyOfCallerTransaction() {
+        Long planId = createPlan(new BigDecimal("100"));
+        Budget budget = new Budget();
+        budget.setPlanId(planId);
+        budget.setCategory("交通");
+        budget.setAmount(new BigDecimal("30"));
+        budget.setExpenseDate(LocalDate.of(2026, 5, 1));
+        budgetMapper.insert(budget);
+
+        // 只读事务内读取汇总，调用方事务回滚后重建结果仍在
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        BudgetSummaryDTO summary = readOnly.execute(status -> {
+            status.setRollbackOnly();
+            return budgetService.getBudgetSummary(planId);
+        });
+
+        assertEquals(1, summary.getExpenseCount());
+        assertEquals(0, new BigDecimal("30").compareTo(summary.getTotalSpent()));
+        assertEquals(3, rollupMapper.selectByPlanId(planId).size());
+    }
+
+    private void assertMatchesRecompute(Long planId) {
+        BigDecimal total = BigDecimal.ZERO;
+        Map<String, BigDecimal> byCategory = new HashMap<>();
+        Map<LocalDate, BigDecimal> byDay = new TreeMap<>();
+        List<Budget> budgets = budgetMapper.getByPlanId(planId);
+        for (Budget budget : budgets) {
+            total = total.add(budget.getAmount());
+            byCategory.merge(budget.getCategory(), budget.getAmount(), BigDecimal::add);
+            byDay.merge(BudgetRollupService.dayOf(budget), budget.getAmount(), BigDecimal::add);
+        }
+
+        BudgetSummaryDTO summary = budgetService.getBudgetSummary(planId);
+        assertEquals(budgets.size(), summary.getExpenseCount());
+        assertEquals(0, total.compareTo(summary.getTotalSpent()));
+        assertEquals(byCategory.keySet(), summary.getByCategory().keySet());
+        byCategory.forEach((category, amount) ->
+                assertEquals(0, amount.compareTo(summary.getByCategory().get(category)), category));
+        assertEquals(byDay.keySet(), summary.getByDay().keySet());
+        byDay.forEach((day, amount) ->
+                assertEquals(0, amount.compareTo(summary.getByDay().get(day)), day.toString()));
+    }
+
+    private Long createPlan(BigDecimal budget) {
+        TravelPlan plan = new TravelPlan();
+        plan.setUserId(1L);
+        plan.setTitle("汇总测试");
+        plan.setDestination("杭州");
+        plan.setDays(3);
+        plan.setBudget(budget);
+        plan.setStatus(1);
+        plan.setCreatedAt(LocalDateTime.now());
+        plan.setUpdatedAt(LocalDateTime.now());
+        planMapper.insert(plan);
+        return plan.getId();
+    }
+}
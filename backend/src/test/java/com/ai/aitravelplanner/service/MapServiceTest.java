@@ -0,0 +1,168 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.cache.NearbyPlaceCache;
+import com.ai.aitravelplanner.cache.PoiSpatialIndex;
+import com.ai.aitravelplanner.client.AmapClient;
+import com.ai.aitravelplanner.config.NearbyCacheProperties;
+import com.ai.aitravelplanner.config.PoiIndexProperties;
+import com.ai.aitravelplanner.dto.PlaceInfo;
+import com.ai.aitravelplanner.ratelimit.TokenBucket;
+import com.ai.aitravelplanner.util.GeoUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MapServiceTest {
+
+    private static final double LNG = 116.397428;
+    private static final double LAT = 39.90923;
+
+    private final AmapClient amapClient = mock(AmapClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NearbyCacheProperties cacheProperties = new NearbyCacheProperties();
+    private final PoiIndexProperties indexProperties = new PoiIndexProperties();
+
+    @TempDir
+    Path dir;
+
+    MapServiceTest() {
+        cacheProperties.setTileSize(2);
+        cacheProperties.setMaxTilePages(2);
+        indexProperties.setEnabled(false);
+    }
+
+    private MapService mapService() {
+        return new MapService(amapClient, new NearbyPlaceCache(cacheProperties, meterRegistry),
+                new PoiSpatialIndex(indexProperties, meterRegistry), meterRegistry);
+    }
+
+    @Test
+    void pagesThroughTileUntilShortPage() {
+        stubPage(1, place("a", LNG + 0.001), place("b", LNG + 0.002));
+        stubPage(2, place("c", LNG + 0.003));
+
+        List<PlaceInfo> places = mapService().searchNearby(LNG, LAT, "restaurant").join();
+
+        assertEquals(List.of("a", "b", "c"), places.stream().map(PlaceInfo::getName).toList());
+        verify(amapClient, never()).placeAround(LNG, LAT, 2000, "050000", 10);
+    }
+
+    @Test
+    void answersFromTruncatedTileInDenseArea() {
+        // 网格中心向东每 25m 一个 POI，两页 12 个仍未取完，采集截断在约 300m
+        double[] center = tileCenter();
+        cacheProperties.setTileSize(6);
+        List<PlaceInfo> dense = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            dense.add(place("p" + i, center[0] + i * 0.0003, center[1]));
+        }
+        stubPage(6, 1, dense.subList(0, 6));
+        stubPage(6, 2, dense.subList(6, 12));
+        MapService mapService = mapService();
+
+        // 最近 10 个都在截断后的采集圆内
+        List<PlaceInfo> places = mapService.searchNearby(center[0], center[1], "restaurant").join();
+        assertEquals(10, places.size());
+        assertEquals("p1", places.get(0).getName());
+        assertEquals("p10", places.get(9).getName());
+        places = mapService.searchNearby(center[0] + 0.0005, center[1], "restaurant").join();
+        assertEquals(10, places.size());
+        verify(amapClient, never()).placeAround(anyDouble(), anyDouble(), anyInt(), eq("050000"), eq(10));
+        assertEquals(1.0, meterRegistry.counter("map.nearby.tile.truncated", "type", "restaurant").count());
+
+        // 离网格中心较远的点，最近的 POI 可能在截断范围外，实时搜索
+        double westLng = center[0] - 0.004;
+        when(amapClient.placeAround(westLng, center[1], 2000, "050000", 10))
+                .thenReturn(CompletableFuture.completedFuture(List.of(place("live", westLng))));
+        assertEquals(List.of("live"), mapService.searchNearby(westLng, center[1], "restaurant").join()
+                .stream().map(PlaceInfo::getName).toList());
+    }
+
+    @Test
+    void truncatedHarvestAnswersFromIndexAfterTileExpires() {
+        double[] center = tileCenter();
+        cacheProperties.setTileSize(6);
+        List<PlaceInfo> dense = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            dense.add(place("p" + i, center[0] + i * 0.0003, center[1]));
+        }
+        stubPage(6, 1, dense.subList(0, 6));
+        stubPage(6, 2, dense.subList(6, 12));
+        indexProperties.setEnabled(true);
+        indexProperties.setFile(dir.resolve("poi-index.bin").toString());
+        NearbyPlaceCache tileCache = new NearbyPlaceCache(cacheProperties, meterRegistry);
+        PoiSpatialIndex index = new PoiSpatialIndex(indexProperties, meterRegistry);
+        new MapService(amapClient, tileCache, index, meterRegistry).searchNearby(center[0], center[1], "restaurant").join();
+
+        // 新的网格缓存（相当于网格缓存过期），由索引中截断的采集回答
+        MapService restarted = new MapService(amapClient, new NearbyPlaceCache(cacheProperties, meterRegistry),
+                index, meterRegistry);
+        assertEquals(10, restarted.searchNearby(center[0], center[1], "restaurant").join().size());
+        verify(amapClient, times(1)).placeAround(anyDouble(), anyDouble(), anyInt(), eq("050000"), eq(6), eq(1));
+        index.shutdown();
+    }
+
+    @Test
+    void warmTileTakesTokenPerPageWithoutCountingIndexLookups() {
+        stubPage(1, place("a", LNG + 0.001), place("b", LNG + 0.002));
+        stubPage(2, place("c", LNG + 0.003), place("d", LNG + 0.004));
+        indexProperties.setEnabled(true);
+        indexProperties.setFile(dir.resolve("poi-index.bin").toString());
+        PoiSpatialIndex index = new PoiSpatialIndex(indexProperties, meterRegistry);
+        MapService mapService = new MapService(amapClient, new NearbyPlaceCache(cacheProperties, meterRegistry),
+                index, meterRegistry);
+        NearbyPlaceCache.Tile tile = mapService.tileOf(LNG, LAT, "restaurant");
+        TokenBucket limiter = new TokenBucket(2, 1);
+
+        assertTrue(mapService.warmTile(tile, limiter).join());
+        // 两页两次高德请求，两个令牌都已取走
+        assertTrue(limiter.tryAcquire() > 0);
+        assertFalse(mapService.warmTile(tile, limiter).join());
+        assertEquals(0.0, meterRegistry.counter("map.poi.index.queries", "result", "hit").count());
+        assertEquals(0.0, meterRegistry.counter("map.poi.index.queries", "result", "miss").count());
+        index.shutdown();
+    }
+
+    private void stubPage(int page, PlaceInfo... places) {
+        stubPage(2, page, List.of(places));
+    }
+
+    private void stubPage(int pageSize, int page, List<PlaceInfo> places) {
+        when(amapClient.placeAround(anyDouble(), anyDouble(), anyInt(), eq("050000"), eq(pageSize), eq(page)))
+                .thenReturn(CompletableFuture.completedFuture(List.copyOf(places)));
+    }
+
+    private static double[] tileCenter() {
+        double[] bounds = GeoUtils.bounds(GeoUtils.geohash(LNG, LAT, 6));
+        return new double[]{(bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2};
+    }
+
+    private static PlaceInfo place(String name, double lng) {
+        return place(name, lng, LAT);
+    }
+
+    private static PlaceInfo place(String name, double lng, double lat) {
+        PlaceInfo place = new PlaceInfo();
+        place.setName(name);
+        place.setLng(lng);
+        place.setLat(lat);
+        return place;
+    }
+}
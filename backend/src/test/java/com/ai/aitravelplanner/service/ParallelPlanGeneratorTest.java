@@ -0,0 +1,105 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.dto.DayOutlineDTO;
+import com.ai.aitravelplanner.dto.PlanDayDTO;
+import com.ai.aitravelplanner.dto.PlanOutlineDTO;
+import com.ai.aitravelplanner.dto.PlanResponse;
+import com.ai.aitravelplanner.dto.SpotDTO;
+import com.ai.aitravelplanner.metrics.LlmMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ParallelPlanGeneratorTest {
+
+    private final TravelPlanAiService aiService = mock(TravelPlanAiService.class);
+    private ParallelPlanGenerator generator;
+
+    @AfterEach
+    void tearDown() {
+        generator.shutdown();
+    }
+
+    @Test
+    void queueTimeDoesNotCountAgainstDayTimeout() {
+        // 单线程、单天 1 秒超时、每天耗时 0.6 秒：第 3 天排队 1.2 秒后仍应成功
+        generator = new ParallelPlanGenerator(aiService, new LlmMetrics(new SimpleMeterRegistry()), 1, 1, 0);
+        when(aiService.generateOutline(any())).thenReturn(outline(3));
+        when(aiService.generateDay(any(), anyString(), anyInt(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(600);
+            return day(invocation.getArgument(2));
+        });
+
+        PlanResponse response = generator.generate(Map.of("days", 3));
+
+        assertEquals(List.of(1, 2, 3), response.getPlan().stream().map(PlanDayDTO::getDay).toList());
+    }
+
+    @Test
+    void timedOutAttemptIsInterruptedBeforeRetry() {
+        generator = new ParallelPlanGenerator(aiService, new LlmMetrics(new SimpleMeterRegistry()), 1, 1, 1);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+        when(aiService.generateOutline(any())).thenReturn(outline(1));
+        when(aiService.generateDay(any(), anyString(), anyInt(), any(), any())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                    throw e;
+                }
+            }
+            return day(1);
+        });
+
+        // 线程池只有一个线程，首次调用不被中断的话重试无法执行
+        PlanResponse response = generator.generate(Map.of("days", 1));
+
+        assertEquals(1, response.getPlan().size());
+        assertEquals(1, interrupted.get());
+    }
+
+    @Test
+    void fallsBackWhenOutlineDayCountDiffers() {
+        generator = new ParallelPlanGenerator(aiService, new LlmMetrics(new SimpleMeterRegistry()), 2, 5, 0);
+        when(aiService.generateOutline(any())).thenReturn(outline(2));
+
+        assertNull(generator.generate(Map.of("days", 3)));
+    }
+
+    private static PlanOutlineDTO outline(int days) {
+        List<DayOutlineDTO> list = new ArrayList<>();
+        for (int i = 1; i <= days; i++) {
+            DayOutlineDTO day = new DayOutlineDTO();
+            day.setDay(i);
+            day.setTheme("主题" + i);
+            list.add(day);
+        }
+        PlanOutlineDTO outline = new PlanOutlineDTO();
+        outline.setDays(list);
+        return outline;
+    }
+
+    private static PlanDayDTO day(int day) {
+        SpotDTO spot = new SpotDTO();
+        spot.setName("景点" + day);
+        PlanDayDTO dto = new PlanDayDTO();
+        dto.setDay(day);
+        dto.setSpots(List.of(spot));
+        return dto;
+    }
+}
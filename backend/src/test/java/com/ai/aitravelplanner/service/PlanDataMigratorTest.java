@@ -0,0 +1,106 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.entity.TravelPlan;
+import com.ai.aitravelplanner.entity.User;
+import com.ai.aitravelplanner.mapper.TravelPlanMapper;
+import com.ai.aitravelplanner.mapper.UserMapper;
+import com.ai.aitravelplanner.util.PlanDataCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PlanDataMigratorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 5, 1, 10, 0);
+    private static final String JSON = "[{\"day\":1,\"spots\":[{\"name\":\"故宫\"}]}]";
+
+    @Autowired
+    private PlanDataMigrator migrator;
+
+    @Autowired
+    private TravelPlanMapper planMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void migrationRewritesLegacyDataWithoutTouchingUpdatedAt() throws InterruptedException {
+        byte[] legacy = JSON.getBytes(StandardCharsets.UTF_8);
+        Long planId = createPlan(legacy);
+        double migrated = count("migrated");
+
+        assertEquals(JSON, migrator.decode(planId, legacy));
+        awaitCount("migrated", migrated + 1);
+
+        byte[] stored = planMapper.selectPlanDataById(planId).getPlanDataBytes();
+        assertFalse(PlanDataCodec.isLegacy(stored));
+        assertEquals(JSON, PlanDataCodec.decode(stored));
+        assertEquals(T0, planMapper.selectById(planId).getUpdatedAt());
+    }
+
+    @Test
+    void migrationDoesNotOverwriteConcurrentWrite() throws InterruptedException {
+        byte[] legacy = JSON.getBytes(StandardCharsets.UTF_8);
+        Long planId = createPlan(legacy);
+        double skipped = count("skipped");
+
+        // 读到旧格式之后、迁移之前行程数据被改写
+        byte[] saved = PlanDataCodec.encode("[{\"day\":1,\"spots\":[{\"name\":\"天坛\"}]}]");
+        jdbcTemplate.update("UPDATE plan SET plan_data = ? WHERE id = ?", saved, planId);
+        migrator.decode(planId, legacy);
+        awaitCount("skipped", skipped + 1);
+
+        assertArrayEquals(saved, planMapper.selectPlanDataById(planId).getPlanDataBytes());
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("plan.data.migrations", "result", result).count();
+    }
+
+    private void awaitCount(String result, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (count(result) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(count(result) >= expected, result);
+    }
+
+    private Long createPlan(byte[] planData) {
+        User user = new User();
+        user.setUsername("migrate-" + UUID.randomUUID());
+        user.setPassword("123456");
+        userMapper.insert(user);
+
+        TravelPlan plan = new TravelPlan();
+        plan.setUserId(user.getId());
+        plan.setTitle("迁移测试");
+        plan.setDestination("北京");
+        plan.setPeople(1);
+        plan.setDays(1);
+        plan.setPreferences("[]");
+        plan.setPlanDataBytes(planData);
+        plan.setStatus(1);
+        plan.setCreatedAt(T0);
+        plan.setUpdatedAt(T0);
+        planMapper.insert(plan);
+        return plan.getId();
+    }
+}
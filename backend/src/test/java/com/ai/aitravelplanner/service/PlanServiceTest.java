@@ -0,0 +1,147 @@
+package com.ai.aitravelplanner.service;
+
+import com.ai.aitravelplanner.controller.WebPlanController;
+import com.ai.aitravelplanner.dto.PlanPageDTO;
+import com.ai.aitravelplanner.dto.PlanSummaryDTO;
+import com.ai.aitravelplanner.entity.TravelPlan;
+import com.ai.aitravelplanner.entity.User;
+import com.ai.aitravelplanner.mapper.TravelPlanMapper;
+import com.ai.aitravelplanner.mapper.UserMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PlanServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 5, 1, 10, 0);
+
+    @Autowired
+    private PlanService planService;
+
+    @Autowired
+    private WebPlanController planController;
+
+    @Autowired
+    private TravelPlanMapper planMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Test
+    void pagesThroughTiedCreatedAtWithoutGapsOrDuplicates() {
+        Long userId = createUser();
+        List<TravelPlan> plans = new ArrayList<>();
+        // 同一创建时间的多条行程跨页
+        for (int i = 0; i < 3; i++) {
+            plans.add(createPlan(userId, T0, null));
+        }
+        for (int i = 0; i < 2; i++) {
+            plans.add(createPlan(userId, T0.plusMinutes(1), null));
+        }
+        plans.add(createPlan(userId, T0.plusMinutes(2), null));
+        List<Long> expected = plans.stream()
+                .sorted(Comparator.comparing(TravelPlan::getCreatedAt).thenComparing(TravelPlan::getId).reversed())
+                .map(TravelPlan::getId)
+                .toList();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        PlanPageDTO page;
+        do {
+            page = planService.getPlanSummaries(userId, cursor, 2);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (page.isHasMore());
+
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void cursorConditionKeepsOnlyOlderRowsAndSmallerIdsOnTies() {
+        Long userId = createUser();
+        TravelPlan older = createPlan(userId, T0.minusMinutes(1), null);
+        TravelPlan first = createPlan(userId, T0, null);
+        TravelPlan second = createPlan(userId, T0, null);
+        createPlan(userId, T0, null);
+        createPlan(userId, T0.plusMinutes(1), null);
+
+        List<PlanSummaryDTO> rows = planMapper.selectSummariesByUserId(userId, T0, second.getId() + 1, 10);
+
+        assertEquals(List.of(second.getId(), first.getId(), older.getId()),
+                rows.stream().map(PlanSummaryDTO::getId).toList());
+    }
+
+    @Test
+    void rejectsMalformedOrTamperedCursors() {
+        Long userId = createUser();
+        createPlan(userId, T0, null);
+
+        for (String cursor : List.of("不是游标", "@@@", encode("garbage"), encode(T0.toString()),
+                encode(T0 + "|abc"), encode("2026-13-45T00:00|1"))) {
+            assertThrows(IllegalArgumentException.class, () -> planService.getPlanSummaries(userId, cursor, 10),
+                    cursor);
+        }
+        assertEquals(0, planController.getPlanSummaries(userId, "@@@", 10).getCode());
+
+        // 格式正确但已在末尾之后的游标：空页
+        PlanPageDTO past = planService.getPlanSummaries(userId, encode(T0.minusYears(1) + "|1"), 10);
+        assertTrue(past.getItems().isEmpty());
+        assertFalse(past.isHasMore());
+    }
+
+    @Test
+    void corruptedPlanDataIsReportedAsError() {
+        Long userId = createUser();
+        TravelPlan plan = createPlan(userId, T0, "{不是 JSON".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalStateException.class, () -> planService.getPlanDays(plan.getId()));
+        assertEquals(0, planController.getPlanDays(plan.getId()).getCode());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long createUser() {
+        User user = new User();
+        user.setUsername("paging-" + UUID.randomUUID());
+        user.setPassword("123456");
+        userMapper.insert(user);
+        return user.getId();
+    }
+
+    private TravelPlan createPlan(Long userId, LocalDateTime createdAt, byte[] planData) {
+        TravelPlan plan = new TravelPlan();
+        plan.setUserId(userId);
+        plan.setTitle("分页测试");
+        plan.setDestination("北京");
+        plan.setPeople(1);
+        plan.setDays(1);
+        plan.setPreferences("[]");
+        plan.setPlanDataBytes(planData);
+        plan.setStatus(1);
+        plan.setCreatedAt(createdAt);
+        plan.setUpdatedAt(createdAt);
+        planMapper.insert(plan);
+        return plan;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ai.aitravelplanner.service.impl;
+
+import com.ai.aitravelplanner.dto.AiJobDTO;
+import com.ai.aitravelplanner.dto.PlanResponse;
+import com.ai.aitravelplanner.service.BudgetAnalysisService;
+import com.ai.aitravelplanner.service.PlanService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AiJobServiceImplTest {
+
+    @Test
+    void runningJobsDoNotExpireButFinishedOnesDo() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PlanService planService = mock(PlanService.class);
+        when(planService.generatePlan(any())).thenAnswer(invocation -> {
+            release.await();
+            return new PlanResponse();
+        });
+        // 保留时间为 0：结束即过期
+        AiJobServiceImpl service = new AiJobServiceImpl(planService, mock(BudgetAnalysisService.class),
+                new SimpleMeterRegistry(), 1, 10, 0);
+        try {
+            AiJobDTO job = service.submitPlan(Map.of("destination", "北京"));
+            Thread.sleep(50);
+            assertNotNull(service.getJob(job.getJobId()));
+            assertEquals("RUNNING", service.getJob(job.getJobId()).getStatus());
+
+            CompletableFuture<AiJobDTO> finished = service.whenFinished(job.getJobId());
+            release.countDown();
+            assertEquals("SUCCEEDED", finished.get(5, TimeUnit.SECONDS).getStatus());
+            assertNull(service.getJob(job.getJobId()));
+        } finally {
+            service.shutdown();
+        }
+    }
+}
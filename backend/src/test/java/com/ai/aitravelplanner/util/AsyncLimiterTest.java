@@ -0,0 +1,50 @@
+package com.ai.aitravelplanner.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncLimiterTest {
+
+    @Test
+    @Timeout(10)
+    void drainsLongQueueOfSynchronousCallsWithoutRecursion() {
+        AsyncLimiter limiter = new AsyncLimiter(1, Integer.MAX_VALUE);
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        limiter.submit(() -> first);
+
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            int value = i;
+            queued.add(limiter.submit(() -> CompletableFuture.completedFuture(value)));
+        }
+        assertEquals(100_000, limiter.getPending());
+
+        first.complete(-1);
+
+        assertEquals(99_999, queued.get(99_999).join());
+        assertEquals(0, limiter.getActive());
+        assertEquals(0, limiter.getPending());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        AsyncLimiter limiter = new AsyncLimiter(1, 1);
+        limiter.submit(CompletableFuture::new);
+        limiter.submit(CompletableFuture::new);
+
+        CompletableFuture<Object> rejected = limiter.submit(CompletableFuture::new);
+        assertTrue(rejected.isCompletedExceptionally());
+        rejected.exceptionally(e -> {
+            assertTrue(e instanceof RejectedExecutionException);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package com.ai.aitravelplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpenseRowReaderTest {
+
+    @Test
+    void readsQuotedCsvWithChineseHeaderAndReportsLineNumbers() throws IOException {
+        String csv = "\uFEFF日期,类别,金额,备注,忽略列\r\n"
+                + "2026-05-01,餐饮,58.5,\"午饭, 两人\",x\r\n"
+                + "\r\n"
+                + "2026-05-02,交通,\"1200\",\"高铁\n往返\",\n"
+                + "2026-05-03,门票,80,\"他说\"\"值\"\"\"\n";
+        List<ExpenseRowReader.Row> rows = readAll(ExpenseRowReader.csv(new StringReader(csv), 100));
+
+        assertEquals(3, rows.size());
+        assertEquals(2, rows.get(0).line());
+        assertEquals("午饭, 两人", rows.get(0).fields().get(ExpenseRowReader.REMARK));
+        assertEquals("2026-05-01", rows.get(0).fields().get(ExpenseRowReader.EXPENSE_DATE));
+        assertEquals(4, rows.get(1).line());
+        assertEquals("高铁\n往返", rows.get(1).fields().get(ExpenseRowReader.REMARK));
+        assertEquals(6, rows.get(2).line());
+        assertEquals("他说\"值\"", rows.get(2).fields().get(ExpenseRowReader.REMARK));
+    }
+
+    @Test
+    void skipsOverlongRowsAndKeepsReading() throws IOException {
+        String csv = "category,amount\n"
+                + "餐饮," + "9".repeat(50) + "\n"
+                + "交通,30\n";
+        List<ExpenseRowReader.Row> rows = readAll(ExpenseRowReader.csv(new StringReader(csv), 20));
+
+        assertEquals(2, rows.size());
+        assertEquals(2, rows.get(0).line());
+        assertEquals(0, rows.get(0).fields().size());
+        assertNull(rows.get(1).error());
+        assertEquals("30", rows.get(1).fields().get(ExpenseRowReader.AMOUNT));
+    }
+
+    @Test
+    void rejectsCsvWithoutRequiredColumns() {
+        ExpenseRowReader reader = ExpenseRowReader.csv(new StringReader("category,remark\n餐饮,x\n"), 100);
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+
+    @Test
+    void readsNdjsonAndReportsMalformedLines() throws IOException {
+        String ndjson = "{\"category\":\"住宿\",\"amount\":450,\"expense_date\":\"2026-05-01\"}\n"
+                + "\n"
+                + "{\"category\":\"餐饮\",\n"
+                + "[1,2]\n"
+                + "{\"category\":\"购物\",\"amount\":\"99.9\",\"remark\":null}";
+        List<ExpenseRowReader.Row> rows = readAll(ExpenseRowReader.ndjson(new StringReader(ndjson), 100));
+
+        assertEquals(4, rows.size());
+        assertEquals("450", rows.get(0).fields().get(ExpenseRowReader.AMOUNT));
+        assertEquals(3, rows.get(1).line());
+        assertEquals(4, rows.get(2).line());
+        assertEquals(5, rows.get(3).line());
+        assertNull(rows.get(3).error());
+        assertNull(rows.get(3).fields().get(ExpenseRowReader.REMARK));
+        assertEquals(List.of(false, true, true, false),
+                rows.stream().map(row -> row.error() != null).toList());
+    }
+
+    private static List<ExpenseRowReader.Row> readAll(ExpenseRowReader reader) throws IOException {
+        List<ExpenseRowReader.Row> rows = new ArrayList<>();
+        ExpenseRowReader.Row row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
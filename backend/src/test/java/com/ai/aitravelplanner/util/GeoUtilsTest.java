@@ -0,0 +1,48 @@
+package com.ai.aitravelplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoUtilsTest {
+
+    @Test
+    void geohashMatchesKnownValue() {
+        // 天安门
+        assertEquals("wx4g0", GeoUtils.geohash(116.397428, 39.90923, 5));
+    }
+
+    @Test
+    void boundsContainEncodedPoint() {
+        double lng = 121.4737;
+        double lat = 31.2304;
+        double[] bounds = GeoUtils.bounds(GeoUtils.geohash(lng, lat, 6));
+        assertTrue(bounds[0] <= lng && lng <= bounds[2]);
+        assertTrue(bounds[1] <= lat && lat <= bounds[3]);
+    }
+
+    @Test
+    void geohashesAroundSpanTheCircleBoundingBox() {
+        double lng = 116.397428;
+        double lat = 39.90923;
+        Set<String> geohashes = GeoUtils.geohashesAround(lng, lat, 2000, 6);
+
+        assertEquals(GeoUtils.geohash(lng, lat, 6), geohashes.iterator().next());
+        // 圆的上下左右端点所在网格都在其中
+        double latDelta = 2000 / 111_320.0;
+        double lngDelta = 2000 / (111_320.0 * Math.cos(Math.toRadians(lat)));
+        assertTrue(geohashes.contains(GeoUtils.geohash(lng, lat + latDelta * 0.999, 6)));
+        assertTrue(geohashes.contains(GeoUtils.geohash(lng, lat - latDelta * 0.999, 6)));
+        assertTrue(geohashes.contains(GeoUtils.geohash(lng + lngDelta * 0.999, lat, 6)));
+        assertTrue(geohashes.contains(GeoUtils.geohash(lng - lngDelta * 0.999, lat, 6)));
+    }
+
+    @Test
+    void distanceBetweenBeijingAndShanghai() {
+        double meters = GeoUtils.distanceMeters(116.4074, 39.9042, 121.4737, 31.2304);
+        assertEquals(1_067_000, meters, 5_000);
+    }
+}
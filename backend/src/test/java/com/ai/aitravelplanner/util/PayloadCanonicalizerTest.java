@@ -0,0 +1,77 @@
+package com.ai.aitravelplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class PayloadCanonicalizerTest {
+
+    @Test
+    void ignoresKeyOrderAndTextFormatting() {
+        Map<String, Object> a = new LinkedHashMap<>();
+        a.put("destination", "北京 ");
+        a.put("days", 3);
+        a.put("preferences", List.of("美食", "历史"));
+        Map<String, Object> b = new LinkedHashMap<>();
+        b.put("preferences", List.of("历史", "美食"));
+        b.put("days", 3);
+        b.put("destination", " 北 京");
+
+        assertEquals(PayloadCanonicalizer.planKey(a, 500), PayloadCanonicalizer.planKey(b, 500));
+    }
+
+    @Test
+    void normalizesNumbersAndBudgetBuckets() {
+        Map<String, Object> a = Map.of("destination", "杭州", "days", 2, "people", 2, "budget", 3000);
+        Map<String, Object> b = Map.of("destination", "杭州", "days", "2", "people", 2.0, "budget", "3499.5");
+        Map<String, Object> c = Map.of("destination", "杭州", "days", 2, "people", 2, "budget", 3500);
+
+        assertEquals(PayloadCanonicalizer.planKey(a, 500), PayloadCanonicalizer.planKey(b, 500));
+        assertNotEquals(PayloadCanonicalizer.planKey(a, 500), PayloadCanonicalizer.planKey(c, 500));
+        // 不分档时预算按原值参与
+        assertNotEquals(PayloadCanonicalizer.planKey(a, 0), PayloadCanonicalizer.planKey(b, 0));
+    }
+
+    @Test
+    void derivesDaysFromDatesAndDefaultsPeople() {
+        Map<String, Object> byDays = Map.of("destination", "成都", "days", 3, "people", 1);
+        Map<String, Object> byDates = Map.of("destination", "成都",
+                "startDate", "2026-05-01", "endDate", "2026-05-03T00:00:00");
+
+        assertEquals(PayloadCanonicalizer.planKey(byDays, 500), PayloadCanonicalizer.planKey(byDates, 500));
+    }
+
+    @Test
+    void treatsNullFieldsAndControlFlagsAsAbsent() {
+        Map<String, Object> a = new HashMap<>();
+        a.put("destination", "西安");
+        a.put("remark", null);
+        a.put("fresh", true);
+        a.put("fanOut", false);
+        a.put("title", "五一出游");
+        Map<String, Object> b = Map.of("destination", "西安");
+
+        assertEquals(PayloadCanonicalizer.planKey(a, 500), PayloadCanonicalizer.planKey(b, 500));
+        assertEquals(PayloadCanonicalizer.genericKey(Map.of("planId", 1)),
+                PayloadCanonicalizer.genericKey(new HashMap<>(Map.of("planId", 1, "fresh", true))));
+    }
+
+    @Test
+    void sortsAndDeduplicatesCollections() {
+        Map<String, Object> a = Map.of("tags", Arrays.asList("Food", "food ", null, "", "Ｍuseum"));
+        Map<String, Object> b = Map.of("tags", List.of("museum", "food"));
+        Map<String, Object> c = Map.of("tags", List.of("museum", "food", "park"));
+
+        assertEquals(PayloadCanonicalizer.genericKey(a), PayloadCanonicalizer.genericKey(b));
+        assertNotEquals(PayloadCanonicalizer.genericKey(b), PayloadCanonicalizer.genericKey(c));
+        assertEquals(PayloadCanonicalizer.genericKey(Map.of("filter", Map.of("b", 1, "a", "X"))),
+                PayloadCanonicalizer.genericKey(Map.of("filter", new LinkedHashMap<>(Map.of("a", "x", "b", 1)))));
+    }
+}
@@ -0,0 +1,47 @@
+package com.ai.aitravelplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlanDataCodecTest {
+
+    @Test
+    void roundTripsAndShrinksRepeatedStructure() {
+        StringBuilder json = new StringBuilder("[");
+        for (int day = 1; day <= 7; day++) {
+            json.append(day == 1 ? "" : ",").append("{\"day\":").append(day).append(",\"spots\":[");
+            for (int i = 0; i < 5; i++) {
+                json.append(i == 0 ? "" : ",").append("{\"name\":\"景点").append(day * 10 + i)
+                        .append("\",\"lng\":116.39").append(day).append(i)
+                        .append(",\"lat\":39.90923,\"type\":\"景点\",\"description\":\"第").append(day)
+                        .append("天的一段介绍文字\"}");
+            }
+            json.append("]}");
+        }
+        String original = json.append("]").toString();
+
+        byte[] encoded = PlanDataCodec.encode(original);
+        assertFalse(PlanDataCodec.isLegacy(encoded));
+        assertEquals(original, PlanDataCodec.decode(encoded));
+        assertTrue(encoded.length < original.getBytes(StandardCharsets.UTF_8).length / 3,
+                "encoded=" + encoded.length);
+    }
+
+    @Test
+    void decodesLegacyTextAndRejectsCorruptData() {
+        byte[] legacy = "[{\"day\":1}]".getBytes(StandardCharsets.UTF_8);
+        assertTrue(PlanDataCodec.isLegacy(legacy));
+        assertEquals("[{\"day\":1}]", PlanDataCodec.decode(legacy));
+
+        byte[] encoded = PlanDataCodec.encode("[{\"day\":1,\"spots\":[]}]");
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 3);
+        assertThrows(IllegalArgumentException.class, () -> PlanDataCodec.decode(truncated));
+    }
+}
@@ -0,0 +1,68 @@
+package com.ai.aitravelplanner.util;
+
+import com.ai.aitravelplanner.dto.PlanDayDTO;
+import com.ai.aitravelplanner.dto.PlanResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlanDayStreamParserTest {
+
+    private static final String PLAN_JSON = """
+            ```json
+            {
+              "plan": [
+                {"day": 1, "spots": [{"name": "故宫 {午门}", "lng": 116.397, "lat": 39.918, "description": "含\\"引号\\""}]},
+                {"day": 2, "spots": [{"name": "颐和园", "lng": 116.275, "lat": 39.999, "description": "皇家园林"}]}
+              ],
+              "tips": [{"text": "不是行程"}]
+            }
+            ```""";
+
+    @Test
+    void emitsEachDayAsSoonAsItCloses() {
+        List<PlanDayDTO> emitted = new ArrayList<>();
+        PlanDayStreamParser parser = new PlanDayStreamParser(emitted::add);
+
+        int firstDayEnd = PLAN_JSON.indexOf("]}", PLAN_JSON.indexOf("故宫")) + 2;
+        for (int i = 0; i < PLAN_JSON.length(); i += 7) {
+            parser.append(PLAN_JSON.substring(i, Math.min(i + 7, PLAN_JSON.length())));
+            if (i + 7 < firstDayEnd) {
+                assertEquals(0, emitted.size());
+            }
+        }
+
+        assertEquals(2, emitted.size());
+        assertEquals("故宫 {午门}", emitted.get(0).getSpots().get(0).getName());
+        assertEquals("含\"引号\"", emitted.get(0).getSpots().get(0).getDescription());
+        assertEquals(2, emitted.get(1).getDay());
+
+        PlanResponse response = parser.finish();
+        assertEquals(2, response.getPlan().size());
+    }
+
+    @Test
+    void fallsBackToWholeParseWhenNoDayWasEmitted() {
+        PlanDayStreamParser parser = new PlanDayStreamParser(day -> { });
+        parser.append("{\"plan\": []}");
+
+        assertEquals(0, parser.finish().getPlan().size());
+    }
+
+    @Test
+    void handlesRootArrayWithoutRepeatingEmittedDays() {
+        List<PlanDayDTO> emitted = new ArrayList<>();
+        PlanDayStreamParser parser = new PlanDayStreamParser(emitted::add);
+        parser.append("```json\n[{\"day\": 1, \"spots\": []}, {\"day\": 2, \"spots\": []}]\n```");
+
+        assertEquals(2, parser.finish().getPlan().size());
+        assertEquals(2, emitted.size());
+
+        PlanDayStreamParser empty = new PlanDayStreamParser(day -> { });
+        empty.append("[]");
+        assertEquals(0, empty.finish().getPlan().size());
+    }
+}
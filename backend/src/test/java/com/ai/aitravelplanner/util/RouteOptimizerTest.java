@@ -0,0 +1,28 @@
+package com.ai.aitravelplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteOptimizerTest {
+
+    // 同一纬度上来回折返的五个点，最短路线是按经度顺序走
+    private final double[] lngs = {116.40, 116.43, 116.41, 116.44, 116.42};
+    private final double[] lats = {39.90, 39.90, 39.90, 39.90, 39.90};
+
+    @Test
+    void ordersZigZagIntoStraightLine() {
+        int[] order = RouteOptimizer.order(lngs, lats, -1);
+        assertTrue(Arrays.equals(order, new int[]{0, 2, 4, 1, 3})
+                || Arrays.equals(order, new int[]{3, 1, 4, 2, 0}), Arrays.toString(order));
+    }
+
+    @Test
+    void keepsFixedStart() {
+        // 从 116.43 出发：先去近的 116.44，再一路向西
+        assertArrayEquals(new int[]{1, 3, 4, 2, 0}, RouteOptimizer.order(lngs, lats, 1));
+    }
+}
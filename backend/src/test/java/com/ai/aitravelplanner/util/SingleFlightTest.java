@@ -0,0 +1,100 @@
+package com.ai.aitravelplanner.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private final Counter saved = Counter.builder("saved").register(new SimpleMeterRegistry());
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5), saved);
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> singleFlight.execute("k", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "plan";
+                })));
+            }
+            while (saved.count() < 3) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("plan", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(3, saved.count());
+    }
+
+    @Test
+    void failureIsNotRememberedForLaterCalls() {
+        assertThrows(IllegalArgumentException.class, () -> singleFlight.execute("k", () -> {
+            throw new IllegalArgumentException("boom");
+        }));
+
+        assertEquals("ok", singleFlight.execute("k", () -> "ok"));
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void waitersReceiveIndependentCopies() throws Exception {
+        Counter counter = Counter.builder("copies").register(new SimpleMeterRegistry());
+        SingleFlight<String, List<String>> copying = new SingleFlight<>(Duration.ofSeconds(5), counter, ArrayList::new);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                results.add(pool.submit(() -> {
+                    List<String> value = copying.execute("k", () -> {
+                        await(release);
+                        return new ArrayList<>(List.of("day1"));
+                    });
+                    value.add("mutated");
+                    return value;
+                }));
+            }
+            while (counter.count() < 2) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<List<String>> result : results) {
+                assertEquals(List.of("day1", "mutated"), result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
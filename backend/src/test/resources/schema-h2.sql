@@ -0,0 +1,81 @@
+-- 测试用 H2 表结构（MySQL 兼容模式），与 databaseInit.sql 保持一致
+
+CREATE TABLE IF NOT EXISTS user (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  username VARCHAR(50) NOT NULL UNIQUE,
+  password VARCHAR(255) NOT NULL,
+  email VARCHAR(100),
+  avatar VARCHAR(255),
+  created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+  updated_at DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS plan (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  title VARCHAR(200) NOT NULL,
+  start_date DATE,
+  end_date DATE,
+  days INT DEFAULT 1,
+  budget DECIMAL(10,2) DEFAULT 0.00,
+  destination VARCHAR(200),
+  people INT DEFAULT 1,
+  preferences TEXT,
+  plan_data VARBINARY(16777215),  -- MySQL 中为 MEDIUMBLOB
+  status INT DEFAULT 1,
+  created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+  updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  FOREIGN KEY (user_id) REFERENCES user(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_plan_user_created ON plan(user_id, created_at, id);
+
+CREATE TABLE IF NOT EXISTS spot (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  plan_id BIGINT NOT NULL,
+  day INT NOT NULL,
+  name VARCHAR(200) NOT NULL,
+  lng DECIMAL(10,7),
+  lat DECIMAL(10,7),
+  type VARCHAR(50),
+  description TEXT,
+  order_index INT DEFAULT 0,
+  created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+  updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (plan_id) REFERENCES plan(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_spot_plan_id ON spot(plan_id);
+
+CREATE TABLE IF NOT EXISTS budget (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  plan_id BIGINT NOT NULL,
+  category VARCHAR(50) NOT NULL,
+  amount DECIMAL(10,2) NOT NULL,
+  remark VARCHAR(500),
+  expense_date DATE,
+  created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+  updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (plan_id) REFERENCES plan(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_budget_plan_id ON budget(plan_id);
+
+CREATE TABLE IF NOT EXISTS budget_rollup (
+  plan_id BIGINT NOT NULL,
+  dim CHAR(1) NOT NULL,
+  dim_key VARCHAR(50) NOT NULL DEFAULT '',
+  amount DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+  expense_count INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (plan_id, dim, dim_key),
+  FOREIGN KEY (plan_id) REFERENCES plan(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS user_preference (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  user_id BIGINT NOT NULL UNIQUE,
+  preferences TEXT,
+  travel_style VARCHAR(50),
+  created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+  updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (user_id) REFERENCES user(id) ON DELETE CASCADE
+);
+
+MERGE INTO user (id, username, password, email) KEY (id) VALUES (1, 'loadtest', '123456', 'loadtest@example.com');
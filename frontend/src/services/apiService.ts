@@ -88,6 +88,19 @@ export const budgetApi = {
     return await apiClient.get(`/budget/list/${planId}`);
   },
   
+  // 获取支出汇总（按类别、按天、累计支出和超支推算）
+  getSummary: async (planId: string) => {
+    return await apiClient.get(`/budget/summary/${planId}`);
+  },
+  
+  // 批量导入费用记录（CSV 或 NDJSON 文件），返回逐行错误报告
+  importExpenses: async (planId: string, file: File) => {
+    const format = file.name.toLowerCase().endsWith('.csv') ? 'csv' : 'ndjson';
+    return await apiClient.post(`/budget/import/${planId}?format=${format}`, file, {
+      headers: { 'Content-Type': format === 'csv' ? 'text/csv' : 'application/x-ndjson' },
+    });
+  },
+  
   // 删除费用记录
   deleteExpense: async (expenseId: string) => {
     return await apiClient.delete(`/budget/delete/${expenseId}`);